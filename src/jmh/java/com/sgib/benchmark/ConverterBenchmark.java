@@ -0,0 +1,57 @@
+package com.sgib.benchmark;
+
+import com.sgib.domain.dto.AccountDTO;
+import com.sgib.domain.dto.AccountTransactionDTO;
+import com.sgib.domain.mapper.AccountConverter;
+import com.sgib.domain.mapper.AccountTransactionConverter;
+import com.sgib.domain.model.Account;
+import com.sgib.domain.model.AccountTransaction;
+import com.sgib.domain.model.AccountTransactionType;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapping cost between the domain model and the DTOs of the REST API.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConverterBenchmark {
+
+    private Account account;
+    private AccountTransaction accountTransaction;
+    private AccountTransactionDTO accountTransactionDTO;
+
+    @Setup
+    public void setUp() {
+        account = Account.builder().id(UUID.randomUUID()).balance(1_234_56).build();
+        accountTransaction = new AccountTransaction(LocalDateTime.now(), 10_50, 1_234_56, AccountTransactionType.DEPOSIT);
+        accountTransactionDTO = AccountTransactionDTO.builder()
+                .transactionDate(LocalDateTime.now())
+                .amount(new BigDecimal("10.50"))
+                .type("WITHDRAWAL")
+                .build();
+    }
+
+    @Benchmark
+    public AccountDTO accountToDto() {
+        return AccountConverter.toDto(account);
+    }
+
+    @Benchmark
+    public AccountTransactionDTO transactionToDto() {
+        return AccountTransactionConverter.toDto(accountTransaction);
+    }
+
+    @Benchmark
+    public AccountTransaction transactionToEntity() {
+        return AccountTransactionConverter.toEntity(accountTransactionDTO);
+    }
+}
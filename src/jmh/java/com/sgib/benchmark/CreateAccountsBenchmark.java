@@ -0,0 +1,68 @@
+package com.sgib.benchmark;
+
+import com.sgib.domain.dto.AccountDTO;
+import com.sgib.repository.InMemoryAccountRepository;
+import com.sgib.repository.wal.NoOpTransactionLog;
+import com.sgib.service.AccountService;
+import com.sgib.service.concurrency.AccountAdmission;
+import com.sgib.service.concurrency.AccountLocks;
+import com.sgib.service.concurrency.LockingTransactionEngine;
+import com.sgib.service.id.AccountIdGenerator;
+import com.sgib.service.id.SecureRandomAccountIdGenerator;
+import com.sgib.service.id.ThreadLocalRandomAccountIdGenerator;
+import com.sgib.service.id.TimeOrderedAccountIdGenerator;
+import com.sgib.service.metrics.LedgerMetrics;
+import com.sgib.service.notification.TransactionNotifier;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of account creation, one at a time or in batches, for each id generator. A fresh
+ * repository is used for every iteration so the map sizes stay comparable.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class CreateAccountsBenchmark {
+
+    @Param({"secure-random", "thread-local-random", "time-ordered"})
+    public String generator;
+
+    @Param({"1000"})
+    public int batchSize;
+
+    private AccountService accountService;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        AccountIdGenerator accountIdGenerator = switch (generator) {
+            case "thread-local-random" -> new ThreadLocalRandomAccountIdGenerator();
+            case "time-ordered" -> new TimeOrderedAccountIdGenerator();
+            default -> new SecureRandomAccountIdGenerator();
+        };
+        NoOpTransactionLog transactionLog = new NoOpTransactionLog();
+        LedgerMetrics ledgerMetrics = new LedgerMetrics(new SimpleMeterRegistry(), 4096, 10);
+        accountService = new AccountService(new InMemoryAccountRepository(),
+                new LockingTransactionEngine(new AccountLocks(16), transactionLog, ledgerMetrics), transactionLog, ledgerMetrics,
+                new AccountAdmission(0), new TransactionNotifier(), accountIdGenerator);
+        accountService.setMaxAccountBatchSize(batchSize);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public AccountDTO createAccount() {
+        return accountService.createAccount();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public List<AccountDTO> createAccounts() {
+        return accountService.createAccounts(batchSize);
+    }
+}
@@ -0,0 +1,51 @@
+package com.sgib.benchmark;
+
+import com.sgib.domain.model.Account;
+import com.sgib.repository.AccountRepository;
+import com.sgib.repository.InMemoryAccountRepository;
+import com.sgib.repository.OffHeapAccountRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of {@link AccountRepository#findOne} on large account tables, for both storages.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class FindAccountBenchmark {
+
+    @Param({"heap", "off-heap"})
+    public String storage;
+
+    @Param({"1000000"})
+    public int accounts;
+
+    private AccountRepository accountRepository;
+    private UUID[] accountIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        accountRepository = "off-heap".equals(storage)
+                ? new OffHeapAccountRepository(accounts, 64)
+                : new InMemoryAccountRepository();
+        accountIds = new UUID[accounts];
+        for (int i = 0; i < accounts; i++) {
+            accountIds[i] = UUID.randomUUID();
+            accountRepository.save(Account.builder().id(accountIds[i]).balance(0).build());
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Optional<Account> findOne() {
+        return accountRepository.findOne(accountIds[ThreadLocalRandom.current().nextInt(accountIds.length)]);
+    }
+}
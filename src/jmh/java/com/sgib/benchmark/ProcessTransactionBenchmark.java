@@ -0,0 +1,110 @@
+package com.sgib.benchmark;
+
+import com.sgib.domain.dto.AccountTransactionDTO;
+import com.sgib.repository.InMemoryAccountRepository;
+import com.sgib.repository.wal.NoOpTransactionLog;
+import com.sgib.service.AccountService;
+import com.sgib.service.concurrency.AccountAdmission;
+import com.sgib.service.concurrency.AccountLocks;
+import com.sgib.service.concurrency.CasTransactionEngine;
+import com.sgib.service.concurrency.LockingTransactionEngine;
+import com.sgib.service.concurrency.ShardedTransactionEngine;
+import com.sgib.service.concurrency.TransactionEngine;
+import com.sgib.service.id.SecureRandomAccountIdGenerator;
+import com.sgib.service.metrics.LedgerMetrics;
+import com.sgib.service.notification.TransactionNotifier;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link AccountService#processTransaction} with each transaction engine.
+ * With {@code hot} skew, {@value #HOT_PERCENT}% of the deposits go to the same account.
+ * Accounts are recreated every iteration so journals do not grow across the whole run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProcessTransactionBenchmark {
+
+    static final int HOT_PERCENT = 80;
+
+    @Param({"locking", "cas", "sharded"})
+    public String mode;
+
+    @Param({"uniform", "hot"})
+    public String skew;
+
+    @Param({"1024"})
+    public int accounts;
+
+    private AccountService accountService;
+    private UUID[] accountIds;
+    private boolean hot;
+    private ShardedTransactionEngine shardedEngine;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        NoOpTransactionLog transactionLog = new NoOpTransactionLog();
+        LedgerMetrics ledgerMetrics = new LedgerMetrics(new SimpleMeterRegistry(), 4096, 10);
+        if (shardedEngine != null)
+            shardedEngine.close();
+        shardedEngine = null;
+        TransactionEngine transactionEngine;
+        if ("cas".equals(mode))
+            transactionEngine = new CasTransactionEngine(transactionLog, ledgerMetrics);
+        else if ("sharded".equals(mode))
+            transactionEngine = shardedEngine = new ShardedTransactionEngine(transactionLog, 0, 4096);
+        else
+            transactionEngine = new LockingTransactionEngine(new AccountLocks(1024), transactionLog, ledgerMetrics);
+        accountService = new AccountService(new InMemoryAccountRepository(), transactionEngine, transactionLog, ledgerMetrics,
+                new AccountAdmission(0), new TransactionNotifier(), new SecureRandomAccountIdGenerator());
+        accountIds = new UUID[accounts];
+        for (int i = 0; i < accounts; i++)
+            accountIds[i] = accountService.createAccount().getId();
+        hot = "hot".equals(skew);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public AccountTransactionDTO threads1() {
+        return deposit();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public AccountTransactionDTO threads4() {
+        return deposit();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public AccountTransactionDTO threads16() {
+        return deposit();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public AccountTransactionDTO threads64() {
+        return deposit();
+    }
+
+    private AccountTransactionDTO deposit() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        UUID accountId = hot && random.nextInt(100) < HOT_PERCENT
+                ? accountIds[0]
+                : accountIds[random.nextInt(accountIds.length)];
+        AccountTransactionDTO deposit = AccountTransactionDTO.builder()
+                .amount(BigDecimal.ONE)
+                .type("DEPOSIT")
+                .build();
+        return accountService.processTransaction(accountId, deposit);
+    }
+}
@@ -0,0 +1,65 @@
+package com.sgib.benchmark;
+
+import com.sgib.domain.dto.AccountTransactionDTO;
+import com.sgib.exception.InsufficientFundsException;
+import com.sgib.repository.InMemoryAccountRepository;
+import com.sgib.repository.wal.NoOpTransactionLog;
+import com.sgib.service.AccountService;
+import com.sgib.service.TransactionOutcome;
+import com.sgib.service.concurrency.AccountAdmission;
+import com.sgib.service.concurrency.AccountLocks;
+import com.sgib.service.concurrency.LockingTransactionEngine;
+import com.sgib.service.id.SecureRandomAccountIdGenerator;
+import com.sgib.service.metrics.LedgerMetrics;
+import com.sgib.service.notification.TransactionNotifier;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning down an overdraft, reported as an exception by {@link AccountService#processTransaction}
+ * and as an outcome by {@link AccountService#tryProcessTransaction}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RejectionBenchmark {
+
+    private AccountService accountService;
+    private UUID accountId;
+    private AccountTransactionDTO overdraft;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        NoOpTransactionLog transactionLog = new NoOpTransactionLog();
+        LedgerMetrics ledgerMetrics = new LedgerMetrics(new SimpleMeterRegistry(), 4096, 10);
+        accountService = new AccountService(new InMemoryAccountRepository(),
+                new LockingTransactionEngine(new AccountLocks(16), transactionLog, ledgerMetrics), transactionLog, ledgerMetrics,
+                new AccountAdmission(0), new TransactionNotifier(), new SecureRandomAccountIdGenerator());
+        accountId = accountService.createAccount().getId();
+        overdraft = AccountTransactionDTO.builder()
+                .amount(BigDecimal.ONE)
+                .type("WITHDRAWAL")
+                .build();
+    }
+
+    @Benchmark
+    public Object exception() {
+        try {
+            return accountService.processTransaction(accountId, overdraft);
+        } catch (InsufficientFundsException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public TransactionOutcome outcome() {
+        return accountService.tryProcessTransaction(accountId, overdraft);
+    }
+}
@@ -0,0 +1,61 @@
+package com.sgib.benchmark;
+
+import com.sgib.domain.model.Account;
+import com.sgib.domain.model.AccountTransaction;
+import com.sgib.domain.model.AccountTransactionType;
+import com.sgib.service.statement.Statement;
+import com.sgib.service.statement.StatementFormat;
+import com.sgib.service.statement.StatementWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Printing the statement of an account with a long history, with the output discarded, so that only
+ * formatting is measured. Run with {@code -prof gc} to see the allocation per statement.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StatementBenchmark {
+
+    @Param({"10000"})
+    private int transactions;
+
+    @Param({"TEXT", "CSV"})
+    private StatementFormat format;
+
+    private Account account;
+    private StatementWriter writer;
+    private OutputStream output;
+
+    @Setup
+    public void setUp() {
+        List<AccountTransaction> accountTransactions = new ArrayList<>(transactions);
+        LocalDateTime date = LocalDateTime.of(2024, 1, 1, 0, 0);
+        long balance = 0;
+        for (int i = 0; i < transactions; i++) {
+            AccountTransactionType type = i % 3 == 2 ? AccountTransactionType.WITHDRAWAL : AccountTransactionType.DEPOSIT;
+            long amount = 1_00 + i % 10_000;
+            balance += type.isDebit() ? -amount : amount;
+            accountTransactions.add(new AccountTransaction(date.plusMinutes(7L * i), amount, balance, type));
+        }
+        account = Account.builder().id(UUID.randomUUID()).balance(balance).accountTransactions(accountTransactions).build();
+        writer = new StatementWriter();
+        output = OutputStream.nullOutputStream();
+    }
+
+    @Benchmark
+    public void print() throws IOException {
+        writer.write(Statement.of(account, null, null), format, output);
+    }
+}
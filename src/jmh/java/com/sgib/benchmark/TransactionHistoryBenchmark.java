@@ -0,0 +1,78 @@
+package com.sgib.benchmark;
+
+import com.sgib.domain.dto.AccountTransactionDTO;
+import com.sgib.domain.dto.StatementDTO;
+import com.sgib.domain.model.Account;
+import com.sgib.domain.model.AccountTransaction;
+import com.sgib.domain.model.AccountTransactionType;
+import com.sgib.repository.InMemoryAccountRepository;
+import com.sgib.repository.wal.NoOpTransactionLog;
+import com.sgib.service.AccountService;
+import com.sgib.service.concurrency.AccountAdmission;
+import com.sgib.service.concurrency.AccountLocks;
+import com.sgib.service.concurrency.LockingTransactionEngine;
+import com.sgib.service.id.SecureRandomAccountIdGenerator;
+import com.sgib.service.metrics.LedgerMetrics;
+import com.sgib.service.notification.TransactionNotifier;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of reading a long transaction history: the whole list, and a one day statement found
+ * through the journal time index. With {@code sealed}, the whole history is sealed as cold chunks
+ * first, which are decoded on the first read and then kept while memory allows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransactionHistoryBenchmark {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Param({"1000", "100000"})
+    public int historyLength;
+
+    @Param({"false", "true"})
+    public boolean sealed;
+
+    private AccountService accountService;
+    private UUID accountId;
+    private LocalDateTime middle;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        InMemoryAccountRepository accountRepository = new InMemoryAccountRepository();
+        NoOpTransactionLog transactionLog = new NoOpTransactionLog();
+        LedgerMetrics ledgerMetrics = new LedgerMetrics(new SimpleMeterRegistry(), 4096, 10);
+        accountService = new AccountService(accountRepository,
+                new LockingTransactionEngine(new AccountLocks(16), transactionLog, ledgerMetrics), transactionLog, ledgerMetrics, new AccountAdmission(0), new TransactionNotifier(), new SecureRandomAccountIdGenerator());
+        List<AccountTransaction> accountTransactions = new ArrayList<>(historyLength);
+        for (int i = 0; i < historyLength; i++)
+            accountTransactions.add(new AccountTransaction(START.plusMinutes(i), 100, 100L * (i + 1), AccountTransactionType.DEPOSIT));
+        accountId = UUID.randomUUID();
+        Account account = accountRepository.save(Account.builder().id(accountId).balance(100L * historyLength)
+                .accountTransactions(accountTransactions).build());
+        if (sealed)
+            account.getJournal().seal(Long.MAX_VALUE, false);
+        middle = START.plusMinutes(historyLength / 2);
+    }
+
+    @Benchmark
+    public List<AccountTransactionDTO> getTransactionsByAccountId() {
+        return accountService.getTransactionsByAccountId(accountId);
+    }
+
+    @Benchmark
+    public StatementDTO getStatementOfOneDay() {
+        return accountService.getStatement(accountId, middle, middle.plusDays(1));
+    }
+}
@@ -0,0 +1,115 @@
+package com.sgib.benchmark;
+
+import com.sgib.domain.dto.AccountTransactionDTO;
+import com.sgib.domain.dto.TransferDTO;
+import com.sgib.domain.dto.TransferResultDTO;
+import com.sgib.repository.InMemoryAccountRepository;
+import com.sgib.repository.wal.NoOpTransactionLog;
+import com.sgib.service.AccountService;
+import com.sgib.service.concurrency.AccountAdmission;
+import com.sgib.service.concurrency.AccountLocks;
+import com.sgib.service.concurrency.CasTransactionEngine;
+import com.sgib.service.concurrency.LockingTransactionEngine;
+import com.sgib.service.concurrency.ShardedTransactionEngine;
+import com.sgib.service.concurrency.TransactionEngine;
+import com.sgib.service.id.SecureRandomAccountIdGenerator;
+import com.sgib.service.metrics.LedgerMetrics;
+import com.sgib.service.notification.TransactionNotifier;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Throughput of {@link AccountService#transfer} with each transaction engine. With {@code disjoint}
+ * pairs every thread moves money back and forth between its own two accounts, so throughput should
+ * grow with the thread count; with {@code shared} pairs every thread uses the same two accounts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransferBenchmark {
+
+    static final int MAX_THREADS = 16;
+
+    @Param({"locking", "cas", "sharded"})
+    public String mode;
+
+    @Param({"disjoint", "shared"})
+    public String pairs;
+
+    private AccountService accountService;
+    private UUID[] accountIds;
+    private final AtomicInteger nextPair = new AtomicInteger();
+    private ShardedTransactionEngine shardedEngine;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        NoOpTransactionLog transactionLog = new NoOpTransactionLog();
+        LedgerMetrics ledgerMetrics = new LedgerMetrics(new SimpleMeterRegistry(), 4096, 10);
+        if (shardedEngine != null)
+            shardedEngine.close();
+        shardedEngine = null;
+        TransactionEngine transactionEngine;
+        if ("cas".equals(mode))
+            transactionEngine = new CasTransactionEngine(transactionLog, ledgerMetrics);
+        else if ("sharded".equals(mode))
+            transactionEngine = shardedEngine = new ShardedTransactionEngine(transactionLog, 0, 4096);
+        else
+            transactionEngine = new LockingTransactionEngine(new AccountLocks(1024), transactionLog, ledgerMetrics);
+        accountService = new AccountService(new InMemoryAccountRepository(), transactionEngine, transactionLog, ledgerMetrics,
+                new AccountAdmission(0), new TransactionNotifier(), new SecureRandomAccountIdGenerator());
+        accountIds = new UUID[2 * MAX_THREADS];
+        for (int i = 0; i < accountIds.length; i++) {
+            accountIds[i] = accountService.createAccount().getId();
+            accountService.processTransaction(accountIds[i], AccountTransactionDTO.builder()
+                    .amount(BigDecimal.valueOf(1_000_000)).type("DEPOSIT").build());
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Pair {
+
+        private TransferDTO forth;
+        private TransferDTO back;
+        private boolean returning;
+
+        @Setup(Level.Iteration)
+        public void setUp(TransferBenchmark benchmark) {
+            int pair = "shared".equals(benchmark.pairs) ? 0 : benchmark.nextPair.getAndIncrement() % MAX_THREADS;
+            UUID first = benchmark.accountIds[2 * pair];
+            UUID second = benchmark.accountIds[2 * pair + 1];
+            forth = TransferDTO.builder().sourceAccountId(first).targetAccountId(second).amount(BigDecimal.ONE).build();
+            back = TransferDTO.builder().sourceAccountId(second).targetAccountId(first).amount(BigDecimal.ONE).build();
+        }
+
+        TransferDTO next() {
+            returning = !returning;
+            return returning ? back : forth;
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public TransferResultDTO threads1(Pair pair) {
+        return accountService.transfer(pair.next());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public TransferResultDTO threads4(Pair pair) {
+        return accountService.transfer(pair.next());
+    }
+
+    @Benchmark
+    @Threads(16)
+    public TransferResultDTO threads16(Pair pair) {
+        return accountService.transfer(pair.next());
+    }
+}
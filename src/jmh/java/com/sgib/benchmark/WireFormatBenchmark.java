@@ -0,0 +1,86 @@
+package com.sgib.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.sgib.controller.binary.LedgerBinaryFormat;
+import com.sgib.domain.dto.AccountTransactionDTO;
+import com.sgib.domain.model.Money;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding and decoding a page of transaction history as JSON and in the binary format.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    private static final TypeReference<List<AccountTransactionDTO>> TRANSACTIONS = new TypeReference<>() {
+    };
+
+    @Param({"1000"})
+    private int transactions;
+
+    private ObjectMapper objectMapper;
+    private List<AccountTransactionDTO> history;
+    private byte[] json;
+    private byte[] binary;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = new ObjectMapper().registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        history = new ArrayList<>(transactions);
+        LocalDateTime date = LocalDateTime.now();
+        UUID counterparty = UUID.randomUUID();
+        for (int i = 0; i < transactions; i++)
+            history.add(AccountTransactionDTO.builder()
+                    .transactionDate(date.plusSeconds(i))
+                    .amount(Money.toBigDecimal(10_50))
+                    .balanceAfterTransaction(Money.toBigDecimal(10_50L * (i + 1)))
+                    .type(i % 2 == 0 ? "DEPOSIT" : "TRANSFER_IN")
+                    .sequence((long) i)
+                    .counterpartyAccountId(i % 2 == 0 ? null : counterparty)
+                    .build());
+        json = toJson();
+        binary = toBinary();
+    }
+
+    @Benchmark
+    public byte[] toJson() throws IOException {
+        return objectMapper.writeValueAsBytes(history);
+    }
+
+    @Benchmark
+    public byte[] toBinary() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(8192);
+        LedgerBinaryFormat.writeTransactions(new DataOutputStream(bytes), history);
+        return bytes.toByteArray();
+    }
+
+    @Benchmark
+    public List<AccountTransactionDTO> fromJson() throws IOException {
+        return objectMapper.readValue(json, TRANSACTIONS);
+    }
+
+    @Benchmark
+    public List<AccountTransactionDTO> fromBinary() throws IOException {
+        return LedgerBinaryFormat.readTransactions(new DataInputStream(new ByteArrayInputStream(binary)));
+    }
+}
@@ -1,24 +1,68 @@
 package com.sgib.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.sgib.controller.binary.LedgerBinaryFormat;
 import com.sgib.domain.dto.AccountDTO;
+import com.sgib.domain.dto.AccountSummaryDTO;
 import com.sgib.domain.dto.AccountTransactionDTO;
+import com.sgib.domain.dto.AccountTransactionPage;
+import com.sgib.domain.dto.StatementDTO;
+import com.sgib.domain.dto.TransactionResultDTO;
+import com.sgib.domain.model.Money;
+import com.sgib.domain.model.Rejection;
+import com.sgib.domain.model.RenderedAccount;
+import com.sgib.service.AccountReadCache;
 import com.sgib.service.AccountService;
-import org.springframework.beans.factory.annotation.Autowired;
+import com.sgib.service.TransactionOutcome;
+import com.sgib.service.idempotency.IdempotencyCache;
+import com.sgib.service.statement.Statement;
+import com.sgib.service.statement.StatementFormat;
+import com.sgib.service.statement.StatementPrinter;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/api/v1/accounts")
 public class AccountController {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
     private AccountService accountService;
+    private AccountReadCache accountReadCache;
+    private IdempotencyCache idempotencyCache;
+    private StatementPrinter statementPrinter;
+    private ObjectWriter streamWriter;
+    private byte[][] rejectionBodies;
 
-    public AccountController(AccountService accountService) {
+    public AccountController(AccountService accountService, AccountReadCache accountReadCache, IdempotencyCache idempotencyCache,
+                             StatementPrinter statementPrinter, ObjectMapper objectMapper) throws JsonProcessingException {
         this.accountService = accountService;
+        this.accountReadCache = accountReadCache;
+        this.idempotencyCache = idempotencyCache;
+        this.statementPrinter = statementPrinter;
+        this.streamWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        // rejections are frequent and always say the same, so their bodies are rendered once
+        this.rejectionBodies = new byte[Rejection.values().length][];
+        for (Rejection rejection : Rejection.values())
+            rejectionBodies[rejection.ordinal()] = objectMapper.writeValueAsBytes(Map.of("message", rejection.getMessage()));
     }
 
     @PostMapping
@@ -27,22 +71,152 @@ public class AccountController {
         return new ResponseEntity<>(accountCreated, HttpStatus.CREATED);
     }
 
+    @PostMapping(params = "count")
+    public ResponseEntity<List<AccountDTO>> createAccounts(@RequestParam int count) {
+        List<AccountDTO> accountsCreated = accountService.createAccounts(count);
+        return new ResponseEntity<>(accountsCreated, HttpStatus.CREATED);
+    }
+
+    /**
+     * Sends the cached JSON of the account, or 304 when the client already holds its current version.
+     * A client preferring {@link LedgerBinaryFormat} gets the same version of the account in that format,
+     * under an entity tag of its own.
+     */
     @GetMapping(value = "/{accountId}")
-    public ResponseEntity<AccountDTO> getAccount(@PathVariable String accountId) {
-        AccountDTO account=accountService.getAccount(UUID.fromString(accountId));
-        return new ResponseEntity<>(account, HttpStatus.OK);
+    public ResponseEntity<?> getAccount(@PathVariable String accountId,
+                                        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                        @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        UUID id = UUID.fromString(accountId);
+        RenderedAccount account = accountReadCache.getAccount(id);
+        boolean binary = LedgerBinaryFormat.isPreferred(accept);
+        String etag = binary ? account.binaryEtag() : account.etag();
+        if (matchesAny(ifNoneMatch, etag))
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).varyBy(HttpHeaders.ACCEPT).build();
+        if (binary)
+            return ResponseEntity.ok().eTag(etag).varyBy(HttpHeaders.ACCEPT).contentType(LedgerBinaryFormat.MEDIA_TYPE)
+                    .body(AccountDTO.builder().id(id).balance(Money.toBigDecimal(account.state().getBalance())).build());
+        return ResponseEntity.ok().eTag(account.etag()).varyBy(HttpHeaders.ACCEPT).contentType(MediaType.APPLICATION_JSON).body(account.body());
     }
 
+    /**
+     * A transaction turned down by the account gets a 400 with a body rendered in advance. With an
+     * idempotency key, the rejection goes through the exception handler instead, so that it is not
+     * remembered as the result of the key.
+     */
     @PostMapping("/{accountId}/transactions")
-    public ResponseEntity<AccountTransactionDTO> processTransaction(@PathVariable String accountId, @RequestBody AccountTransactionDTO accountTransactionDTO) {
-        AccountTransactionDTO accountTransactionDtoProcessed = accountService.processTransaction(UUID.fromString(accountId), accountTransactionDTO);
-        return new ResponseEntity<>(accountTransactionDtoProcessed, HttpStatus.CREATED);
+    public ResponseEntity<?> processTransaction(@PathVariable String accountId,
+                                                @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+                                                @RequestBody AccountTransactionDTO accountTransactionDTO) {
+        UUID id = UUID.fromString(accountId);
+        if (idempotencyKey != null) {
+            AccountTransactionDTO accountTransactionDtoProcessed =
+                    idempotencyCache.execute(id, idempotencyKey, accountTransactionDTO, () -> accountService.processTransaction(id, accountTransactionDTO));
+            return new ResponseEntity<>(accountTransactionDtoProcessed, HttpStatus.CREATED);
+        }
+        TransactionOutcome transactionOutcome = accountService.tryProcessTransaction(id, accountTransactionDTO);
+        if (!transactionOutcome.isCommitted())
+            return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON)
+                    .body(rejectionBodies[transactionOutcome.getRejection().ordinal()]);
+        return new ResponseEntity<>(transactionOutcome.getTransaction(), HttpStatus.CREATED);
+    }
+
+    @PostMapping("/{accountId}/transactions:batch")
+    public ResponseEntity<List<TransactionResultDTO>> processTransactions(@PathVariable String accountId, @RequestBody List<AccountTransactionDTO> accountTransactionDTOs) {
+        List<TransactionResultDTO> results = accountService.processTransactions(UUID.fromString(accountId), accountTransactionDTOs);
+        return new ResponseEntity<>(results, HttpStatus.OK);
     }
 
     @GetMapping("/{accountId}/transactions")
-    public ResponseEntity<List<AccountTransactionDTO>> getTransactions(@PathVariable String accountId) {
-        List<AccountTransactionDTO> transactionsByAccountId = accountService.getTransactionsByAccountId(UUID.fromString(accountId));
-        return new ResponseEntity<>(transactionsByAccountId,HttpStatus.OK);
+    public ResponseEntity<List<AccountTransactionDTO>> getTransactions(@PathVariable String accountId,
+                                                                       @RequestParam(required = false) Long cursor,
+                                                                       @RequestParam(required = false) Integer limit,
+                                                                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        if (cursor == null && limit == null && from == null && to == null) {
+            List<AccountTransactionDTO> transactionsByAccountId = accountService.getTransactionsByAccountId(UUID.fromString(accountId));
+            return new ResponseEntity<>(transactionsByAccountId,HttpStatus.OK);
+        }
+        AccountTransactionPage page = accountService.getTransactionPage(UUID.fromString(accountId), cursor == null ? 0 : cursor, limit, from, to);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null)
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor().toString());
+        return response.body(page.getTransactions());
+    }
+
+    @GetMapping("/{accountId}/statement")
+    public ResponseEntity<StatementDTO> getStatement(@PathVariable String accountId,
+                                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        StatementDTO statement = accountService.getStatement(UUID.fromString(accountId), from, to);
+        return new ResponseEntity<>(statement, HttpStatus.OK);
+    }
+
+    /**
+     * Prints the statement as text, or as CSV when {@code text/csv} is preferred. Lines are written to the
+     * response as the journal is read.
+     */
+    @GetMapping(value = "/{accountId}/statement", produces = {MediaType.TEXT_PLAIN_VALUE, StatementFormat.CSV_VALUE})
+    public ResponseEntity<StreamingResponseBody> printStatement(@PathVariable String accountId,
+                                                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                                                @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        Statement statement = statementPrinter.getStatement(UUID.fromString(accountId), from, to);
+        StatementFormat format = StatementFormat.forAccept(accept);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getMediaType()))
+                .body(outputStream -> statementPrinter.print(statement, format, outputStream));
+    }
+
+    @GetMapping("/{accountId}/summary")
+    public ResponseEntity<AccountSummaryDTO> getSummary(@PathVariable String accountId,
+                                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        AccountSummaryDTO summary = accountService.getSummary(UUID.fromString(accountId), from, to);
+        return new ResponseEntity<>(summary, HttpStatus.OK);
+    }
+
+    @GetMapping("/{accountId}/balance")
+    public ResponseEntity<AccountDTO> getBalanceAsOf(@PathVariable String accountId,
+                                                     @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf) {
+        AccountDTO account = accountService.getAccountAsOf(UUID.fromString(accountId), asOf);
+        return new ResponseEntity<>(account, HttpStatus.OK);
+    }
+
+    /**
+     * Streams the whole history as newline-delimited JSON, or as one JSON array when only
+     * {@code application/json} is accepted. Entries are written as the journal is read.
+     */
+    @GetMapping(value = "/{accountId}/transactions/stream", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<StreamingResponseBody> streamTransactions(@PathVariable String accountId,
+                                                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                                                    @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        Stream<AccountTransactionDTO> transactions = accountService.streamTransactions(UUID.fromString(accountId), from, to);
+        boolean array = accept != null && accept.contains(MediaType.APPLICATION_JSON_VALUE) && !accept.contains(MediaType.APPLICATION_NDJSON_VALUE);
+        StreamingResponseBody body = outputStream -> {
+            try (SequenceWriter sequenceWriter = array
+                    ? streamWriter.writeValuesAsArray(outputStream)
+                    : streamWriter.withRootValueSeparator("\n").writeValues(outputStream)) {
+                Iterator<AccountTransactionDTO> iterator = transactions.iterator();
+                while (iterator.hasNext())
+                    sequenceWriter.write(iterator.next());
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(array ? MediaType.APPLICATION_JSON : MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    // If-None-Match is either * or a comma-separated list of entity tags, compared weakly
+    private static boolean matchesAny(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null)
+            return false;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || tag.equals(etag) || tag.startsWith("W/") && tag.substring(2).equals(etag))
+                return true;
+        }
+        return false;
     }
 
 }
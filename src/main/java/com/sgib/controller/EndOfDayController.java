@@ -0,0 +1,39 @@
+package com.sgib.controller;
+
+import com.sgib.domain.dto.EndOfDayRunDTO;
+import com.sgib.service.batch.EndOfDayBatch;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/api/v1/end-of-day")
+public class EndOfDayController {
+
+    private EndOfDayBatch endOfDayBatch;
+
+    public EndOfDayController(EndOfDayBatch endOfDayBatch) {
+        this.endOfDayBatch = endOfDayBatch;
+    }
+
+    /**
+     * Starts a run of an operation over every account; its progress is then available from {@link #getLastRun()}.
+     */
+    @PostMapping("/{operation}")
+    public ResponseEntity<EndOfDayRunDTO> start(@PathVariable String operation,
+                                                @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate businessDate) {
+        EndOfDayRunDTO endOfDayRunDTO = endOfDayBatch.start(operation, businessDate);
+        return new ResponseEntity<>(endOfDayRunDTO, HttpStatus.ACCEPTED);
+    }
+
+    @GetMapping
+    public ResponseEntity<EndOfDayRunDTO> getLastRun() {
+        return endOfDayBatch.getLastRun()
+                .map(endOfDayRunDTO -> new ResponseEntity<>(endOfDayRunDTO, HttpStatus.OK))
+                .orElseGet(() -> new ResponseEntity<>(HttpStatus.NO_CONTENT));
+    }
+
+}
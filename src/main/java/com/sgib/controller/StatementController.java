@@ -0,0 +1,42 @@
+package com.sgib.controller;
+
+import com.sgib.domain.dto.StatementRunDTO;
+import com.sgib.service.statement.StatementBatch;
+import com.sgib.service.statement.StatementFormat;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/api/v1/statements")
+public class StatementController {
+
+    private StatementBatch statementBatch;
+
+    public StatementController(StatementBatch statementBatch) {
+        this.statementBatch = statementBatch;
+    }
+
+    /**
+     * Starts printing the statements of every account for the days in {@code [from, to)} into files;
+     * the progress is then available from {@link #getLastRun()}.
+     */
+    @PostMapping
+    public ResponseEntity<StatementRunDTO> start(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                 @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                 @RequestParam(defaultValue = "TEXT") StatementFormat format) {
+        StatementRunDTO statementRunDTO = statementBatch.start(from, to, format);
+        return new ResponseEntity<>(statementRunDTO, HttpStatus.ACCEPTED);
+    }
+
+    @GetMapping
+    public ResponseEntity<StatementRunDTO> getLastRun() {
+        return statementBatch.getLastRun()
+                .map(statementRunDTO -> new ResponseEntity<>(statementRunDTO, HttpStatus.OK))
+                .orElseGet(() -> new ResponseEntity<>(HttpStatus.NO_CONTENT));
+    }
+
+}
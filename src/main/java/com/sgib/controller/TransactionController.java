@@ -0,0 +1,36 @@
+package com.sgib.controller;
+
+import com.sgib.domain.dto.BatchTransactionDTO;
+import com.sgib.domain.dto.TransactionResultDTO;
+import com.sgib.domain.dto.TransferDTO;
+import com.sgib.domain.dto.TransferResultDTO;
+import com.sgib.service.AccountService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1")
+public class TransactionController {
+
+    private AccountService accountService;
+
+    public TransactionController(AccountService accountService) {
+        this.accountService = accountService;
+    }
+
+    @PostMapping("/transactions:batch")
+    public ResponseEntity<List<TransactionResultDTO>> processTransactions(@RequestBody List<BatchTransactionDTO> batchTransactionDTOs) {
+        List<TransactionResultDTO> results = accountService.processTransactions(batchTransactionDTOs);
+        return new ResponseEntity<>(results, HttpStatus.OK);
+    }
+
+    @PostMapping("/transfers")
+    public ResponseEntity<TransferResultDTO> transfer(@RequestBody TransferDTO transferDTO) {
+        TransferResultDTO transferResultDTO = accountService.transfer(transferDTO);
+        return new ResponseEntity<>(transferResultDTO, HttpStatus.CREATED);
+    }
+
+}
@@ -0,0 +1,20 @@
+package com.sgib.controller.binary;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Adds the binary converter after the JSON one, so that clients accepting anything keep getting JSON
+ * and only those naming {@value LedgerBinaryFormat#MEDIA_TYPE_VALUE} get the binary format.
+ */
+@Configuration
+public class LedgerBinaryConfiguration implements WebMvcConfigurer {
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new LedgerBinaryMessageConverter());
+    }
+}
@@ -0,0 +1,158 @@
+package com.sgib.controller.binary;
+
+import com.sgib.domain.dto.AccountDTO;
+import com.sgib.domain.dto.AccountTransactionDTO;
+import com.sgib.domain.model.AccountJournal;
+import com.sgib.domain.model.AccountTransactionType;
+import com.sgib.domain.model.Money;
+import org.springframework.http.MediaType;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Compact binary encoding of accounts and transactions, served as {@value #MEDIA_TYPE_VALUE} to clients
+ * that ask for it.
+ * <p>
+ * A payload is a version byte followed by one value: an account, a transaction, or a list of
+ * transactions as an int count and the transactions. Every record starts with a byte of flags telling
+ * which fields are present, and absent fields take no space. Numbers are big-endian: amounts and
+ * balances are longs in minor units, dates are longs in UTC epoch milliseconds, ids are two longs, the
+ * high half first, and a transaction type is one byte, its position in {@link AccountTransactionType}.
+ */
+public final class LedgerBinaryFormat {
+
+    public static final String MEDIA_TYPE_VALUE = "application/vnd.sgib.ledger";
+    public static final MediaType MEDIA_TYPE = MediaType.parseMediaType(MEDIA_TYPE_VALUE);
+    public static final int VERSION = 1;
+
+    private static final AccountTransactionType[] TYPES = AccountTransactionType.values();
+
+    private static final int ID = 1;
+    private static final int BALANCE = 1 << 1;
+
+    private static final int DATE = 1;
+    private static final int AMOUNT = 1 << 1;
+    private static final int BALANCE_AFTER_TRANSACTION = 1 << 2;
+    private static final int TYPE = 1 << 3;
+    private static final int SEQUENCE = 1 << 4;
+    private static final int COUNTERPARTY = 1 << 5;
+    private static final int BOOKING_DATE = 1 << 6;
+
+    private LedgerBinaryFormat() {
+    }
+
+    /**
+     * Whether the Accept header prefers this format to JSON. Wildcards count as JSON, so only a client
+     * that names the format gets it.
+     */
+    public static boolean isPreferred(String accept) {
+        if (accept == null)
+            return false;
+        List<MediaType> mediaTypes = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        mediaTypes.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        for (MediaType mediaType : mediaTypes) {
+            if (MEDIA_TYPE.equalsTypeAndSubtype(mediaType))
+                return true;
+            if (mediaType.isCompatibleWith(MediaType.APPLICATION_JSON))
+                return false;
+        }
+        return false;
+    }
+
+    public static void writeAccount(DataOutput output, AccountDTO accountDTO) throws IOException {
+        output.writeByte((accountDTO.getId() == null ? 0 : ID) | (accountDTO.getBalance() == null ? 0 : BALANCE));
+        if (accountDTO.getId() != null)
+            writeId(output, accountDTO.getId());
+        if (accountDTO.getBalance() != null)
+            output.writeLong(Money.toMinorUnits(accountDTO.getBalance()));
+    }
+
+    public static AccountDTO readAccount(DataInput input) throws IOException {
+        int flags = input.readUnsignedByte();
+        return AccountDTO.builder()
+                .id((flags & ID) == 0 ? null : readId(input))
+                .balance((flags & BALANCE) == 0 ? null : Money.toBigDecimal(input.readLong()))
+                .build();
+    }
+
+    public static void writeTransaction(DataOutput output, AccountTransactionDTO accountTransactionDTO) throws IOException {
+        int flags = (accountTransactionDTO.getTransactionDate() == null ? 0 : DATE)
+                | (accountTransactionDTO.getAmount() == null ? 0 : AMOUNT)
+                | (accountTransactionDTO.getBalanceAfterTransaction() == null ? 0 : BALANCE_AFTER_TRANSACTION)
+                | (accountTransactionDTO.getType() == null ? 0 : TYPE)
+                | (accountTransactionDTO.getSequence() == null ? 0 : SEQUENCE)
+                | (accountTransactionDTO.getCounterpartyAccountId() == null ? 0 : COUNTERPARTY)
+                | (accountTransactionDTO.getBookingDate() == null ? 0 : BOOKING_DATE);
+        output.writeByte(flags);
+        if ((flags & DATE) != 0)
+            output.writeLong(AccountJournal.toEpochMillis(accountTransactionDTO.getTransactionDate()));
+        if ((flags & AMOUNT) != 0)
+            output.writeLong(Money.toMinorUnits(accountTransactionDTO.getAmount()));
+        if ((flags & BALANCE_AFTER_TRANSACTION) != 0)
+            output.writeLong(Money.toMinorUnits(accountTransactionDTO.getBalanceAfterTransaction()));
+        if ((flags & TYPE) != 0)
+            output.writeByte(AccountTransactionType.valueOf(accountTransactionDTO.getType()).ordinal());
+        if ((flags & SEQUENCE) != 0)
+            output.writeLong(accountTransactionDTO.getSequence());
+        if ((flags & COUNTERPARTY) != 0)
+            writeId(output, accountTransactionDTO.getCounterpartyAccountId());
+        if ((flags & BOOKING_DATE) != 0)
+            output.writeLong(AccountJournal.toEpochMillis(accountTransactionDTO.getBookingDate()));
+    }
+
+    public static AccountTransactionDTO readTransaction(DataInput input) throws IOException {
+        int flags = input.readUnsignedByte();
+        AccountTransactionDTO accountTransactionDTO = new AccountTransactionDTO();
+        if ((flags & DATE) != 0)
+            accountTransactionDTO.setTransactionDate(AccountJournal.toLocalDateTime(input.readLong()));
+        if ((flags & AMOUNT) != 0)
+            accountTransactionDTO.setAmount(Money.toBigDecimal(input.readLong()));
+        if ((flags & BALANCE_AFTER_TRANSACTION) != 0)
+            accountTransactionDTO.setBalanceAfterTransaction(Money.toBigDecimal(input.readLong()));
+        if ((flags & TYPE) != 0) {
+            int type = input.readUnsignedByte();
+            if (type >= TYPES.length)
+                throw new IOException("Unknown transaction type: " + type);
+            accountTransactionDTO.setType(TYPES[type].name());
+        }
+        if ((flags & SEQUENCE) != 0)
+            accountTransactionDTO.setSequence(input.readLong());
+        if ((flags & COUNTERPARTY) != 0)
+            accountTransactionDTO.setCounterpartyAccountId(readId(input));
+        if ((flags & BOOKING_DATE) != 0)
+            accountTransactionDTO.setBookingDate(AccountJournal.toLocalDateTime(input.readLong()));
+        return accountTransactionDTO;
+    }
+
+    public static void writeTransactions(DataOutput output, List<AccountTransactionDTO> accountTransactionDTOs) throws IOException {
+        output.writeInt(accountTransactionDTOs.size());
+        for (AccountTransactionDTO accountTransactionDTO : accountTransactionDTOs)
+            writeTransaction(output, accountTransactionDTO);
+    }
+
+    public static List<AccountTransactionDTO> readTransactions(DataInput input) throws IOException {
+        int count = input.readInt();
+        if (count < 0)
+            throw new IOException("Negative transaction count: " + count);
+        // the count is not trusted to size the list, a short payload fails while reading instead
+        List<AccountTransactionDTO> accountTransactionDTOs = new ArrayList<>(Math.min(count, 1024));
+        for (int i = 0; i < count; i++)
+            accountTransactionDTOs.add(readTransaction(input));
+        return accountTransactionDTOs;
+    }
+
+    private static void writeId(DataOutput output, UUID id) throws IOException {
+        output.writeLong(id.getMostSignificantBits());
+        output.writeLong(id.getLeastSignificantBits());
+    }
+
+    private static UUID readId(DataInput input) throws IOException {
+        return new UUID(input.readLong(), input.readLong());
+    }
+}
@@ -0,0 +1,99 @@
+package com.sgib.controller.binary;
+
+import com.sgib.domain.dto.AccountDTO;
+import com.sgib.domain.dto.AccountTransactionDTO;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * Reads and writes accounts, transactions and lists of transactions in {@link LedgerBinaryFormat}.
+ * The fields are written one by one, without reflection.
+ */
+public class LedgerBinaryMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    public LedgerBinaryMessageConverter() {
+        super(LedgerBinaryFormat.MEDIA_TYPE);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return clazz == AccountDTO.class || clazz == AccountTransactionDTO.class;
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return (isTransactionList(type) || type instanceof Class<?> clazz && supports(clazz)) && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return (isTransactionList(type) || supports(clazz)) && canWrite(mediaType);
+    }
+
+    // asked with the erased class of the value, so lists are told apart in canWrite instead
+    @Override
+    public List<MediaType> getSupportedMediaTypes(Class<?> clazz) {
+        return List.class.isAssignableFrom(clazz) ? getSupportedMediaTypes() : super.getSupportedMediaTypes(clazz);
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+        return readInternal(ResolvableType.forType(type).resolve(Object.class), inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        DataInputStream input = new DataInputStream(new BufferedInputStream(inputMessage.getBody(), BUFFER_SIZE));
+        try {
+            int version = input.readUnsignedByte();
+            if (version != LedgerBinaryFormat.VERSION)
+                throw new HttpMessageNotReadableException("Unsupported format version: " + version, inputMessage);
+            if (clazz == AccountDTO.class)
+                return LedgerBinaryFormat.readAccount(input);
+            if (clazz == AccountTransactionDTO.class)
+                return LedgerBinaryFormat.readTransaction(input);
+            return LedgerBinaryFormat.readTransactions(input);
+        } catch (IOException e) {
+            throw new HttpMessageNotReadableException("Malformed binary payload: " + e.getMessage(), e, inputMessage);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void writeInternal(Object value, Type type, HttpOutputMessage outputMessage) throws IOException {
+        DataOutputStream output = new DataOutputStream(new BufferedOutputStream(outputMessage.getBody(), BUFFER_SIZE));
+        output.writeByte(LedgerBinaryFormat.VERSION);
+        try {
+            if (value instanceof AccountDTO accountDTO)
+                LedgerBinaryFormat.writeAccount(output, accountDTO);
+            else if (value instanceof AccountTransactionDTO accountTransactionDTO)
+                LedgerBinaryFormat.writeTransaction(output, accountTransactionDTO);
+            else
+                LedgerBinaryFormat.writeTransactions(output, (List<AccountTransactionDTO>) value);
+        } catch (IllegalArgumentException | ArithmeticException e) {
+            throw new HttpMessageNotWritableException("Cannot encode " + value.getClass().getSimpleName() + ": " + e.getMessage(), e);
+        }
+        output.flush();
+    }
+
+    private static boolean isTransactionList(Type type) {
+        ResolvableType resolvableType = ResolvableType.forType(type);
+        return List.class == resolvableType.resolve()
+                && AccountTransactionDTO.class == resolvableType.getGeneric(0).resolve();
+    }
+}
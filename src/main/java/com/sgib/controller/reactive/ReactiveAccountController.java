@@ -0,0 +1,106 @@
+package com.sgib.controller.reactive;
+
+import com.sgib.domain.dto.AccountDTO;
+import com.sgib.domain.dto.AccountTransactionDTO;
+import com.sgib.service.AccountService;
+import com.sgib.service.notification.TransactionNotifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Reactive variant of the account read API. History is emitted one transaction at a time as the client
+ * consumes it, and live transactions are pushed as server-sent events instead of being polled for.
+ */
+@RestController
+@RequestMapping("/api/v1/reactive/accounts")
+public class ReactiveAccountController {
+
+    private AccountService accountService;
+    private TransactionNotifier transactionNotifier;
+    private int eventBufferSize;
+    private Duration heartbeatInterval;
+    private long eventStreamTimeoutMs;
+
+    public ReactiveAccountController(AccountService accountService, TransactionNotifier transactionNotifier,
+                                     @Value("${bank.notifications.buffer-size:256}") int eventBufferSize,
+                                     @Value("${bank.notifications.heartbeat-interval-ms:15000}") long heartbeatIntervalMs,
+                                     @Value("${bank.notifications.timeout-ms:0}") long eventStreamTimeoutMs) {
+        this.accountService = accountService;
+        this.transactionNotifier = transactionNotifier;
+        this.eventBufferSize = eventBufferSize;
+        this.heartbeatInterval = Duration.ofMillis(heartbeatIntervalMs);
+        this.eventStreamTimeoutMs = eventStreamTimeoutMs;
+    }
+
+    @GetMapping("/{accountId}")
+    public Mono<AccountDTO> getAccount(@PathVariable String accountId) {
+        return Mono.fromCallable(() -> accountService.getAccount(UUID.fromString(accountId)));
+    }
+
+    /**
+     * Emits the transactions booked in {@code [from, to)}, reading the journal only as fast as the
+     * client consumes them. Only newline-delimited JSON streams: a JSON array would be collected in
+     * full before being written, so it is left to {@code GET /api/v1/accounts/{id}/transactions}.
+     */
+    @GetMapping(value = "/{accountId}/transactions", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<AccountTransactionDTO> getTransactions(@PathVariable String accountId,
+                                                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        UUID id = UUID.fromString(accountId);
+        // an unknown account fails with 404 before anything is streamed
+        accountService.getAccount(id);
+        return Flux.fromStream(() -> accountService.streamTransactions(id, from, to));
+    }
+
+    /**
+     * Pushes every transaction committed on the account from now on, with its sequence as event id,
+     * plus a comment-only heartbeat that keeps idle connections open. A client that falls more than
+     * {@code bank.notifications.buffer-size} events behind is disconnected; after reconnecting it can
+     * fetch what it missed with {@code GET /api/v1/accounts/{id}/transactions?cursor=<last event id>}.
+     * <p>
+     * The stream stays open for {@code bank.notifications.timeout-ms}, forever when zero; this only
+     * applies to this endpoint, other asynchronous requests keep the default timeout. Events are written
+     * by a worker thread, one at a time, so a slow client never holds up the commit that published them.
+     */
+    @GetMapping(value = "/{accountId}/transactions/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter transactionEvents(@PathVariable String accountId) {
+        UUID id = UUID.fromString(accountId);
+        // an unknown account fails with 404 before anything is streamed
+        accountService.getAccount(id);
+        SseEmitter emitter = new SseEmitter(eventStreamTimeoutMs);
+        Flux<SseEmitter.SseEventBuilder> transactions = transactionNotifier.transactions(id)
+                .onBackpressureBuffer(eventBufferSize)
+                .map(transaction -> SseEmitter.event()
+                        .id(String.valueOf(transaction.getSequence()))
+                        .name("transaction")
+                        .data(transaction));
+        Flux<SseEmitter.SseEventBuilder> heartbeats = Flux.interval(heartbeatInterval)
+                .map(tick -> SseEmitter.event().comment("heartbeat"));
+        Disposable subscription = Flux.merge(transactions, heartbeats)
+                .publishOn(Schedulers.boundedElastic(), 1)
+                .subscribe(event -> send(emitter, event), error -> emitter.complete());
+        emitter.onCompletion(subscription::dispose);
+        return emitter;
+    }
+
+    private static void send(SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.sgib.domain.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Getter
+@Setter
+public class AccountSummaryDTO {
+
+    private UUID accountId;
+    private LocalDate from;
+    private LocalDate to;
+    private BigDecimal creditTotal;
+    private long creditCount;
+    private BigDecimal debitTotal;
+    private long debitCount;
+    private BigDecimal minBalance;
+    private BigDecimal maxBalance;
+    private List<DailySummaryDTO> days;
+
+}
@@ -1,9 +1,11 @@
 package com.sgib.domain.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.*;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.UUID;
 
 @NoArgsConstructor
 @AllArgsConstructor
@@ -12,9 +14,30 @@ import java.time.LocalDateTime;
 @Setter
 public class AccountTransactionDTO {
 
+    /**
+     * Date of the transaction, as requested, or the time the request was received when none is given.
+     */
     private LocalDateTime transactionDate;
+    /**
+     * Time the transaction was booked at, which orders the history and which date range lookups go by:
+     * the transaction date, but never later than the time it was received nor earlier than the previous
+     * booking of the account. Only set on returned transactions.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private LocalDateTime bookingDate;
     private BigDecimal amount;
     private BigDecimal balanceAfterTransaction;
     private String type;
+    /**
+     * Position of the transaction in the history of its account, starting at 1. Also usable as the
+     * cursor of the page that starts right after it.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long sequence;
+    /**
+     * Account on the other side of a transfer, only set on transfer legs.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private UUID counterpartyAccountId;
 
 }
@@ -0,0 +1,20 @@
+package com.sgib.domain.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Getter
+@Setter
+public class AccountTransactionPage {
+
+    private List<AccountTransactionDTO> transactions;
+    /**
+     * Sequence of the last transaction scanned, to pass as the cursor of the next page, or null on the last page.
+     */
+    private Long nextCursor;
+
+}
@@ -0,0 +1,23 @@
+package com.sgib.domain.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Getter
+@Setter
+public class DailySummaryDTO {
+
+    private LocalDate date;
+    private BigDecimal creditTotal;
+    private long creditCount;
+    private BigDecimal debitTotal;
+    private long debitCount;
+    private BigDecimal minBalance;
+    private BigDecimal maxBalance;
+
+}
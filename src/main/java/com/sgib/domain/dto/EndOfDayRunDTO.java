@@ -0,0 +1,33 @@
+package com.sgib.domain.dto;
+
+import lombok.*;
+
+import java.time.LocalDate;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Getter
+@Setter
+public class EndOfDayRunDTO {
+
+    public static final String RUNNING = "RUNNING";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String FAILED = "FAILED";
+
+    private String operation;
+    private LocalDate businessDate;
+    private String status;
+    private long accounts;
+    /**
+     * Accounts of buckets that an earlier, interrupted run of the same operation and date had completed.
+     */
+    private long resumed;
+    private long processed;
+    private long posted;
+    private long rejected;
+    private int bucketsCompleted;
+    private int buckets;
+    private String message;
+
+}
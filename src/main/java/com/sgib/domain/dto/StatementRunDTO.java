@@ -0,0 +1,31 @@
+package com.sgib.domain.dto;
+
+import lombok.*;
+
+import java.time.LocalDate;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Getter
+@Setter
+public class StatementRunDTO {
+
+    public static final String RUNNING = "RUNNING";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String FAILED = "FAILED";
+
+    private LocalDate from;
+    private LocalDate to;
+    private String format;
+    private String status;
+    /**
+     * Directory the statements are written to, one file per account named after its id.
+     */
+    private String directory;
+    private long accounts;
+    private long printed;
+    private long failed;
+    private String message;
+
+}
@@ -0,0 +1,22 @@
+package com.sgib.domain.dto;
+
+import lombok.*;
+
+import java.util.UUID;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Getter
+@Setter
+public class TransactionResultDTO {
+
+    public static final String COMMITTED = "COMMITTED";
+    public static final String REJECTED = "REJECTED";
+
+    private UUID accountId;
+    private String status;
+    private AccountTransactionDTO transaction;
+    private String message;
+
+}
@@ -0,0 +1,21 @@
+package com.sgib.domain.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Getter
+@Setter
+public class TransferDTO {
+
+    private UUID sourceAccountId;
+    private UUID targetAccountId;
+    private BigDecimal amount;
+    private LocalDateTime transactionDate;
+
+}
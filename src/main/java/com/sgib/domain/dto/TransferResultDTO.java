@@ -0,0 +1,19 @@
+package com.sgib.domain.dto;
+
+import lombok.*;
+
+import java.util.UUID;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Getter
+@Setter
+public class TransferResultDTO {
+
+    private UUID sourceAccountId;
+    private UUID targetAccountId;
+    private AccountTransactionDTO debit;
+    private AccountTransactionDTO credit;
+
+}
@@ -2,20 +2,21 @@ package com.sgib.domain.mapper;
 
 import com.sgib.domain.dto.AccountDTO;
 import com.sgib.domain.model.Account;
+import com.sgib.domain.model.Money;
 
 public class AccountConverter {
 
     public static AccountDTO toDto(Account account){
         return AccountDTO.builder()
                 .id(account.getId())
-                .balance(account.getBalance())
+                .balance(Money.toBigDecimal(account.getBalance()))
                 .build();
     }
 
     public static Account toEntity(AccountDTO accountDTO){
         return Account.builder()
                 .id(accountDTO.getId())
-                .balance(accountDTO.getBalance())
+                .balance(accountDTO.getBalance() == null ? 0 : Money.toMinorUnits(accountDTO.getBalance()))
                 .build();
     }
 }
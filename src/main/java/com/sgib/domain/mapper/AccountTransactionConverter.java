@@ -3,7 +3,11 @@ package com.sgib.domain.mapper;
 import com.sgib.domain.dto.AccountTransactionDTO;
 import com.sgib.domain.model.AccountTransaction;
 import com.sgib.domain.model.AccountTransactionType;
+import com.sgib.domain.model.JournalCursor;
+import com.sgib.domain.model.Money;
+import com.sgib.domain.model.TransferLink;
 
+import java.math.BigDecimal;
 import java.util.Optional;
 
 public class AccountTransactionConverter {
@@ -13,9 +17,24 @@ public class AccountTransactionConverter {
             return null;
         return AccountTransactionDTO.builder()
                 .transactionDate(accountTransaction.getDate())
+                .bookingDate(accountTransaction.getBookingDate())
                 .type(Optional.ofNullable(accountTransaction.getType()).map(Enum::name).orElse(null))
-                .amount(accountTransaction.getAmount())
-                .balanceAfterTransaction(accountTransaction.getBalanceAfterTransaction())
+                .amount(Money.toBigDecimal(accountTransaction.getAmount()))
+                .balanceAfterTransaction(Money.toBigDecimal(accountTransaction.getBalanceAfterTransaction()))
+                .sequence(accountTransaction.getSequence() == 0 ? null : accountTransaction.getSequence())
+                .build();
+    }
+
+    public static AccountTransactionDTO toDto(JournalCursor journalCursor) {
+        TransferLink transferLink = journalCursor.transferLink();
+        return AccountTransactionDTO.builder()
+                .transactionDate(journalCursor.transactionDate())
+                .bookingDate(journalCursor.date())
+                .type(journalCursor.type().name())
+                .amount(Money.toBigDecimal(journalCursor.amount()))
+                .balanceAfterTransaction(Money.toBigDecimal(journalCursor.balanceAfterTransaction()))
+                .sequence(journalCursor.index() + 1)
+                .counterpartyAccountId(transferLink == null ? null : transferLink.counterpartyAccountId())
                 .build();
     }
 
@@ -25,8 +44,12 @@ public class AccountTransactionConverter {
         return AccountTransaction.builder()
                 .date(accountTransactionDTO.getTransactionDate())
                 .type(AccountTransactionType.valueOf(accountTransactionDTO.getType()))
-                .amount(accountTransactionDTO.getAmount())
-                .balanceAfterTransaction(accountTransactionDTO.getBalanceAfterTransaction())
+                .amount(toMinorUnits(accountTransactionDTO.getAmount()))
+                .balanceAfterTransaction(toMinorUnits(accountTransactionDTO.getBalanceAfterTransaction()))
                 .build();
     }
+
+    private static long toMinorUnits(BigDecimal amount) {
+        return amount == null ? 0 : Money.toMinorUnits(amount);
+    }
 }
@@ -0,0 +1,20 @@
+package com.sgib.domain.mapper;
+
+import com.sgib.domain.dto.DailySummaryDTO;
+import com.sgib.domain.model.DailyAggregate;
+import com.sgib.domain.model.Money;
+
+public class DailyAggregateConverter {
+
+    public static DailySummaryDTO toDto(DailyAggregate dailyAggregate) {
+        return DailySummaryDTO.builder()
+                .date(dailyAggregate.getDate())
+                .creditTotal(Money.toBigDecimal(dailyAggregate.getCreditTotal()))
+                .creditCount(dailyAggregate.getCreditCount())
+                .debitTotal(Money.toBigDecimal(dailyAggregate.getDebitTotal()))
+                .debitCount(dailyAggregate.getDebitCount())
+                .minBalance(Money.toBigDecimal(dailyAggregate.getMinBalance()))
+                .maxBalance(Money.toBigDecimal(dailyAggregate.getMaxBalance()))
+                .build();
+    }
+}
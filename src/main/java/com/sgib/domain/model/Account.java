@@ -2,19 +2,91 @@ package com.sgib.domain.model;
 
 import lombok.*;
 
-import java.math.BigDecimal;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReference;
 
-@NoArgsConstructor
-@AllArgsConstructor
-@Builder
 @Getter
-@Setter
 public class Account {
 
-    private UUID id;
-    private BigDecimal balance;
-    private List<AccountTransaction> accountTransactions;
+    private static final AtomicIntegerFieldUpdater<Account> IN_FLIGHT =
+            AtomicIntegerFieldUpdater.newUpdater(Account.class, "inFlight");
+
+    private final UUID id;
+    @Getter(AccessLevel.NONE)
+    private final AtomicReference<AccountState> state;
+    private final AccountJournal journal;
+    private volatile int inFlight;
+    /**
+     * Last rendering of this account served to a reader, kept until the next commit makes it stale.
+     */
+    @Setter
+    private volatile RenderedAccount rendered;
+
+    @Builder
+    public Account(UUID id, long balance, List<AccountTransaction> accountTransactions) {
+        this.id = id;
+        this.journal = new AccountJournal();
+        long sequence = 0;
+        long lastBookingMillis = AccountJournal.NO_DATE;
+        if (accountTransactions != null)
+            for (AccountTransaction accountTransaction : accountTransactions) {
+                journal.record(++sequence, accountTransaction);
+                lastBookingMillis = Math.max(lastBookingMillis, AccountJournal.bookingMillis(accountTransaction));
+            }
+        this.state = new AtomicReference<>(new AccountState(balance, sequence, lastBookingMillis));
+    }
+
+    private Account(UUID id, AccountState state, AccountJournal journal) {
+        this.id = id;
+        this.state = new AtomicReference<>(state);
+        this.journal = journal;
+    }
+
+    /**
+     * Returns a copy of this account whose journal chunks come from the given allocator.
+     * Meant for accounts that are not yet visible to other threads.
+     */
+    public Account relocateJournal(JournalChunkAllocator allocator) {
+        AccountJournal relocated = new AccountJournal(allocator);
+        journal.copyTo(relocated);
+        return new Account(id, state.get(), relocated);
+    }
+
+    public AccountState getState() {
+        return state.get();
+    }
+
+    public void setState(AccountState accountState) {
+        state.set(accountState);
+    }
+
+    public boolean compareAndSetState(AccountState expected, AccountState accountState) {
+        return state.compareAndSet(expected, accountState);
+    }
+
+    public long getBalance() {
+        return state.get().getBalance();
+    }
+
+    /**
+     * Registers one more request working on this account, unless {@code limit} requests already are.
+     *
+     * @return false if the account is at its limit, in which case nothing was registered
+     */
+    public boolean tryEnter(int limit) {
+        int current;
+        do {
+            current = inFlight;
+            if (current >= limit)
+                return false;
+        } while (!IN_FLIGHT.compareAndSet(this, current, current + 1));
+        return true;
+    }
+
+    public void exit() {
+        IN_FLIGHT.decrementAndGet(this);
+    }
 
 }
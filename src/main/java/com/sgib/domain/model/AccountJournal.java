@@ -0,0 +1,409 @@
+package com.sgib.domain.model;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Append-only journal of the transactions of one account, stored column by column: booking time in
+ * epoch millis, amount, balance after transaction and a type byte, about 25 bytes per entry. Where the long
+ * columns live is up to the {@link JournalChunkAllocator}.
+ * <p>
+ * Every committed transaction owns the slot given by its sequence, so concurrent committers write
+ * to distinct slots without locking. The type byte is written last, with release semantics, and
+ * doubles as the publication flag of the slot. {@link #size()} only covers the contiguous prefix of
+ * published slots: a reader never sees a gap, even if a later sequence was recorded before an
+ * earlier one.
+ * <p>
+ * Slots live in chunks that double from 16 entries up to {@value #CHUNK_SIZE} and then stay fixed,
+ * so short journals stay small and long ones never copy their history.
+ * <p>
+ * Entries are committed in booking time order (see {@link AccountState}), so the first entry of each
+ * chunk forms a sparse time index: date range lookups binary search the chunk directory, then the
+ * chunk, instead of scanning the history.
+ * <p>
+ * Full chunks of old history can be {@link #seal sealed} into a compact encoding, decoded again only when
+ * a reader reaches them.
+ * <p>
+ * Recording an entry also adds it to the {@link DailyAggregate} of its booking day, so summaries over a
+ * date range cost one lookup per day. Replaying an entry that is already recorded, as recovery may do,
+ * changes nothing.
+ * <p>
+ * Most accounts never take part in a transfer, so the map of transfer links is only allocated by the
+ * first {@link #link}, and the map of daily aggregates by the first dated entry. Likewise, most
+ * transactions are booked at their own date, so the map of dates that differ from the booking time is
+ * only allocated by the first of them.
+ */
+public class AccountJournal {
+
+    static final int FIRST_CHUNK_SHIFT = 4;
+    static final int FIRST_CHUNK_SIZE = 1 << FIRST_CHUNK_SHIFT;
+    static final int CHUNK_SHIFT = 10;
+    static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    static final int GEOMETRIC_CHUNKS = CHUNK_SHIFT - FIRST_CHUNK_SHIFT;
+    static final long GEOMETRIC_CAPACITY = (FIRST_CHUNK_SIZE << GEOMETRIC_CHUNKS) - FIRST_CHUNK_SIZE;
+
+    /**
+     * Epoch millis stored for a transaction recorded without a date.
+     */
+    public static final long NO_DATE = Long.MIN_VALUE;
+
+    private static final VarHandle TYPES = MethodHandles.arrayElementVarHandle(byte[].class);
+    private static final VarHandle TRANSFER_LINKS;
+    private static final VarHandle DAILY_AGGREGATES;
+    private static final VarHandle TRANSACTION_DATES;
+    private static final AccountTransactionType[] TYPE_VALUES = AccountTransactionType.values();
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    private final JournalChunkAllocator allocator;
+    private final AtomicReference<JournalChunk[]> chunks = new AtomicReference<>(new JournalChunk[0]);
+    private final AtomicLong size = new AtomicLong();
+    private volatile ConcurrentHashMap<Long, TransferLink> transferLinks;
+    private volatile ConcurrentSkipListMap<Long, DailyAggregate> dailyAggregates;
+    private volatile ConcurrentHashMap<Long, Long> transactionDates;
+    private volatile DailyAggregate latestDay;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            TRANSFER_LINKS = lookup.findVarHandle(AccountJournal.class, "transferLinks", ConcurrentHashMap.class);
+            DAILY_AGGREGATES = lookup.findVarHandle(AccountJournal.class, "dailyAggregates", ConcurrentSkipListMap.class);
+            TRANSACTION_DATES = lookup.findVarHandle(AccountJournal.class, "transactionDates", ConcurrentHashMap.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    public AccountJournal() {
+        this(JournalChunkAllocator.HEAP);
+    }
+
+    public AccountJournal(JournalChunkAllocator allocator) {
+        this.allocator = allocator;
+    }
+
+    public JournalChunkAllocator getAllocator() {
+        return allocator;
+    }
+
+    /**
+     * Publishes the transaction committed with the given sequence (1-based).
+     */
+    public void record(long sequence, AccountTransaction accountTransaction) {
+        long bookingMillis = bookingMillis(accountTransaction);
+        long transactionMillis = toEpochMillis(accountTransaction.getDate());
+        if (transactionMillis != bookingMillis)
+            keepTransactionDate(sequence, transactionMillis);
+        record(sequence, bookingMillis, accountTransaction.getAmount(),
+                accountTransaction.getBalanceAfterTransaction(), accountTransaction.getType());
+    }
+
+    /**
+     * Publishes the transaction committed with the given sequence (1-based) and booked at the given time.
+     */
+    public void record(long sequence, long epochMillis, long amount, long balanceAfterTransaction, AccountTransactionType type) {
+        long index = sequence - 1;
+        JournalChunk chunk = chunk(chunkIndex(index));
+        int offset = chunkOffset(index);
+        if ((byte) TYPES.getAcquire(chunk.types, offset) != 0)
+            return;
+        chunk.write(offset, epochMillis, amount, balanceAfterTransaction);
+        if (epochMillis != NO_DATE)
+            dailyAggregate(Math.floorDiv(epochMillis, MILLIS_PER_DAY)).add(amount, balanceAfterTransaction, type);
+        TYPES.setRelease(chunk.types, offset, encode(type));
+        advance();
+    }
+
+    public long size() {
+        return size.get();
+    }
+
+    /**
+     * Waits until every sequence up to the given one is published. Committers only wait for each
+     * other for the few instructions between their commit and their record.
+     */
+    public void awaitPublished(long sequence) {
+        while (size.get() < sequence)
+            Thread.onSpinWait();
+    }
+
+    /**
+     * Links the transfer leg committed with the given sequence to the other leg. Only transfer legs
+     * have a link, so links are kept aside from the columns rather than widening every entry.
+     */
+    public void link(long sequence, TransferLink transferLink) {
+        transferLinks().put(sequence, transferLink);
+    }
+
+    /**
+     * Keeps the date of the transaction committed with the given sequence, when it is not the time the
+     * transaction was booked at. Like a link, it is kept before the entry is recorded.
+     */
+    public void keepTransactionDate(long sequence, long transactionMillis) {
+        transactionDates().put(sequence, transactionMillis);
+    }
+
+    /**
+     * @return the link of the transfer leg committed with the given sequence, or null
+     */
+    public TransferLink transferLink(long sequence) {
+        ConcurrentHashMap<Long, TransferLink> links = transferLinks;
+        return links == null ? null : links.get(sequence);
+    }
+
+    /**
+     * Returns the aggregates of the days in {@code [fromEpochDay, toEpochDay)} that have transactions,
+     * in day order.
+     */
+    public Collection<DailyAggregate> dailyAggregates(long fromEpochDay, long toEpochDay) {
+        ConcurrentSkipListMap<Long, DailyAggregate> aggregates = dailyAggregates;
+        if (aggregates == null || fromEpochDay >= toEpochDay)
+            return List.of();
+        return aggregates.subMap(fromEpochDay, toEpochDay).values();
+    }
+
+    /**
+     * Returns a cursor over the entries published so far.
+     */
+    public JournalCursor cursor() {
+        return cursor(0, size.get());
+    }
+
+    /**
+     * Returns a cursor over the entries with an index in {@code [from, to)}, bounded by the entries
+     * published so far. A transfer leg is linked before it is recorded, so the links of the entries
+     * the cursor covers are in the map it is given, and so are their dates.
+     */
+    public JournalCursor cursor(long from, long to) {
+        long end = Math.min(to, size.get());
+        return new JournalCursor(chunks.get(), transferLinks, transactionDates, Math.max(0, Math.min(from, end)), end);
+    }
+
+    /**
+     * Returns a cursor over the published entries booked in {@code [fromMillis, toMillis)}.
+     */
+    public JournalCursor cursorBetween(long fromMillis, long toMillis) {
+        return cursor(indexAt(fromMillis), indexAt(toMillis));
+    }
+
+    /**
+     * Returns the index of the first published entry booked at or after the given time, or the number
+     * of published entries if there is none.
+     */
+    public long indexAt(long epochMillis) {
+        long end = size.get();
+        if (end == 0)
+            return 0;
+        JournalChunk[] directory = chunks.get();
+        int low = 0;
+        int high = chunkIndex(end - 1) + 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (directory[middle].epochMillis(0) < epochMillis)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+        if (low == 0)
+            return 0;
+        JournalChunk chunk = directory[low - 1].readable();
+        long start = chunkStart(low - 1);
+        int offsetLow = 0;
+        int offsetHigh = (int) Math.min(chunk.capacity(), end - start);
+        while (offsetLow < offsetHigh) {
+            int middle = (offsetLow + offsetHigh) >>> 1;
+            if (chunk.epochMillis(middle) < epochMillis)
+                offsetLow = middle + 1;
+            else
+                offsetHigh = middle;
+        }
+        return start + offsetLow;
+    }
+
+    /**
+     * Returns the balance just before the entry at the given index: the balance after the previous
+     * entry, or for the first entry its balance after transaction with the transaction undone.
+     * The given balance is returned while nothing is published.
+     */
+    public long balanceBefore(long index, long balanceWhenEmpty) {
+        long published = Math.min(index, size.get());
+        JournalCursor cursor = cursor(Math.max(0, published - 1), Math.max(1, published));
+        if (!cursor.next())
+            return balanceWhenEmpty;
+        if (published > 0)
+            return cursor.balanceAfterTransaction();
+        return cursor.type().isDebit()
+                ? cursor.balanceAfterTransaction() + cursor.amount()
+                : cursor.balanceAfterTransaction() - cursor.amount();
+    }
+
+    /**
+     * Seals the chunks whose entries were all booked before the given time into {@link SealedJournalChunk}s,
+     * oldest first. Only full chunks on the heap are sealed: an open chunk still takes entries, and the
+     * arena of an off-heap chunk would not get its memory back. Readers holding the former chunks keep
+     * reading them until they are done.
+     *
+     * @return the number of chunks sealed
+     */
+    public int seal(long beforeMillis, boolean deflate) {
+        int sealed = 0;
+        long published = size.get();
+        for (int chunkIndex = 0; chunkStart(chunkIndex + 1) <= published; chunkIndex++) {
+            JournalChunk chunk = chunks.get()[chunkIndex];
+            if (chunk instanceof SealedJournalChunk)
+                continue;
+            if (!(chunk instanceof HeapJournalChunk) || chunk.epochMillis(chunk.capacity() - 1) >= beforeMillis)
+                break;
+            replace(chunkIndex, SealedJournalChunk.seal(chunk, deflate));
+            sealed++;
+        }
+        return sealed;
+    }
+
+    /**
+     * Records every published entry of this journal into the target journal, with the same sequences.
+     */
+    public void copyTo(AccountJournal target) {
+        ConcurrentHashMap<Long, TransferLink> links = transferLinks;
+        if (links != null)
+            target.transferLinks().putAll(links);
+        ConcurrentHashMap<Long, Long> dates = transactionDates;
+        if (dates != null)
+            target.transactionDates().putAll(dates);
+        JournalCursor cursor = cursor();
+        while (cursor.next())
+            target.record(cursor.index() + 1, cursor.epochMillis(), cursor.amount(), cursor.balanceAfterTransaction(), cursor.type());
+    }
+
+    /**
+     * Returns the time the transaction is booked at: its booking date once committed, before that the
+     * earliest time it may be booked at.
+     */
+    public static long bookingMillis(AccountTransaction accountTransaction) {
+        LocalDateTime bookingDate = accountTransaction.getBookingDate();
+        return toEpochMillis(bookingDate == null ? accountTransaction.getDate() : bookingDate);
+    }
+
+    public static long toEpochMillis(LocalDateTime date) {
+        return date == null ? NO_DATE : date.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    public static LocalDateTime toLocalDateTime(long epochMillis) {
+        if (epochMillis == NO_DATE)
+            return null;
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(epochMillis, 1000),
+                Math.floorMod(epochMillis, 1000) * 1_000_000, ZoneOffset.UTC);
+    }
+
+    private ConcurrentHashMap<Long, TransferLink> transferLinks() {
+        ConcurrentHashMap<Long, TransferLink> links = transferLinks;
+        if (links != null)
+            return links;
+        links = new ConcurrentHashMap<>();
+        return TRANSFER_LINKS.compareAndSet(this, null, links) ? links : transferLinks;
+    }
+
+    private ConcurrentHashMap<Long, Long> transactionDates() {
+        ConcurrentHashMap<Long, Long> dates = transactionDates;
+        if (dates != null)
+            return dates;
+        dates = new ConcurrentHashMap<>();
+        return TRANSACTION_DATES.compareAndSet(this, null, dates) ? dates : transactionDates;
+    }
+
+    private ConcurrentSkipListMap<Long, DailyAggregate> dailyAggregates() {
+        ConcurrentSkipListMap<Long, DailyAggregate> aggregates = dailyAggregates;
+        if (aggregates != null)
+            return aggregates;
+        aggregates = new ConcurrentSkipListMap<>();
+        return DAILY_AGGREGATES.compareAndSet(this, null, aggregates) ? aggregates : dailyAggregates;
+    }
+
+    // transactions are mostly booked on the latest day, so that one is found without a map lookup
+    private DailyAggregate dailyAggregate(long epochDay) {
+        DailyAggregate latest = latestDay;
+        if (latest != null && latest.getEpochDay() == epochDay)
+            return latest;
+        DailyAggregate dailyAggregate = dailyAggregates().computeIfAbsent(epochDay, DailyAggregate::new);
+        if (latest == null || epochDay > latest.getEpochDay())
+            latestDay = dailyAggregate;
+        return dailyAggregate;
+    }
+
+    private void advance() {
+        long published;
+        while ((published = size.get()) < capacity() && isRecorded(published))
+            size.compareAndSet(published, published + 1);
+    }
+
+    private boolean isRecorded(long index) {
+        JournalChunk chunk = chunks.get()[chunkIndex(index)];
+        return (byte) TYPES.getAcquire(chunk.types, chunkOffset(index)) != 0;
+    }
+
+    private long capacity() {
+        return chunkStart(chunks.get().length);
+    }
+
+    private JournalChunk chunk(int chunkIndex) {
+        while (true) {
+            JournalChunk[] directory = chunks.get();
+            if (chunkIndex < directory.length)
+                return directory[chunkIndex];
+            JournalChunk[] grown = Arrays.copyOf(directory, directory.length + 1);
+            grown[directory.length] = allocator.allocate(chunkCapacity(directory.length));
+            if (!chunks.compareAndSet(directory, grown))
+                allocator.release(grown[directory.length]);
+        }
+    }
+
+    private void replace(int chunkIndex, JournalChunk chunk) {
+        while (true) {
+            JournalChunk[] directory = chunks.get();
+            JournalChunk[] replaced = directory.clone();
+            replaced[chunkIndex] = chunk;
+            if (chunks.compareAndSet(directory, replaced))
+                return;
+        }
+    }
+
+    private static byte encode(AccountTransactionType type) {
+        return (byte) (type.ordinal() + 1);
+    }
+
+    static AccountTransactionType decode(byte type) {
+        return TYPE_VALUES[type - 1];
+    }
+
+    static int chunkIndex(long index) {
+        if (index < GEOMETRIC_CAPACITY)
+            return 31 - Integer.numberOfLeadingZeros((int) index + FIRST_CHUNK_SIZE) - FIRST_CHUNK_SHIFT;
+        return GEOMETRIC_CHUNKS + (int) ((index - GEOMETRIC_CAPACITY) >>> CHUNK_SHIFT);
+    }
+
+    static int chunkOffset(long index) {
+        if (index < GEOMETRIC_CAPACITY) {
+            int shifted = (int) index + FIRST_CHUNK_SIZE;
+            return shifted - Integer.highestOneBit(shifted);
+        }
+        return (int) ((index - GEOMETRIC_CAPACITY) & (CHUNK_SIZE - 1));
+    }
+
+    static int chunkCapacity(int chunkIndex) {
+        return chunkIndex < GEOMETRIC_CHUNKS ? FIRST_CHUNK_SIZE << chunkIndex : CHUNK_SIZE;
+    }
+
+    static long chunkStart(int chunkIndex) {
+        if (chunkIndex < GEOMETRIC_CHUNKS)
+            return (FIRST_CHUNK_SIZE << chunkIndex) - FIRST_CHUNK_SIZE;
+        return GEOMETRIC_CAPACITY + ((long) (chunkIndex - GEOMETRIC_CHUNKS) << CHUNK_SHIFT);
+    }
+}
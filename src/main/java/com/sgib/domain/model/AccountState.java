@@ -0,0 +1,90 @@
+package com.sgib.domain.model;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Immutable balance of an account, in minor units, together with the sequence and booking time of its last
+ * committed transaction. A new instance is published for every commit, so a reader always sees a balance and
+ * a sequence that belong together.
+ * <p>
+ * Booking times never go backwards: a transaction to be booked before the previous one is booked at the
+ * previous one's time, while its own date is left as it is. The journal is therefore sorted by booking time,
+ * which is what lets it be searched by date.
+ * <p>
+ * A {@link #hold() held} state reads like the state it was taken from, but marks the account as claimed
+ * by a commit that spans two accounts: only that commit may replace it.
+ */
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@Getter
+public final class AccountState {
+
+    private final long balance;
+    private final long sequence;
+    private final long lastBookingMillis;
+    private final boolean held;
+
+    public AccountState(long balance, long sequence, long lastBookingMillis) {
+        this(balance, sequence, lastBookingMillis, false);
+    }
+
+    /**
+     * Returns a held copy of this state.
+     */
+    public AccountState hold() {
+        return new AccountState(balance, sequence, lastBookingMillis, true);
+    }
+
+    /**
+     * Returns the copy of this held state that is no longer held.
+     */
+    public AccountState release() {
+        return new AccountState(balance, sequence, lastBookingMillis, false);
+    }
+
+    /**
+     * Validates the transaction against this state and returns the state it leads to.
+     */
+    public AccountState apply(AccountTransaction accountTransaction) {
+        Rejection rejection = check(accountTransaction);
+        if (rejection != null)
+            throw rejection.toException();
+        return next(accountTransaction);
+    }
+
+    /**
+     * Returns why the transaction cannot be applied to this state, or null if it can.
+     */
+    public Rejection check(AccountTransaction accountTransaction) {
+        long amount = accountTransaction.getAmount();
+        if (amount <= 0)
+            return Rejection.AMOUNT_NOT_POSITIVE;
+        if (accountTransaction.getType().isDebit())
+            return balance < amount ? Rejection.INSUFFICIENT_FUNDS : null;
+        return balance > Long.MAX_VALUE - amount ? Rejection.AMOUNT_OUT_OF_RANGE : null;
+    }
+
+    /**
+     * Returns the state the transaction leads to, for a transaction that passed {@link #check}.
+     */
+    public AccountState next(AccountTransaction accountTransaction) {
+        long amount = accountTransaction.getAmount();
+        long nextBalance = accountTransaction.getType().isDebit() ? balance - amount : balance + amount;
+        return new AccountState(nextBalance, sequence + 1, bookingMillis(accountTransaction));
+    }
+
+    /**
+     * Stamps a transaction committed as this state with its sequence, balance after transaction and booking time.
+     */
+    public void book(AccountTransaction accountTransaction) {
+        accountTransaction.setSequence(sequence);
+        accountTransaction.setBalanceAfterTransaction(balance);
+        if (AccountJournal.toEpochMillis(accountTransaction.getBookingDate()) != lastBookingMillis)
+            accountTransaction.setBookingDate(AccountJournal.toLocalDateTime(lastBookingMillis));
+    }
+
+    private long bookingMillis(AccountTransaction accountTransaction) {
+        return Math.max(lastBookingMillis, AccountJournal.bookingMillis(accountTransaction));
+    }
+}
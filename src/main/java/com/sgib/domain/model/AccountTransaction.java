@@ -2,7 +2,6 @@ package com.sgib.domain.model;
 
 import lombok.*;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @NoArgsConstructor
@@ -11,8 +10,24 @@ import java.time.LocalDateTime;
 @Getter
 @Setter
 public class AccountTransaction {
+    /**
+     * Date of the transaction as requested, kept as it is.
+     */
     private LocalDateTime date;
-    private BigDecimal amount;
-    private BigDecimal balanceAfterTransaction;
+    private long amount;
+    private long balanceAfterTransaction;
     private AccountTransactionType type;
-}
\ No newline at end of file
+    /**
+     * Sequence the transaction was committed with, 0 until then.
+     */
+    private long sequence;
+    /**
+     * Time the transaction is booked at, which orders the journal. Before the commit, the earliest time it
+     * may be booked at, the date when null; the commit sets the time it was booked at.
+     */
+    private LocalDateTime bookingDate;
+
+    public AccountTransaction(LocalDateTime date, long amount, long balanceAfterTransaction, AccountTransactionType type) {
+        this(date, amount, balanceAfterTransaction, type, 0, null);
+    }
+}
@@ -1,5 +1,23 @@
 package com.sgib.domain.model;
 
 public enum AccountTransactionType {
-    DEPOSIT, WITHDRAWAL
+    DEPOSIT, WITHDRAWAL, TRANSFER_OUT, TRANSFER_IN, INTEREST, FEE;
+
+    /**
+     * Whether the transaction takes money out of the account.
+     */
+    public boolean isDebit() {
+        return this == WITHDRAWAL || this == TRANSFER_OUT || this == FEE;
+    }
+
+    public boolean isTransfer() {
+        return this == TRANSFER_OUT || this == TRANSFER_IN;
+    }
+
+    /**
+     * Whether the transaction is posted by the end-of-day batch rather than requested by a client.
+     */
+    public boolean isPosting() {
+        return this == INTEREST || this == FEE;
+    }
 }
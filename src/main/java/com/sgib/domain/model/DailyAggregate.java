@@ -0,0 +1,76 @@
+package com.sgib.domain.model;
+
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Running totals of the transactions of one account booked on one UTC day, kept up to date as the
+ * journal records them. Credits are deposits and incoming transfers, debits are withdrawals and
+ * outgoing transfers. The balance range only covers balances after the transactions of the day.
+ * <p>
+ * Entries of the same day may be recorded concurrently, so every figure is updated atomically on its
+ * own: a reader racing a commit may see its amount but not yet its count.
+ */
+public final class DailyAggregate {
+
+    private final long epochDay;
+    private final AtomicLong creditTotal = new AtomicLong();
+    private final AtomicLong creditCount = new AtomicLong();
+    private final AtomicLong debitTotal = new AtomicLong();
+    private final AtomicLong debitCount = new AtomicLong();
+    private final AtomicLong minBalance = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong maxBalance = new AtomicLong(Long.MIN_VALUE);
+
+    DailyAggregate(long epochDay) {
+        this.epochDay = epochDay;
+    }
+
+    // the balance range goes first: a reader that sees the count of an entry also sees its balance
+    void add(long amount, long balanceAfterTransaction, AccountTransactionType type) {
+        minBalance.accumulateAndGet(balanceAfterTransaction, Math::min);
+        maxBalance.accumulateAndGet(balanceAfterTransaction, Math::max);
+        if (type.isDebit()) {
+            debitTotal.addAndGet(amount);
+            debitCount.incrementAndGet();
+        } else {
+            creditTotal.addAndGet(amount);
+            creditCount.incrementAndGet();
+        }
+    }
+
+    public long getCount() {
+        return creditCount.get() + debitCount.get();
+    }
+
+    public long getEpochDay() {
+        return epochDay;
+    }
+
+    public LocalDate getDate() {
+        return LocalDate.ofEpochDay(epochDay);
+    }
+
+    public long getCreditTotal() {
+        return creditTotal.get();
+    }
+
+    public long getCreditCount() {
+        return creditCount.get();
+    }
+
+    public long getDebitTotal() {
+        return debitTotal.get();
+    }
+
+    public long getDebitCount() {
+        return debitCount.get();
+    }
+
+    public long getMinBalance() {
+        return minBalance.get();
+    }
+
+    public long getMaxBalance() {
+        return maxBalance.get();
+    }
+}
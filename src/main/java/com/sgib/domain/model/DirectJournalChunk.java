@@ -0,0 +1,55 @@
+package com.sgib.domain.model;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Journal chunk whose long columns live outside the Java heap, one after the other in a slice of a
+ * direct buffer: epoch millis, then amounts, then balances. The columns are read through a var handle
+ * on the slice itself, so a chunk costs no view buffer on the heap.
+ */
+public final class DirectJournalChunk extends JournalChunk {
+
+    public static final int BYTES_PER_ENTRY = 3 * Long.BYTES;
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final ByteBuffer buffer;
+
+    /**
+     * @param buffer direct buffer of at least {@code capacity * BYTES_PER_ENTRY} bytes, owned by the chunk
+     */
+    public DirectJournalChunk(int capacity, ByteBuffer buffer) {
+        super(capacity);
+        this.buffer = buffer;
+    }
+
+    public ByteBuffer buffer() {
+        return buffer;
+    }
+
+    @Override
+    long epochMillis(int offset) {
+        return (long) LONGS.get(buffer, offset * Long.BYTES);
+    }
+
+    @Override
+    long amount(int offset) {
+        return (long) LONGS.get(buffer, (capacity() + offset) * Long.BYTES);
+    }
+
+    @Override
+    long balanceAfterTransaction(int offset) {
+        return (long) LONGS.get(buffer, (2 * capacity() + offset) * Long.BYTES);
+    }
+
+    @Override
+    void write(int offset, long epochMillis, long amount, long balanceAfterTransaction) {
+        int capacity = capacity();
+        LONGS.set(buffer, offset * Long.BYTES, epochMillis);
+        LONGS.set(buffer, (capacity + offset) * Long.BYTES, amount);
+        LONGS.set(buffer, (2 * capacity + offset) * Long.BYTES, balanceAfterTransaction);
+    }
+}
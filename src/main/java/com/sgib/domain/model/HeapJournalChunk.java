@@ -0,0 +1,47 @@
+package com.sgib.domain.model;
+
+/**
+ * Journal chunk backed by plain {@code long[]} columns.
+ */
+public final class HeapJournalChunk extends JournalChunk {
+
+    private final long[] epochMillis;
+    private final long[] amounts;
+    private final long[] balances;
+
+    public HeapJournalChunk(int capacity) {
+        super(capacity);
+        this.epochMillis = new long[capacity];
+        this.amounts = new long[capacity];
+        this.balances = new long[capacity];
+    }
+
+    HeapJournalChunk(byte[] types, long[] epochMillis, long[] amounts, long[] balances) {
+        super(types);
+        this.epochMillis = epochMillis;
+        this.amounts = amounts;
+        this.balances = balances;
+    }
+
+    @Override
+    long epochMillis(int offset) {
+        return epochMillis[offset];
+    }
+
+    @Override
+    long amount(int offset) {
+        return amounts[offset];
+    }
+
+    @Override
+    long balanceAfterTransaction(int offset) {
+        return balances[offset];
+    }
+
+    @Override
+    void write(int offset, long epochMillis, long amount, long balanceAfterTransaction) {
+        this.epochMillis[offset] = epochMillis;
+        this.amounts[offset] = amount;
+        this.balances[offset] = balanceAfterTransaction;
+    }
+}
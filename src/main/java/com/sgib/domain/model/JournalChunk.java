@@ -0,0 +1,41 @@
+package com.sgib.domain.model;
+
+/**
+ * Fixed-capacity block of journal slots.
+ * The type column always lives on the heap because it is also the publication flag of each slot;
+ * the long columns are stored by the subclass.
+ */
+public abstract class JournalChunk {
+
+    final byte[] types;
+
+    protected JournalChunk(int capacity) {
+        this.types = new byte[capacity];
+    }
+
+    /**
+     * Takes over the type column of another chunk of the same slots.
+     */
+    JournalChunk(byte[] types) {
+        this.types = types;
+    }
+
+    public int capacity() {
+        return types.length;
+    }
+
+    /**
+     * Returns a chunk to read the slots from, the chunk itself unless its columns have to be decoded first.
+     */
+    JournalChunk readable() {
+        return this;
+    }
+
+    abstract long epochMillis(int offset);
+
+    abstract long amount(int offset);
+
+    abstract long balanceAfterTransaction(int offset);
+
+    abstract void write(int offset, long epochMillis, long amount, long balanceAfterTransaction);
+}
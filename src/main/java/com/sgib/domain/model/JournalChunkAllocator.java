@@ -0,0 +1,18 @@
+package com.sgib.domain.model;
+
+/**
+ * Allocates the chunks of an {@link AccountJournal}, which decides where its columns are stored.
+ */
+@FunctionalInterface
+public interface JournalChunkAllocator {
+
+    JournalChunkAllocator HEAP = HeapJournalChunk::new;
+
+    JournalChunk allocate(int capacity);
+
+    /**
+     * Takes back a chunk returned by {@link #allocate} that no journal ever used.
+     */
+    default void release(JournalChunk chunk) {
+    }
+}
@@ -0,0 +1,97 @@
+package com.sgib.domain.model;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Forward-only read view over a range of an {@link AccountJournal}.
+ * Entries are read straight from the journal chunks; nothing is allocated per entry.
+ * <pre>
+ * while (cursor.next())
+ *     total += cursor.amount();
+ * </pre>
+ */
+public final class JournalCursor {
+
+    private final JournalChunk[] chunks;
+    private final Map<Long, TransferLink> transferLinks;
+    private final Map<Long, Long> transactionDates;
+    private final long end;
+    private long index;
+    private JournalChunk chunk;
+    private int offset;
+
+    JournalCursor(JournalChunk[] chunks, Map<Long, TransferLink> transferLinks, Map<Long, Long> transactionDates,
+                  long from, long end) {
+        this.chunks = chunks;
+        this.transferLinks = transferLinks;
+        this.transactionDates = transactionDates;
+        this.end = end;
+        this.index = from - 1;
+    }
+
+    /**
+     * Moves to the next entry.
+     *
+     * @return false once the range is exhausted
+     */
+    public boolean next() {
+        if (index + 1 >= end)
+            return false;
+        index++;
+        if (chunk == null || ++offset == chunk.capacity()) {
+            chunk = chunks[AccountJournal.chunkIndex(index)].readable();
+            offset = AccountJournal.chunkOffset(index);
+        }
+        return true;
+    }
+
+    /**
+     * Index of the current entry in the journal, its sequence minus one.
+     */
+    public long index() {
+        return index;
+    }
+
+    /**
+     * Booking time of the current entry, the order of the journal.
+     */
+    public long epochMillis() {
+        return chunk.epochMillis(offset);
+    }
+
+    public LocalDateTime date() {
+        return AccountJournal.toLocalDateTime(chunk.epochMillis(offset));
+    }
+
+    /**
+     * Date the current transaction was requested with, its booking time unless it could not be booked then.
+     */
+    public long transactionMillis() {
+        Long transactionMillis = transactionDates == null ? null : transactionDates.get(index + 1);
+        return transactionMillis == null ? chunk.epochMillis(offset) : transactionMillis;
+    }
+
+    public LocalDateTime transactionDate() {
+        return AccountJournal.toLocalDateTime(transactionMillis());
+    }
+
+    public long amount() {
+        return chunk.amount(offset);
+    }
+
+    public long balanceAfterTransaction() {
+        return chunk.balanceAfterTransaction(offset);
+    }
+
+    public AccountTransactionType type() {
+        return AccountJournal.decode(chunk.types[offset]);
+    }
+
+    /**
+     * @return the link to the other leg when the current entry is a transfer leg, null otherwise
+     */
+    public TransferLink transferLink() {
+        return type().isTransfer() && transferLinks != null ? transferLinks.get(index + 1) : null;
+    }
+}
@@ -0,0 +1,52 @@
+package com.sgib.domain.model;
+
+import com.sgib.exception.InvalidAmountException;
+
+import java.math.BigDecimal;
+
+import static com.sgib.exception.Messages.AMOUNT_OUT_OF_RANGE;
+import static com.sgib.exception.Messages.AMOUNT_SCALE_NOT_SUPPORTED;
+
+/**
+ * Fixed-point money arithmetic on amounts held as a {@code long} number of minor units (cents).
+ * Balances and transaction amounts stay primitive inside the domain and are only turned into
+ * {@link BigDecimal} at the REST boundary.
+ */
+public final class Money {
+
+    public static final int SCALE = 2;
+
+    private Money() {
+    }
+
+    /**
+     * @throws InvalidAmountException if the amount has more decimals than {@link #SCALE} or does not fit in a long
+     */
+    public static long toMinorUnits(BigDecimal amount) {
+        try {
+            return amount.movePointRight(SCALE).longValueExact();
+        } catch (ArithmeticException e) {
+            if (amount.stripTrailingZeros().scale() > SCALE)
+                throw new InvalidAmountException(String.format(AMOUNT_SCALE_NOT_SUPPORTED, SCALE));
+            throw new InvalidAmountException(AMOUNT_OUT_OF_RANGE);
+        }
+    }
+
+    /**
+     * Converts back to a decimal with {@link #SCALE} decimals, so 9000 minor units render as {@code 90.00}
+     * and 9050 as {@code 90.50}.
+     */
+    public static BigDecimal toBigDecimal(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    /**
+     * @throws InvalidAmountException if the sum overflows
+     */
+    public static long add(long augend, long addend) {
+        long sum = augend + addend;
+        if (((augend ^ sum) & (addend ^ sum)) < 0)
+            throw new InvalidAmountException(AMOUNT_OUT_OF_RANGE);
+        return sum;
+    }
+}
@@ -0,0 +1,32 @@
+package com.sgib.domain.model;
+
+import com.sgib.exception.InsufficientFundsException;
+import com.sgib.exception.InvalidAmountException;
+import com.sgib.exception.Messages;
+
+/**
+ * Business reasons for turning a transaction down. Returning one costs nothing, unlike throwing an
+ * exception, which matters when rejections make up a large share of the traffic.
+ */
+public enum Rejection {
+    AMOUNT_NOT_POSITIVE(Messages.AMOUNT_MUST_BE_GREATER_THAN_ZERO),
+    INSUFFICIENT_FUNDS(Messages.INSUFFICIENT_FUNDS),
+    AMOUNT_OUT_OF_RANGE(Messages.AMOUNT_OUT_OF_RANGE);
+
+    private final String message;
+
+    Rejection(String message) {
+        this.message = message;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * Returns the exception that reports this rejection to callers that expect one.
+     */
+    public IllegalArgumentException toException() {
+        return this == INSUFFICIENT_FUNDS ? new InsufficientFundsException(message) : new InvalidAmountException(message);
+    }
+}
@@ -0,0 +1,20 @@
+package com.sgib.domain.model;
+
+/**
+ * An account state together with its serialized representation and entity tag. States are immutable
+ * and replaced on every commit, so the rendering stays valid for as long as the account still holds
+ * the very same state.
+ */
+public record RenderedAccount(AccountState state, byte[] body, String etag) {
+
+    public boolean isRenderingOf(AccountState accountState) {
+        return state == accountState;
+    }
+
+    /**
+     * Entity tag of the same state sent in the binary format, which must differ from the one of the JSON body.
+     */
+    public String binaryEtag() {
+        return etag.substring(0, etag.length() - 1) + "-b\"";
+    }
+}
@@ -0,0 +1,184 @@
+package com.sgib.domain.model;
+
+import java.lang.ref.SoftReference;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Journal chunk of old history, whose slots are all published and will not change again. Its long
+ * columns are encoded into one byte array, column after column: epoch millis as the difference to the
+ * previous entry, amounts as they are and balances as the difference to the previous balance, each a
+ * zigzag varint. Entries of the same account are close in time and in balance, so most values take two
+ * to four bytes instead of eight. The encoding can also be deflated, which is kept only when it is
+ * smaller.
+ * <p>
+ * The columns are decoded when a reader reaches the chunk, and kept behind a soft reference, so that
+ * a chunk read again soon is not decoded twice while the garbage collector can still take them back.
+ * The first epoch millis is kept aside, so that finding a date in the journal decodes nothing but the
+ * chunk it lands in.
+ */
+public final class SealedJournalChunk extends JournalChunk {
+
+    private static final int MAX_VARINT_BYTES = 10;
+
+    private final long firstEpochMillis;
+    private final byte[] encoded;
+    private final int decodedLength;
+    private final boolean deflated;
+    private volatile SoftReference<HeapJournalChunk> decoded = new SoftReference<>(null);
+
+    private SealedJournalChunk(byte[] types, long firstEpochMillis, byte[] encoded, int decodedLength, boolean deflated) {
+        super(types);
+        this.firstEpochMillis = firstEpochMillis;
+        this.encoded = encoded;
+        this.decodedLength = decodedLength;
+        this.deflated = deflated;
+    }
+
+    /**
+     * Encodes a chunk whose slots are all published. The sealed chunk shares the type column of the
+     * original, so a replayed entry still finds its slot taken.
+     */
+    static SealedJournalChunk seal(JournalChunk chunk, boolean deflate) {
+        int capacity = chunk.capacity();
+        byte[] buffer = new byte[3 * capacity * MAX_VARINT_BYTES];
+        int length = 0;
+        long previous = 0;
+        for (int offset = 0; offset < capacity; offset++) {
+            long epochMillis = chunk.epochMillis(offset);
+            length = writeVarint(buffer, length, zigzag(epochMillis - previous));
+            previous = epochMillis;
+        }
+        for (int offset = 0; offset < capacity; offset++)
+            length = writeVarint(buffer, length, zigzag(chunk.amount(offset)));
+        previous = 0;
+        for (int offset = 0; offset < capacity; offset++) {
+            long balance = chunk.balanceAfterTransaction(offset);
+            length = writeVarint(buffer, length, zigzag(balance - previous));
+            previous = balance;
+        }
+        if (deflate) {
+            Deflater deflater = new Deflater();
+            try {
+                deflater.setInput(buffer, 0, length);
+                deflater.finish();
+                byte[] compressed = new byte[length];
+                int compressedLength = deflater.deflate(compressed);
+                if (deflater.finished() && compressedLength < length)
+                    return new SealedJournalChunk(chunk.types, chunk.epochMillis(0), Arrays.copyOf(compressed, compressedLength), length, true);
+            } finally {
+                deflater.end();
+            }
+        }
+        return new SealedJournalChunk(chunk.types, chunk.epochMillis(0), Arrays.copyOf(buffer, length), length, false);
+    }
+
+    /**
+     * Bytes taken by the encoded columns, the type column aside.
+     */
+    public int encodedBytes() {
+        return encoded.length;
+    }
+
+    @Override
+    JournalChunk readable() {
+        HeapJournalChunk chunk = decoded.get();
+        if (chunk == null) {
+            chunk = decode();
+            decoded = new SoftReference<>(chunk);
+        }
+        return chunk;
+    }
+
+    @Override
+    long epochMillis(int offset) {
+        return offset == 0 ? firstEpochMillis : readable().epochMillis(offset);
+    }
+
+    @Override
+    long amount(int offset) {
+        return readable().amount(offset);
+    }
+
+    @Override
+    long balanceAfterTransaction(int offset) {
+        return readable().balanceAfterTransaction(offset);
+    }
+
+    @Override
+    void write(int offset, long epochMillis, long amount, long balanceAfterTransaction) {
+        throw new IllegalStateException("Sealed journal chunks are read-only");
+    }
+
+    private HeapJournalChunk decode() {
+        byte[] bytes = deflated ? inflate() : encoded;
+        int capacity = capacity();
+        long[] epochMillis = new long[capacity];
+        long[] amounts = new long[capacity];
+        long[] balances = new long[capacity];
+        VarintReader reader = new VarintReader(bytes);
+        long previous = 0;
+        for (int offset = 0; offset < capacity; offset++)
+            epochMillis[offset] = previous += unzigzag(reader.next());
+        for (int offset = 0; offset < capacity; offset++)
+            amounts[offset] = unzigzag(reader.next());
+        previous = 0;
+        for (int offset = 0; offset < capacity; offset++)
+            balances[offset] = previous += unzigzag(reader.next());
+        return new HeapJournalChunk(types, epochMillis, amounts, balances);
+    }
+
+    private byte[] inflate() {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(encoded);
+            byte[] bytes = new byte[decodedLength];
+            if (inflater.inflate(bytes) != decodedLength)
+                throw new IllegalStateException("Sealed journal chunk is truncated");
+            return bytes;
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Sealed journal chunk is corrupt", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static int writeVarint(byte[] buffer, int position, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) (value & 0x7F | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+        return position;
+    }
+
+    private static final class VarintReader {
+
+        private final byte[] bytes;
+        private int position;
+
+        private VarintReader(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        private long next() {
+            long value = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = bytes[position++];
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0)
+                    return value;
+            }
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.sgib.domain.model;
+
+import java.util.UUID;
+
+/**
+ * Points from one leg of a transfer to the journal entry of the other leg.
+ */
+public record TransferLink(UUID counterpartyAccountId, long counterpartySequence) {
+}
@@ -0,0 +1,8 @@
+package com.sgib.exception;
+
+public class AccountBusyException extends RuntimeException {
+
+    public AccountBusyException(String message) {
+        super(message);
+    }
+}
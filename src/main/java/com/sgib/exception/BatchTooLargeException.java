@@ -0,0 +1,8 @@
+package com.sgib.exception;
+
+public class BatchTooLargeException extends IllegalArgumentException {
+
+    public BatchTooLargeException(String message) {
+        super(message);
+    }
+}
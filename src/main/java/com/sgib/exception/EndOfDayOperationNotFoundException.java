@@ -0,0 +1,8 @@
+package com.sgib.exception;
+
+public class EndOfDayOperationNotFoundException extends RuntimeException {
+
+    public EndOfDayOperationNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.sgib.exception;
+
+public class EndOfDayRunInProgressException extends RuntimeException {
+
+    public EndOfDayRunInProgressException(String message) {
+        super(message);
+    }
+}
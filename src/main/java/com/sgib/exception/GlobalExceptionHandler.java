@@ -1,6 +1,8 @@
 package com.sgib.exception;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -15,14 +17,44 @@ public class GlobalExceptionHandler {
     public ResponseEntity<Map<String, Object>> handleAccountNotFoundException(AccountNotFoundException ex) {
         Map<String, Object> response = new HashMap<>();
         response.put("message", ex.getMessage());
-        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).contentType(MediaType.APPLICATION_JSON).body(response);
     }
 
-    @ExceptionHandler({InsufficientFundsException.class, InvalidAmountException.class})
+    @ExceptionHandler({InsufficientFundsException.class, InvalidAmountException.class, BatchTooLargeException.class,
+            InvalidTransactionException.class, InvalidIdempotencyKeyException.class, InvalidBusinessDateException.class,
+            InvalidAccountCountException.class})
     public ResponseEntity<Map<String, Object>> handleIllegalArgumentException(IllegalArgumentException ex) {
         Map<String, Object> response = new HashMap<>();
         response.put("message", ex.getMessage());
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).contentType(MediaType.APPLICATION_JSON).body(response);
     }
 
-}
\ No newline at end of file
+    @ExceptionHandler(EndOfDayOperationNotFoundException.class)
+    public ResponseEntity<Map<String, Object>> handleEndOfDayOperationNotFoundException(EndOfDayOperationNotFoundException ex) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).contentType(MediaType.APPLICATION_JSON).body(response);
+    }
+
+    @ExceptionHandler({EndOfDayRunInProgressException.class, StatementRunInProgressException.class})
+    public ResponseEntity<Map<String, Object>> handleRunInProgressException(RuntimeException ex) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).contentType(MediaType.APPLICATION_JSON).body(response);
+    }
+
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    public ResponseEntity<Map<String, Object>> handleIdempotencyKeyReusedException(IdempotencyKeyReusedException ex) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).contentType(MediaType.APPLICATION_JSON).body(response);
+    }
+
+    @ExceptionHandler(AccountBusyException.class)
+    public ResponseEntity<Map<String, Object>> handleAccountBusyException(AccountBusyException ex) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, "1").contentType(MediaType.APPLICATION_JSON).body(response);
+    }
+
+}
@@ -0,0 +1,8 @@
+package com.sgib.exception;
+
+public class InvalidAccountCountException extends IllegalArgumentException {
+
+    public InvalidAccountCountException(String message) {
+        super(message);
+    }
+}
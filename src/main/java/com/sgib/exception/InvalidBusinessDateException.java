@@ -0,0 +1,8 @@
+package com.sgib.exception;
+
+public class InvalidBusinessDateException extends IllegalArgumentException {
+
+    public InvalidBusinessDateException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.sgib.exception;
+
+public class InvalidIdempotencyKeyException extends IllegalArgumentException {
+
+    public InvalidIdempotencyKeyException(String message) {
+        super(message);
+    }
+}
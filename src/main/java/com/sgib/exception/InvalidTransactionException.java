@@ -0,0 +1,8 @@
+package com.sgib.exception;
+
+public class InvalidTransactionException extends IllegalArgumentException {
+
+    public InvalidTransactionException(String message) {
+        super(message);
+    }
+}
@@ -4,4 +4,17 @@ public class Messages {
     public static String ACCOUNT_NOT_FOUND = "Account not found: %s";
     public static String AMOUNT_MUST_BE_GREATER_THAN_ZERO = "Amount must be greater than zero";
     public static String INSUFFICIENT_FUNDS = "Insufficient funds";
+    public static String AMOUNT_SCALE_NOT_SUPPORTED = "Amount must not have more than %d decimal places";
+    public static String AMOUNT_OUT_OF_RANGE = "Amount is out of range";
+    public static String TRANSACTION_TYPE_NOT_SUPPORTED = "Transaction type not supported: %s";
+    public static String ACCOUNT_BUSY = "Too many concurrent requests on account: %s";
+    public static String TRANSFER_TO_SAME_ACCOUNT = "Source and target accounts must differ";
+    public static String IDEMPOTENCY_KEY_TOO_LONG = "Idempotency key must not be longer than %d characters";
+    public static String IDEMPOTENCY_KEY_REUSED = "Idempotency key was already used for a different transaction: %s";
+    public static String END_OF_DAY_OPERATION_NOT_FOUND = "End-of-day operation not found: %s";
+    public static String END_OF_DAY_BUSINESS_DATE_NOT_CLOSED = "Business date must be before today: %s";
+    public static String END_OF_DAY_RUN_IN_PROGRESS = "An end-of-day run is already in progress: %s for %s";
+    public static String STATEMENT_RUN_IN_PROGRESS = "A statement run is already in progress: %s to %s";
+    public static String BATCH_TOO_LARGE = "Batch must not contain more than %d transactions";
+    public static String ACCOUNT_BATCH_SIZE_OUT_OF_RANGE = "Number of accounts to create must be between 1 and %d";
 }
@@ -0,0 +1,8 @@
+package com.sgib.exception;
+
+public class StatementRunInProgressException extends RuntimeException {
+
+    public StatementRunInProgressException(String message) {
+        super(message);
+    }
+}
@@ -1,25 +1,37 @@
 package com.sgib.repository;
 
 import com.sgib.domain.model.Account;
-import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
-
-@Repository
-public class AccountRepository {
-
-    private final ConcurrentHashMap<UUID, Account> accounts = new ConcurrentHashMap<>();
-
-    public Account save(Account account){
-        accounts.put(account.getId(),account);
-        return account;
-    }
-
-    public Optional<Account> findOne(UUID id){
-        return Optional.ofNullable(accounts.get(id));
-    }
-
-
+import java.util.function.Consumer;
+
+/**
+ * Storage of the accounts. The implementation is chosen with {@code bank.repository.storage}.
+ */
+public interface AccountRepository {
+
+    /**
+     * Stores a new account.
+     *
+     * @return the stored account, which callers must use from then on
+     */
+    Account save(Account account);
+
+    /**
+     * Stores new accounts, making room for all of them at once.
+     *
+     * @return the stored accounts, in the given order, which callers must use from then on
+     */
+    List<Account> saveAll(List<Account> accounts);
+
+    Optional<Account> findOne(UUID id);
+
+    /**
+     * Visits every stored account. Accounts saved during the visit may or may not be seen.
+     */
+    void forEach(Consumer<Account> action);
+
+    long count();
 }
@@ -0,0 +1,56 @@
+package com.sgib.repository;
+
+import com.sgib.domain.model.Account;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+@Repository
+@ConditionalOnProperty(name = "bank.repository.storage", havingValue = "heap", matchIfMissing = true)
+public class InMemoryAccountRepository implements AccountRepository {
+
+    private final ConcurrentHashMap<UUID, Account> accounts = new ConcurrentHashMap<>();
+
+    @Override
+    public Account save(Account account){
+        accounts.put(account.getId(),account);
+        return account;
+    }
+
+    /**
+     * Goes through {@link ConcurrentHashMap#putAll}, which grows the map once to fit the whole batch
+     * instead of doubling it step by step as the accounts come in.
+     */
+    @Override
+    public List<Account> saveAll(List<Account> accounts) {
+        Map<UUID, Account> batch = new HashMap<>((int) (accounts.size() / 0.75f) + 1);
+        for (Account account : accounts)
+            batch.put(account.getId(), account);
+        this.accounts.putAll(batch);
+        return accounts;
+    }
+
+    @Override
+    public Optional<Account> findOne(UUID id){
+        return Optional.ofNullable(accounts.get(id));
+    }
+
+    @Override
+    public void forEach(Consumer<Account> action) {
+        accounts.values().forEach(action);
+    }
+
+    @Override
+    public long count() {
+        return accounts.mappingCount();
+    }
+
+
+}
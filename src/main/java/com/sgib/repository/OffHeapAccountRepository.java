@@ -0,0 +1,201 @@
+package com.sgib.repository;
+
+import com.sgib.domain.model.Account;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Account repository that keeps its index and the account journals outside the Java heap.
+ * <p>
+ * The index is an open-addressing hash table in a direct buffer: one slot holds the two halves of
+ * an account id, and the account itself sits at the same position of a plain array. Journal chunks
+ * are carved out of an {@link OffHeapArena}, so the bulk of the ledger, the long columns of the
+ * transaction history, is never scanned by the garbage collector.
+ * <p>
+ * What moves off the heap is what grows with the number of transactions. Each account still keeps a
+ * fixed set of objects on the heap: the account and its current state, which the engines swap as a
+ * whole, the journal with its chunk directory, and per chunk the type column, since a type is also
+ * the flag that publishes a slot. This footprint does not grow with the history of the account.
+ * <p>
+ * Lookups never lock: a slot is published by writing the high half of the id last, with release
+ * semantics. Inserts and resizes are serialized, which is fine since accounts are created far less
+ * often than they are read. An id whose high half is zero is reserved to mark empty slots.
+ */
+@Repository
+@ConditionalOnProperty(name = "bank.repository.storage", havingValue = "off-heap")
+public class OffHeapAccountRepository implements AccountRepository {
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    private static final int SLOT_BYTES = 2 * Long.BYTES;
+    private static final long EMPTY = 0L;
+
+    private final OffHeapArena arena;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile Table table;
+
+    public OffHeapAccountRepository(@Value("${bank.repository.initial-capacity:65536}") int initialCapacity,
+                                    @Value("${bank.repository.off-heap.slab-size-mb:64}") int slabSizeMb) {
+        this.arena = new OffHeapArena(slabSizeMb << 20);
+        this.table = new Table(tableSizeFor(initialCapacity));
+    }
+
+    @Override
+    public Account save(Account account) {
+        UUID id = account.getId();
+        if (id.getMostSignificantBits() == EMPTY)
+            throw new IllegalArgumentException("Account id is reserved: " + id);
+        Account stored = account.getJournal().getAllocator() == arena ? account : account.relocateJournal(arena);
+        writeLock.lock();
+        try {
+            Table current = table;
+            if (current.size + 1 > current.capacity() >> 1) {
+                current = current.resize();
+                table = current;
+            }
+            current.put(stored);
+            return stored;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Relocates the journals before taking the write lock, then grows the index at most once for the
+     * whole batch.
+     */
+    @Override
+    public List<Account> saveAll(List<Account> accounts) {
+        List<Account> stored = new ArrayList<>(accounts.size());
+        for (Account account : accounts) {
+            if (account.getId().getMostSignificantBits() == EMPTY)
+                throw new IllegalArgumentException("Account id is reserved: " + account.getId());
+            stored.add(account.getJournal().getAllocator() == arena ? account : account.relocateJournal(arena));
+        }
+        writeLock.lock();
+        try {
+            Table current = table;
+            if (current.size + stored.size() > current.capacity() >> 1) {
+                current = current.resize(tableSizeFor(current.size + stored.size()));
+                table = current;
+            }
+            for (Account account : stored)
+                current.put(account);
+            return stored;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public Optional<Account> findOne(UUID id) {
+        return Optional.ofNullable(table.get(id.getMostSignificantBits(), id.getLeastSignificantBits()));
+    }
+
+    @Override
+    public void forEach(Consumer<Account> action) {
+        Table current = table;
+        for (int slot = 0; slot < current.capacity(); slot++) {
+            if ((long) LONGS.getAcquire(current.keys, slot * SLOT_BYTES) != EMPTY)
+                action.accept(current.accounts[slot]);
+        }
+    }
+
+    @Override
+    public long count() {
+        writeLock.lock();
+        try {
+            return table.size;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Number of bytes reserved outside the heap for the index and the journals.
+     */
+    public long offHeapBytes() {
+        return (long) table.capacity() * SLOT_BYTES + arena.allocatedBytes();
+    }
+
+    private static int tableSizeFor(int expectedAccounts) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedAccounts) - 1) << 2;
+        if (capacity <= 0)
+            throw new IllegalArgumentException("Initial capacity is too large: " + expectedAccounts);
+        return capacity;
+    }
+
+    private static int hash(long mostSignificantBits, long leastSignificantBits) {
+        long h = (mostSignificantBits ^ leastSignificantBits) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static final class Table {
+        private final ByteBuffer keys;
+        private final Account[] accounts;
+        private final int mask;
+        private int size;
+
+        private Table(int capacity) {
+            this.keys = ByteBuffer.allocateDirect(capacity * SLOT_BYTES).order(ByteOrder.nativeOrder());
+            this.accounts = new Account[capacity];
+            this.mask = capacity - 1;
+        }
+
+        private int capacity() {
+            return accounts.length;
+        }
+
+        private Account get(long mostSignificantBits, long leastSignificantBits) {
+            for (int slot = hash(mostSignificantBits, leastSignificantBits) & mask; ; slot = (slot + 1) & mask) {
+                long high = (long) LONGS.getAcquire(keys, slot * SLOT_BYTES);
+                if (high == EMPTY)
+                    return null;
+                if (high == mostSignificantBits && (long) LONGS.get(keys, slot * SLOT_BYTES + Long.BYTES) == leastSignificantBits)
+                    return accounts[slot];
+            }
+        }
+
+        private void put(Account account) {
+            long mostSignificantBits = account.getId().getMostSignificantBits();
+            long leastSignificantBits = account.getId().getLeastSignificantBits();
+            for (int slot = hash(mostSignificantBits, leastSignificantBits) & mask; ; slot = (slot + 1) & mask) {
+                long high = (long) LONGS.get(keys, slot * SLOT_BYTES);
+                if (high == EMPTY) {
+                    accounts[slot] = account;
+                    LONGS.set(keys, slot * SLOT_BYTES + Long.BYTES, leastSignificantBits);
+                    LONGS.setRelease(keys, slot * SLOT_BYTES, mostSignificantBits);
+                    size++;
+                    return;
+                }
+                if (high == mostSignificantBits && (long) LONGS.get(keys, slot * SLOT_BYTES + Long.BYTES) == leastSignificantBits) {
+                    accounts[slot] = account;
+                    return;
+                }
+            }
+        }
+
+        private Table resize() {
+            return resize(capacity() << 1);
+        }
+
+        private Table resize(int capacity) {
+            Table resized = new Table(capacity);
+            for (Account account : accounts)
+                if (account != null)
+                    resized.put(account);
+            return resized;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.sgib.repository;
+
+import com.sgib.domain.model.DirectJournalChunk;
+import com.sgib.domain.model.JournalChunk;
+import com.sgib.domain.model.JournalChunkAllocator;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Carves journal chunks out of large direct buffers, so millions of small chunks cost a handful of
+ * native allocations. Journals are append-only, so the only slices given back are those of a chunk a
+ * journal allocated but lost the race to add; they are handed out again to the next chunk of the same
+ * size.
+ */
+public class OffHeapArena implements JournalChunkAllocator {
+
+    private final int slabBytes;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<Integer, ArrayDeque<ByteBuffer>> released = new HashMap<>();
+    private ByteBuffer slab;
+    private long allocatedBytes;
+
+    public OffHeapArena(int slabBytes) {
+        this.slabBytes = slabBytes;
+    }
+
+    @Override
+    public JournalChunk allocate(int capacity) {
+        return new DirectJournalChunk(capacity, slice(capacity * DirectJournalChunk.BYTES_PER_ENTRY));
+    }
+
+    /**
+     * The chunk was never written to, so its slice is still zeroed.
+     */
+    @Override
+    public void release(JournalChunk chunk) {
+        if (!(chunk instanceof DirectJournalChunk direct))
+            return;
+        ByteBuffer buffer = direct.buffer();
+        lock.lock();
+        try {
+            released.computeIfAbsent(buffer.capacity(), bytes -> new ArrayDeque<>()).push(buffer);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return a zeroed direct buffer of the requested size
+     */
+    public ByteBuffer slice(int bytes) {
+        lock.lock();
+        try {
+            ArrayDeque<ByteBuffer> reusable = released.get(bytes);
+            if (reusable != null && !reusable.isEmpty())
+                return reusable.pop();
+            if (bytes > slabBytes) {
+                allocatedBytes += bytes;
+                return ByteBuffer.allocateDirect(bytes);
+            }
+            if (slab == null || slab.remaining() < bytes) {
+                slab = ByteBuffer.allocateDirect(slabBytes);
+                allocatedBytes += slabBytes;
+            }
+            ByteBuffer slice = slab.slice(slab.position(), bytes);
+            slab.position(slab.position() + bytes);
+            return slice;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long allocatedBytes() {
+        lock.lock();
+        try {
+            return allocatedBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.sgib.repository.snapshot;
+
+import com.sgib.domain.model.Account;
+import com.sgib.domain.model.AccountJournal;
+import com.sgib.domain.model.AccountState;
+import com.sgib.domain.model.AccountTransactionType;
+import com.sgib.domain.model.JournalCursor;
+import com.sgib.domain.model.TransferLink;
+import com.sgib.repository.AccountRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Binary snapshots of every account balance and journal, written to and read from memory-mapped
+ * files. A snapshot is named after the first write-ahead log segment it does not cover, so a restart
+ * loads it and only replays the log from that segment on.
+ * <pre>
+ * header  int magic, int version, long first log segment to replay
+ * account long id high, long id low, long balance, long sequence, long journal entries
+ *         entries x (long epoch millis, long amount, long balance after transaction)
+ *         entries x byte type, padded to 8 bytes
+ *         long link count, links x (long sequence, long counterparty id high, long counterparty id low,
+ *         long counterparty sequence)
+ *         long dated count, dated x (long sequence, long transaction date in epoch millis)
+ * footer  long account count, long length of what precedes, long crc32c of it
+ * </pre>
+ * Accounts keep changing while a snapshot is written. That is fine: every account is written with a
+ * journal that matches its balance, and any later change sits in a segment that is replayed anyway.
+ * The epoch millis of an entry are its booking time; the entries booked at another time than their
+ * own date are listed with that date at the end of the account. Version 1 snapshots, written before
+ * transfers existed, have no links, version 2 snapshots have no dates, and both are still loaded.
+ */
+@Component
+@ConditionalOnProperty(name = "bank.wal.enabled", havingValue = "true")
+public class LedgerSnapshots {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LedgerSnapshots.class);
+    private static final int MAGIC = 0x4C444753;
+    private static final int VERSION = 3;
+    private static final int VERSION_WITHOUT_DATES = 2;
+    private static final int VERSION_WITHOUT_LINKS = 1;
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".bin";
+    private static final AccountTransactionType[] TYPES = AccountTransactionType.values();
+
+    private final Path directory;
+
+    public LedgerSnapshots(@Value("${bank.snapshot.directory:data/snapshots}") Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Writes a snapshot of every account, then removes the snapshots it supersedes.
+     *
+     * @param firstSegment first log segment holding changes that may be missing from the snapshot
+     */
+    public void write(AccountRepository accountRepository, long firstSegment) throws IOException {
+        Files.createDirectories(directory);
+        Path target = directory.resolve(String.format("%s%020d%s", SNAPSHOT_PREFIX, firstSegment, SNAPSHOT_SUFFIX));
+        Path temporary = directory.resolve(target.getFileName() + ".tmp");
+        long accounts;
+        try (MappedFileWriter writer = new MappedFileWriter(temporary)) {
+            writer.putInt(MAGIC);
+            writer.putInt(VERSION);
+            writer.putLong(firstSegment);
+            long[] written = new long[1];
+            accountRepository.forEach(account -> {
+                try {
+                    writeAccount(writer, account);
+                    written[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            accounts = written[0];
+            writer.putLong(accounts);
+            long length = writer.position();
+            long crc = writer.checksum();
+            writer.putLong(length);
+            writer.putLong(crc);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        for (Path snapshot : snapshots())
+            if (!snapshot.equals(target))
+                Files.deleteIfExists(snapshot);
+        LOGGER.info("Wrote snapshot {} with {} accounts", target, accounts);
+    }
+
+    /**
+     * Loads the latest valid snapshot into the repository.
+     *
+     * @return the first log segment to replay on top of it, 0 when there is no snapshot
+     */
+    public long loadLatest(AccountRepository accountRepository) throws IOException {
+        if (!Files.isDirectory(directory))
+            return 0;
+        List<Path> snapshots = snapshots();
+        for (int i = snapshots.size() - 1; i >= 0; i--) {
+            Path snapshot = snapshots.get(i);
+            try (MappedFileReader reader = new MappedFileReader(snapshot)) {
+                if (!isValid(reader)) {
+                    LOGGER.warn("Ignoring corrupted snapshot {}", snapshot);
+                    continue;
+                }
+                long firstSegment = load(reader, accountRepository);
+                LOGGER.info("Loaded snapshot {}", snapshot);
+                return firstSegment;
+            }
+        }
+        return 0;
+    }
+
+    private void writeAccount(MappedFileWriter writer, Account account) throws IOException {
+        AccountState state = account.getState();
+        account.getJournal().awaitPublished(state.getSequence());
+        long entries = state.getSequence();
+        writer.putLong(account.getId().getMostSignificantBits());
+        writer.putLong(account.getId().getLeastSignificantBits());
+        writer.putLong(state.getBalance());
+        writer.putLong(state.getSequence());
+        writer.putLong(entries);
+        JournalCursor cursor = account.getJournal().cursor(0, entries);
+        while (cursor.next()) {
+            writer.putLong(cursor.epochMillis());
+            writer.putLong(cursor.amount());
+            writer.putLong(cursor.balanceAfterTransaction());
+        }
+        cursor = account.getJournal().cursor(0, entries);
+        List<Long> linkedSequences = new ArrayList<>();
+        List<Long> datedSequences = new ArrayList<>();
+        List<Long> transactionDates = new ArrayList<>();
+        while (cursor.next()) {
+            writer.put((byte) (cursor.type().ordinal() + 1));
+            if (cursor.transferLink() != null)
+                linkedSequences.add(cursor.index() + 1);
+            if (cursor.transactionMillis() != cursor.epochMillis()) {
+                datedSequences.add(cursor.index() + 1);
+                transactionDates.add(cursor.transactionMillis());
+            }
+        }
+        writer.alignToLong();
+        writer.putLong(linkedSequences.size());
+        for (long linkedSequence : linkedSequences) {
+            TransferLink transferLink = account.getJournal().transferLink(linkedSequence);
+            writer.putLong(linkedSequence);
+            writer.putLong(transferLink.counterpartyAccountId().getMostSignificantBits());
+            writer.putLong(transferLink.counterpartyAccountId().getLeastSignificantBits());
+            writer.putLong(transferLink.counterpartySequence());
+        }
+        writer.putLong(datedSequences.size());
+        for (int dated = 0; dated < datedSequences.size(); dated++) {
+            writer.putLong(datedSequences.get(dated));
+            writer.putLong(transactionDates.get(dated));
+        }
+    }
+
+    private boolean isValid(MappedFileReader reader) throws IOException {
+        if (reader.size() < 5 * Long.BYTES || reader.getInt() != MAGIC)
+            return false;
+        int version = reader.getInt();
+        if (version != VERSION && version != VERSION_WITHOUT_DATES && version != VERSION_WITHOUT_LINKS)
+            return false;
+        reader.seek(reader.size() - 2 * Long.BYTES);
+        long length = reader.getLong();
+        long crc = reader.getLong();
+        return length == reader.size() - 2 * Long.BYTES && reader.checksum(length) == crc;
+    }
+
+    private long load(MappedFileReader reader, AccountRepository accountRepository) throws IOException {
+        reader.seek(reader.size() - 3 * Long.BYTES);
+        long accounts = reader.getLong();
+        reader.seek(Integer.BYTES);
+        int version = reader.getInt();
+        boolean linked = version != VERSION_WITHOUT_LINKS;
+        boolean dated = version == VERSION;
+        long firstSegment = reader.getLong();
+        long[] epochMillis = new long[0];
+        long[] amounts = new long[0];
+        long[] balances = new long[0];
+        for (long i = 0; i < accounts; i++) {
+            UUID id = new UUID(reader.getLong(), reader.getLong());
+            long balance = reader.getLong();
+            long sequence = reader.getLong();
+            int entries = Math.toIntExact(reader.getLong());
+            if (epochMillis.length < entries) {
+                epochMillis = new long[entries];
+                amounts = new long[entries];
+                balances = new long[entries];
+            }
+            for (int entry = 0; entry < entries; entry++) {
+                epochMillis[entry] = reader.getLong();
+                amounts[entry] = reader.getLong();
+                balances[entry] = reader.getLong();
+            }
+            Account account = accountRepository.save(Account.builder().id(id).balance(balance).build());
+            for (int entry = 0; entry < entries; entry++)
+                account.getJournal().record(entry + 1, epochMillis[entry], amounts[entry], balances[entry], TYPES[reader.get() - 1]);
+            reader.alignToLong();
+            long links = linked ? reader.getLong() : 0;
+            for (long link = 0; link < links; link++) {
+                long linkedSequence = reader.getLong();
+                UUID counterpartyAccountId = new UUID(reader.getLong(), reader.getLong());
+                account.getJournal().link(linkedSequence, new TransferLink(counterpartyAccountId, reader.getLong()));
+            }
+            long dates = dated ? reader.getLong() : 0;
+            for (long date = 0; date < dates; date++)
+                account.getJournal().keepTransactionDate(reader.getLong(), reader.getLong());
+            account.setState(new AccountState(balance, sequence, entries > 0 ? epochMillis[entries - 1] : AccountJournal.NO_DATE));
+        }
+        return firstSegment;
+    }
+
+    private List<Path> snapshots() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().startsWith(SNAPSHOT_PREFIX)
+                            && path.getFileName().toString().endsWith(SNAPSHOT_SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+    }
+}
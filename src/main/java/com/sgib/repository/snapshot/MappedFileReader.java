@@ -0,0 +1,91 @@
+package com.sgib.repository.snapshot;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * Sequential reader over a file mapped in fixed windows, the counterpart of {@link MappedFileWriter}.
+ */
+final class MappedFileReader implements Closeable {
+
+    private final FileChannel channel;
+    private final long size;
+    private MappedByteBuffer window;
+    private long windowStart;
+
+    MappedFileReader(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.size = channel.size();
+        map(0);
+    }
+
+    long size() {
+        return size;
+    }
+
+    long getLong() throws IOException {
+        ensure(Long.BYTES);
+        return window.getLong();
+    }
+
+    int getInt() throws IOException {
+        ensure(Integer.BYTES);
+        return window.getInt();
+    }
+
+    byte get() throws IOException {
+        ensure(1);
+        return window.get();
+    }
+
+    void alignToLong() throws IOException {
+        while (position() % Long.BYTES != 0)
+            get();
+    }
+
+    long position() {
+        return windowStart + window.position();
+    }
+
+    void seek(long position) throws IOException {
+        map(position);
+    }
+
+    /**
+     * @return the CRC32C of the first {@code length} bytes of the file
+     */
+    long checksum(long length) throws IOException {
+        CRC32C crc = new CRC32C();
+        for (long start = 0; start < length; start += MappedFileWriter.WINDOW_BYTES) {
+            long bytes = Math.min(MappedFileWriter.WINDOW_BYTES, length - start);
+            crc.update(channel.map(FileChannel.MapMode.READ_ONLY, start, bytes));
+        }
+        return crc.getValue();
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (window.remaining() < bytes) {
+            if (position() + bytes > size)
+                throw new IOException("Unexpected end of snapshot at offset " + position());
+            map(position());
+        }
+    }
+
+    private void map(long start) throws IOException {
+        window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(MappedFileWriter.WINDOW_BYTES, size - start));
+        window.order(ByteOrder.LITTLE_ENDIAN);
+        windowStart = start;
+    }
+}
@@ -0,0 +1,92 @@
+package com.sgib.repository.snapshot;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * Sequential writer over a file mapped in fixed windows, keeping a running CRC32C of what it wrote.
+ * Values are written 8-byte aligned by the caller, so a long never straddles two windows.
+ */
+final class MappedFileWriter implements Closeable {
+
+    static final int WINDOW_BYTES = 64 << 20;
+
+    private final FileChannel channel;
+    private final CRC32C crc = new CRC32C();
+    private MappedByteBuffer window;
+    private long windowStart;
+    private int checksummed;
+
+    MappedFileWriter(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        map(0);
+    }
+
+    void putLong(long value) throws IOException {
+        ensure(Long.BYTES);
+        window.putLong(value);
+    }
+
+    void putInt(int value) throws IOException {
+        ensure(Integer.BYTES);
+        window.putInt(value);
+    }
+
+    void put(byte value) throws IOException {
+        ensure(1);
+        window.put(value);
+    }
+
+    void alignToLong() throws IOException {
+        while (position() % Long.BYTES != 0)
+            put((byte) 0);
+    }
+
+    long position() {
+        return windowStart + window.position();
+    }
+
+    /**
+     * @return the CRC32C of everything written so far
+     */
+    long checksum() {
+        crc.update(window.slice(checksummed, window.position() - checksummed));
+        checksummed = window.position();
+        return crc.getValue();
+    }
+
+    /**
+     * Trims the file to what was written and forces it to disk.
+     */
+    @Override
+    public void close() throws IOException {
+        long size = position();
+        window.force();
+        window = null;
+        channel.truncate(size);
+        channel.force(true);
+        channel.close();
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (window.remaining() < bytes) {
+            checksum();
+            window.force();
+            map(position());
+        }
+    }
+
+    private void map(long start) throws IOException {
+        window = channel.map(FileChannel.MapMode.READ_WRITE, start, WINDOW_BYTES);
+        window.order(ByteOrder.LITTLE_ENDIAN);
+        windowStart = start;
+        checksummed = 0;
+    }
+}
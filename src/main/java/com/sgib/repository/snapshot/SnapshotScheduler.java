@@ -0,0 +1,66 @@
+package com.sgib.repository.snapshot;
+
+import com.sgib.repository.AccountRepository;
+import com.sgib.repository.wal.WriteAheadLog;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically snapshots the ledger and drops the log segments the snapshot makes obsolete, so a
+ * restart only replays the changes made since the last snapshot.
+ */
+@Component
+@ConditionalOnExpression("${bank.wal.enabled:false} and ${bank.snapshot.interval-ms:300000} > 0")
+public class SnapshotScheduler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SnapshotScheduler.class);
+
+    private final AccountRepository accountRepository;
+    private final WriteAheadLog writeAheadLog;
+    private final LedgerSnapshots ledgerSnapshots;
+    private final ScheduledExecutorService executor;
+
+    public SnapshotScheduler(AccountRepository accountRepository, WriteAheadLog writeAheadLog, LedgerSnapshots ledgerSnapshots,
+                             @Value("${bank.snapshot.interval-ms:300000}") long intervalMs) {
+        this.accountRepository = accountRepository;
+        this.writeAheadLog = writeAheadLog;
+        this.ledgerSnapshots = ledgerSnapshots;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ledger-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::snapshotQuietly, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Starts a new log segment, snapshots every account, then deletes the segments before the new one.
+     */
+    public void snapshot() throws IOException {
+        long firstSegment = writeAheadLog.rollover();
+        ledgerSnapshots.write(accountRepository, firstSegment);
+        writeAheadLog.deleteSegmentsBefore(firstSegment);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (Exception e) {
+            LOGGER.error("Ledger snapshot failed", e);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.sgib.repository.wal;
+
+import com.sgib.domain.model.Account;
+import com.sgib.domain.model.AccountState;
+import com.sgib.domain.model.AccountTransactionType;
+import com.sgib.domain.model.TransferLink;
+import com.sgib.repository.AccountRepository;
+import com.sgib.repository.snapshot.LedgerSnapshots;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Rebuilds the accounts at startup, before the web server accepts requests: loads the latest
+ * snapshot, then replays the write-ahead log segments it does not cover. Records carry their
+ * sequence, so replaying a change the snapshot already holds leaves the same ledger.
+ * <p>
+ * An account only moves on to the sequence right after its current one. A record found ahead of it
+ * waits for the records in between, and is dropped if the log ends first: the account then recovers
+ * up to the gap, and its journal and state agree on where it stands.
+ * <p>
+ * A transfer is logged as its two legs followed by the links between them. Its legs are held back
+ * until the first link shows that both of them made it to disk: a leg whose counterpart is missing,
+ * because the crash cut the transfer in two, is dropped, so no money appears or disappears.
+ * <p>
+ * A transaction booked at another time than its date is logged right after a record of that date,
+ * which is kept until its commit comes.
+ */
+@Component
+@ConditionalOnProperty(name = "bank.wal.enabled", havingValue = "true")
+public class LedgerRecovery implements LogRecordHandler, InitializingBean {
+
+    private final AccountRepository accountRepository;
+    private final WriteAheadLog writeAheadLog;
+    private final LedgerSnapshots ledgerSnapshots;
+    private final List<LoggedTransaction> pendingLegs = new ArrayList<>();
+    private final Map<UUID, TreeMap<Long, LoggedTransaction>> aheadOfSequence = new HashMap<>();
+    private LoggedDate lastDate;
+
+    public LedgerRecovery(AccountRepository accountRepository, WriteAheadLog writeAheadLog, LedgerSnapshots ledgerSnapshots) {
+        this.accountRepository = accountRepository;
+        this.writeAheadLog = writeAheadLog;
+        this.ledgerSnapshots = ledgerSnapshots;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws IOException {
+        long firstSegment = ledgerSnapshots.loadLatest(accountRepository);
+        writeAheadLog.recover(this, firstSegment);
+    }
+
+    @Override
+    public void accountOpened(UUID accountId, long openingBalance) {
+        if (accountRepository.findOne(accountId).isEmpty())
+            accountRepository.save(Account.builder().id(accountId).balance(openingBalance).build());
+    }
+
+    @Override
+    public void transactionDated(UUID accountId, long sequence, long transactionMillis) {
+        lastDate = new LoggedDate(accountId, sequence, transactionMillis);
+    }
+
+    @Override
+    public void transactionCommitted(UUID accountId, long sequence, long epochMillis, long amount,
+                                     long balanceAfterTransaction, AccountTransactionType type) {
+        long transactionMillis = lastDate != null && lastDate.sequence() == sequence && lastDate.accountId().equals(accountId)
+                ? lastDate.transactionMillis() : epochMillis;
+        lastDate = null;
+        LoggedTransaction transaction = new LoggedTransaction(accountId, sequence, epochMillis, transactionMillis, amount,
+                balanceAfterTransaction, type);
+        if (type.isTransfer())
+            pendingLegs.add(transaction);
+        else
+            apply(transaction);
+    }
+
+    /**
+     * The first link of a transfer applies both legs, or drops the one that is there; the second one
+     * finds both legs applied already.
+     */
+    @Override
+    public void transferLinked(UUID accountId, long sequence, UUID counterpartyAccountId, long counterpartySequence) {
+        LoggedTransaction leg = removePending(accountId, sequence);
+        LoggedTransaction counterpartyLeg = removePending(counterpartyAccountId, counterpartySequence);
+        if (leg == null && counterpartyLeg == null) {
+            account(accountId).getJournal().link(sequence, new TransferLink(counterpartyAccountId, counterpartySequence));
+            return;
+        }
+        if (leg == null || counterpartyLeg == null)
+            return;
+        apply(leg);
+        apply(counterpartyLeg);
+        account(accountId).getJournal().link(sequence, new TransferLink(counterpartyAccountId, counterpartySequence));
+        account(counterpartyAccountId).getJournal().link(counterpartySequence, new TransferLink(accountId, sequence));
+    }
+
+    private void apply(LoggedTransaction transaction) {
+        Account account = account(transaction.accountId());
+        long next = account.getState().getSequence() + 1;
+        if (transaction.sequence() > next) {
+            aheadOfSequence.computeIfAbsent(transaction.accountId(), id -> new TreeMap<>()).put(transaction.sequence(), transaction);
+            return;
+        }
+        record(account, transaction);
+        if (transaction.sequence() < next)
+            return;
+        TreeMap<Long, LoggedTransaction> ahead = aheadOfSequence.get(transaction.accountId());
+        while (ahead != null && !ahead.isEmpty() && ahead.firstKey() == account.getState().getSequence() + 1)
+            record(account, ahead.pollFirstEntry().getValue());
+    }
+
+    // a replayed record the account already holds only finds its journal slot taken
+    private static void record(Account account, LoggedTransaction transaction) {
+        if (transaction.transactionMillis() != transaction.epochMillis())
+            account.getJournal().keepTransactionDate(transaction.sequence(), transaction.transactionMillis());
+        account.getJournal().record(transaction.sequence(), transaction.epochMillis(), transaction.amount(),
+                transaction.balanceAfterTransaction(), transaction.type());
+        if (transaction.sequence() > account.getState().getSequence())
+            account.setState(new AccountState(transaction.balanceAfterTransaction(), transaction.sequence(), transaction.epochMillis()));
+    }
+
+    private LoggedTransaction removePending(UUID accountId, long sequence) {
+        for (int i = 0; i < pendingLegs.size(); i++) {
+            LoggedTransaction leg = pendingLegs.get(i);
+            if (leg.sequence() == sequence && leg.accountId().equals(accountId))
+                return pendingLegs.remove(i);
+        }
+        return null;
+    }
+
+    private Account account(UUID accountId) {
+        return accountRepository.findOne(accountId)
+                .orElseThrow(() -> new IllegalStateException("Transaction logged for unknown account " + accountId));
+    }
+
+    // a transaction as read from the log; transfer legs wait in this form for their counterpart
+    private record LoggedTransaction(UUID accountId, long sequence, long epochMillis, long transactionMillis, long amount,
+                                     long balanceAfterTransaction, AccountTransactionType type) {
+    }
+
+    private record LoggedDate(UUID accountId, long sequence, long transactionMillis) {
+    }
+}
@@ -0,0 +1,23 @@
+package com.sgib.repository.wal;
+
+import com.sgib.domain.model.AccountTransactionType;
+
+import java.util.UUID;
+
+/**
+ * Receives the records of a {@link WriteAheadLog} during replay.
+ */
+public interface LogRecordHandler {
+
+    void accountOpened(UUID accountId, long openingBalance);
+
+    /**
+     * Comes right before the commit of a transaction booked at another time than its date.
+     */
+    void transactionDated(UUID accountId, long sequence, long transactionMillis);
+
+    void transactionCommitted(UUID accountId, long sequence, long epochMillis, long amount,
+                              long balanceAfterTransaction, AccountTransactionType type);
+
+    void transferLinked(UUID accountId, long sequence, UUID counterpartyAccountId, long counterpartySequence);
+}
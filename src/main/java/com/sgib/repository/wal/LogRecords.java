@@ -0,0 +1,86 @@
+package com.sgib.repository.wal;
+
+import com.sgib.domain.model.AccountTransactionType;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+import java.util.zip.CRC32C;
+
+/**
+ * Fixed-size binary layout of the log records:
+ * <pre>
+ * int  crc32c of the 52 following bytes
+ * byte kind, byte transaction type, 2 bytes padding
+ * long account id high, long account id low
+ * long sequence, long epoch millis, long amount, long balance after transaction
+ * </pre>
+ * The epoch millis of a committed transaction are its booking time. A transaction booked at another
+ * time than its own date is preceded by a dated record, which holds that date in the epoch millis.
+ * A transfer link record reuses the last three longs for the counterparty account id and the
+ * sequence of the counterparty leg.
+ */
+final class LogRecords {
+
+    static final int RECORD_BYTES = 56;
+    static final byte ACCOUNT_OPENED = 1;
+    static final byte TRANSACTION_COMMITTED = 2;
+    static final byte TRANSFER_LINKED = 3;
+    static final byte TRANSACTION_DATED = 4;
+
+    private static final AccountTransactionType[] TYPES = AccountTransactionType.values();
+
+    private LogRecords() {
+    }
+
+    static void write(ByteBuffer buffer, byte kind, UUID accountId, long sequence, long epochMillis,
+                      long amount, long balanceAfterTransaction, AccountTransactionType type) {
+        int start = buffer.position();
+        buffer.putInt(0)
+                .put(kind)
+                .put(type == null ? 0 : (byte) (type.ordinal() + 1))
+                .putShort((short) 0)
+                .putLong(accountId.getMostSignificantBits())
+                .putLong(accountId.getLeastSignificantBits())
+                .putLong(sequence)
+                .putLong(epochMillis)
+                .putLong(amount)
+                .putLong(balanceAfterTransaction);
+        buffer.putInt(start, checksum(buffer, start));
+    }
+
+    /**
+     * Reads the record at the position of the buffer and moves past it.
+     *
+     * @return false, without moving, if the bytes do not hold a valid record
+     */
+    static boolean read(ByteBuffer buffer, LogRecordHandler handler) {
+        int start = buffer.position();
+        if (buffer.remaining() < RECORD_BYTES || buffer.getInt(start) != checksum(buffer, start))
+            return false;
+        byte kind = buffer.get(start + 4);
+        byte type = buffer.get(start + 5);
+        UUID accountId = new UUID(buffer.getLong(start + 8), buffer.getLong(start + 16));
+        long sequence = buffer.getLong(start + 24);
+        long epochMillis = buffer.getLong(start + 32);
+        long amount = buffer.getLong(start + 40);
+        long balanceAfterTransaction = buffer.getLong(start + 48);
+        if (kind == ACCOUNT_OPENED)
+            handler.accountOpened(accountId, balanceAfterTransaction);
+        else if (kind == TRANSACTION_COMMITTED && type > 0 && type <= TYPES.length)
+            handler.transactionCommitted(accountId, sequence, epochMillis, amount, balanceAfterTransaction, TYPES[type - 1]);
+        else if (kind == TRANSFER_LINKED)
+            handler.transferLinked(accountId, sequence, new UUID(epochMillis, amount), balanceAfterTransaction);
+        else if (kind == TRANSACTION_DATED)
+            handler.transactionDated(accountId, sequence, epochMillis);
+        else
+            return false;
+        buffer.position(start + RECORD_BYTES);
+        return true;
+    }
+
+    private static int checksum(ByteBuffer buffer, int start) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(start + Integer.BYTES, RECORD_BYTES - Integer.BYTES));
+        return (int) crc.getValue();
+    }
+}
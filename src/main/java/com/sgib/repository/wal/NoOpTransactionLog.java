@@ -0,0 +1,32 @@
+package com.sgib.repository.wal;
+
+import com.sgib.domain.model.AccountTransaction;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Transaction log used when the ledger is kept in memory only.
+ */
+@Component
+@ConditionalOnProperty(name = "bank.wal.enabled", havingValue = "false", matchIfMissing = true)
+public class NoOpTransactionLog implements TransactionLog {
+
+    @Override
+    public void accountOpened(UUID accountId, long openingBalance) {
+    }
+
+    @Override
+    public void transactionCommitted(UUID accountId, long sequence, AccountTransaction accountTransaction) {
+    }
+
+    @Override
+    public void transferCommitted(UUID sourceAccountId, long sourceSequence, AccountTransaction debit,
+                                  UUID targetAccountId, long targetSequence, AccountTransaction credit) {
+    }
+
+    @Override
+    public void sync() {
+    }
+}
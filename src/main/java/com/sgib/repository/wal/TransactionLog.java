@@ -0,0 +1,28 @@
+package com.sgib.repository.wal;
+
+import com.sgib.domain.model.AccountTransaction;
+
+import java.util.UUID;
+
+/**
+ * Durable record of every change made to the ledger.
+ * <p>
+ * Appends are cheap and never wait for the disk; {@link #sync()} blocks until everything appended
+ * so far, by any thread, is durable. Transactions of one account must be appended in sequence
+ * order, so the transaction engines append while they still own the commit.
+ */
+public interface TransactionLog {
+
+    void accountOpened(UUID accountId, long openingBalance);
+
+    void transactionCommitted(UUID accountId, long sequence, AccountTransaction accountTransaction);
+
+    /**
+     * Appends both legs of a transfer and the links between them as one unit, which is made durable
+     * by the same sync: a crash never keeps one leg without the other.
+     */
+    void transferCommitted(UUID sourceAccountId, long sourceSequence, AccountTransaction debit,
+                           UUID targetAccountId, long targetSequence, AccountTransaction credit);
+
+    void sync();
+}
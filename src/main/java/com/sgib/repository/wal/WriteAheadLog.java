@@ -0,0 +1,398 @@
+package com.sgib.repository.wal;
+
+import com.sgib.domain.model.AccountJournal;
+import com.sgib.domain.model.AccountTransaction;
+import com.sgib.domain.model.AccountTransactionType;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Append-only transaction log stored in numbered segment files, with group commit.
+ * <p>
+ * Appenders copy their record into an in-memory batch under a short lock. The records of a transfer
+ * are copied under the same lock, so they always land in the same batch. A single flusher thread
+ * hands the batch over to the file and forces it to disk, then completes the batch future every
+ * {@link #sync()} caller is waiting on: one fsync covers every request that arrived in the meantime.
+ * A batch is flushed once it holds {@code bank.wal.fsync-batch-records} records, or
+ * {@code bank.wal.fsync-interval-ms} after its first record, whichever comes first.
+ * <p>
+ * {@link #recover(LogRecordHandler, long)} must run once, before the first append: it replays the
+ * segments not covered by a snapshot and cuts off a torn record at the tail of the last one.
+ * {@link #rollover()} starts a new segment at a precise point of the record stream, so a snapshot
+ * knows which segments it makes obsolete.
+ * <p>
+ * A failed write or fsync is final: the segment may end with a partial record, so nothing is written
+ * after it, the batches waiting on the flusher fail, and every later append, sync or rollover throws
+ * the same error. The log has to be recovered from disk by a restart, which cuts the torn tail off.
+ */
+@Component
+@ConditionalOnProperty(name = "bank.wal.enabled", havingValue = "true")
+public class WriteAheadLog implements TransactionLog {
+
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int READ_BUFFER_RECORDS = 4096;
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final long fsyncIntervalNanos;
+    private final int fsyncBatchRecords;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition flushNeeded = lock.newCondition();
+    private ByteBuffer pending;
+    private ByteBuffer spare;
+    private Batch batch = new Batch();
+    private Batch flushing;
+    private boolean recovered;
+    private boolean closed;
+    private IOException failure;
+
+    private FileChannel segment;
+    private long segmentIndex;
+    private Thread flusher;
+
+    public WriteAheadLog(@Value("${bank.wal.directory:data/wal}") Path directory,
+                         @Value("${bank.wal.segment-size-mb:64}") int segmentSizeMb,
+                         @Value("${bank.wal.fsync-interval-ms:2}") long fsyncIntervalMs,
+                         @Value("${bank.wal.fsync-batch-records:256}") int fsyncBatchRecords) {
+        this.directory = directory;
+        this.segmentBytes = (long) segmentSizeMb << 20;
+        this.fsyncIntervalNanos = TimeUnit.MILLISECONDS.toNanos(fsyncIntervalMs);
+        this.fsyncBatchRecords = Math.max(1, fsyncBatchRecords);
+        int bufferBytes = Math.max(this.fsyncBatchRecords, READ_BUFFER_RECORDS) * LogRecords.RECORD_BYTES;
+        this.pending = ByteBuffer.allocateDirect(bufferBytes);
+        this.spare = ByteBuffer.allocateDirect(bufferBytes);
+    }
+
+    /**
+     * Replays every record of the segments numbered from {@code fromSegment} on, then opens the log
+     * for appends.
+     */
+    public void recover(LogRecordHandler handler, long fromSegment) {
+        lock.lock();
+        try {
+            if (recovered)
+                throw new IllegalStateException("Write-ahead log is already recovered");
+            Files.createDirectories(directory);
+            List<Path> segments = segments().stream().filter(path -> indexOf(path) >= fromSegment).toList();
+            ByteBuffer buffer = ByteBuffer.allocateDirect(READ_BUFFER_RECORDS * LogRecords.RECORD_BYTES);
+            for (int i = 0; i < segments.size(); i++)
+                replay(segments.get(i), buffer, handler, i == segments.size() - 1);
+            segmentIndex = segments.isEmpty() ? Math.max(1, fromSegment) : indexOf(segments.get(segments.size() - 1));
+            segment = openSegment(segmentIndex);
+            recovered = true;
+            flusher = new Thread(this::flushLoop, "wal-flusher");
+            flusher.setDaemon(true);
+            flusher.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void accountOpened(UUID accountId, long openingBalance) {
+        append(LogRecords.ACCOUNT_OPENED, accountId, 0, System.currentTimeMillis(), 0, openingBalance, null);
+    }
+
+    @Override
+    public void transactionCommitted(UUID accountId, long sequence, AccountTransaction accountTransaction) {
+        lock.lock();
+        try {
+            checkOpen();
+            putTransaction(accountId, sequence, accountTransaction);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void transferCommitted(UUID sourceAccountId, long sourceSequence, AccountTransaction debit,
+                                  UUID targetAccountId, long targetSequence, AccountTransaction credit) {
+        lock.lock();
+        try {
+            checkOpen();
+            putTransaction(sourceAccountId, sourceSequence, debit);
+            putTransaction(targetAccountId, targetSequence, credit);
+            put(LogRecords.TRANSFER_LINKED, sourceAccountId, sourceSequence, targetAccountId.getMostSignificantBits(),
+                    targetAccountId.getLeastSignificantBits(), targetSequence, null);
+            put(LogRecords.TRANSFER_LINKED, targetAccountId, targetSequence, sourceAccountId.getMostSignificantBits(),
+                    sourceAccountId.getLeastSignificantBits(), sourceSequence, null);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void sync() {
+        Batch awaited;
+        lock.lock();
+        try {
+            checkNotFailed();
+            awaited = batch.records > 0 ? batch : flushing;
+            if (awaited == null)
+                return;
+        } finally {
+            lock.unlock();
+        }
+        awaited.durable.join();
+    }
+
+    /**
+     * Closes the current segment after the records appended so far and starts a new one.
+     *
+     * @return the number of the new segment, which holds every record appended after this call
+     */
+    public long rollover() {
+        CompletableFuture<Long> rolledOver;
+        lock.lock();
+        try {
+            if (!recovered || closed)
+                throw new IllegalStateException("Write-ahead log is not open");
+            checkNotFailed();
+            if (batch.rolledOver == null) {
+                batch.rolloverAt = pending.position();
+                batch.rolledOver = new CompletableFuture<>();
+                flushNeeded.signal();
+            }
+            rolledOver = batch.rolledOver;
+        } finally {
+            lock.unlock();
+        }
+        return rolledOver.join();
+    }
+
+    /**
+     * Deletes the segments numbered below the given one, once a snapshot covers them.
+     */
+    public void deleteSegmentsBefore(long firstKept) throws IOException {
+        for (Path path : segments())
+            if (indexOf(path) < firstKept)
+                Files.deleteIfExists(path);
+    }
+
+    private void append(byte kind, UUID accountId, long sequence, long epochMillis, long amount,
+                        long balanceAfterTransaction, AccountTransactionType type) {
+        lock.lock();
+        try {
+            checkOpen();
+            put(kind, accountId, sequence, epochMillis, amount, balanceAfterTransaction, type);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // called with the lock held; the dated record and the commit land in the same batch
+    private void putTransaction(UUID accountId, long sequence, AccountTransaction accountTransaction) {
+        long bookingMillis = AccountJournal.bookingMillis(accountTransaction);
+        long transactionMillis = AccountJournal.toEpochMillis(accountTransaction.getDate());
+        if (transactionMillis != bookingMillis)
+            put(LogRecords.TRANSACTION_DATED, accountId, sequence, transactionMillis, 0, 0, null);
+        put(LogRecords.TRANSACTION_COMMITTED, accountId, sequence, bookingMillis,
+                accountTransaction.getAmount(), accountTransaction.getBalanceAfterTransaction(), accountTransaction.getType());
+    }
+
+    // called with the lock held
+    private void put(byte kind, UUID accountId, long sequence, long epochMillis, long amount,
+                     long balanceAfterTransaction, AccountTransactionType type) {
+        if (pending.remaining() < LogRecords.RECORD_BYTES)
+            pending = grow(pending);
+        LogRecords.write(pending, kind, accountId, sequence, epochMillis, amount, balanceAfterTransaction, type);
+        if (++batch.records == 1 || batch.records >= fsyncBatchRecords)
+            flushNeeded.signal();
+    }
+
+    private void checkOpen() {
+        if (!recovered || closed)
+            throw new IllegalStateException("Write-ahead log is not open");
+        checkNotFailed();
+    }
+
+    private void flushLoop() {
+        while (true) {
+            Batch flushed;
+            ByteBuffer data;
+            lock.lock();
+            try {
+                while (batch.records == 0 && batch.rolledOver == null && !closed)
+                    flushNeeded.awaitUninterruptibly();
+                if (batch.records == 0 && batch.rolledOver == null)
+                    return;
+                long deadline = System.nanoTime() + fsyncIntervalNanos;
+                long remaining;
+                while (batch.records < fsyncBatchRecords && batch.rolledOver == null && !closed
+                        && (remaining = deadline - System.nanoTime()) > 0)
+                    flushNeeded.awaitNanos(remaining);
+                flushed = batch;
+                data = pending;
+                pending = spare.clear();
+                spare = null;
+                batch = new Batch();
+                flushing = flushed;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                lock.unlock();
+            }
+            try {
+                data.flip();
+                if (flushed.rolledOver != null) {
+                    write(data.slice(0, flushed.rolloverAt));
+                    startSegment(segmentIndex + 1);
+                    flushed.rolledOver.complete(segmentIndex);
+                    data.position(flushed.rolloverAt);
+                }
+                write(data);
+                flushed.durable.complete(null);
+            } catch (IOException e) {
+                fail(flushed, e);
+                return;
+            }
+            lock.lock();
+            try {
+                spare = data;
+                if (flushing == flushed)
+                    flushing = null;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // the flusher stops here: writing after a partial record would leave it in the middle of the segment
+    private void fail(Batch flushed, IOException e) {
+        Batch waiting;
+        lock.lock();
+        try {
+            failure = e;
+            flushing = null;
+            waiting = batch;
+        } finally {
+            lock.unlock();
+        }
+        for (Batch failed : List.of(flushed, waiting)) {
+            failed.durable.completeExceptionally(new UncheckedIOException(e));
+            if (failed.rolledOver != null)
+                failed.rolledOver.completeExceptionally(new UncheckedIOException(e));
+        }
+    }
+
+    private void checkNotFailed() {
+        if (failure != null)
+            throw new UncheckedIOException("Write-ahead log failed, restart to recover it", failure);
+    }
+
+    private void write(ByteBuffer data) throws IOException {
+        while (data.hasRemaining()) {
+            long room = (segmentBytes - segment.position()) / LogRecords.RECORD_BYTES * LogRecords.RECORD_BYTES;
+            if (room <= 0) {
+                startSegment(segmentIndex + 1);
+                continue;
+            }
+            ByteBuffer chunk = data.slice(data.position(), (int) Math.min(room, data.remaining()));
+            while (chunk.hasRemaining())
+                segment.write(chunk);
+            data.position(data.position() + chunk.capacity());
+        }
+        segment.force(false);
+    }
+
+    private void startSegment(long index) throws IOException {
+        segment.force(false);
+        segment.close();
+        segment = openSegment(index);
+        segmentIndex = index;
+    }
+
+    @PreDestroy
+    public void close() throws IOException, InterruptedException {
+        Thread running;
+        lock.lock();
+        try {
+            closed = true;
+            flushNeeded.signal();
+            running = flusher;
+        } finally {
+            lock.unlock();
+        }
+        if (running != null) {
+            running.join();
+            segment.close();
+        }
+    }
+
+    private void replay(Path path, ByteBuffer buffer, LogRecordHandler handler, boolean last) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long position = 0;
+            buffer.clear();
+            while (true) {
+                int read = channel.read(buffer);
+                buffer.flip();
+                while (LogRecords.read(buffer, handler))
+                    position += LogRecords.RECORD_BYTES;
+                boolean invalid = buffer.remaining() >= LogRecords.RECORD_BYTES;
+                buffer.compact();
+                if (invalid || read < 0)
+                    break;
+            }
+            if (position < channel.size()) {
+                if (!last)
+                    throw new IllegalStateException("Corrupted write-ahead log segment " + path + " at offset " + position);
+                channel.truncate(position);
+            }
+        }
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().startsWith(SEGMENT_PREFIX)
+                            && path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    FileChannel openSegment(long index) throws IOException {
+        FileChannel channel = FileChannel.open(directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX)),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+        return channel;
+    }
+
+    private static long indexOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static ByteBuffer grow(ByteBuffer buffer) {
+        ByteBuffer grown = ByteBuffer.allocateDirect(buffer.capacity() * 2);
+        return grown.put(buffer.flip());
+    }
+
+    private static final class Batch {
+        private final CompletableFuture<Void> durable = new CompletableFuture<>();
+        private int records;
+        private int rolloverAt;
+        private CompletableFuture<Long> rolledOver;
+    }
+}
@@ -0,0 +1,61 @@
+package com.sgib.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.sgib.domain.dto.AccountDTO;
+import com.sgib.domain.model.Account;
+import com.sgib.domain.model.AccountState;
+import com.sgib.domain.model.Money;
+import com.sgib.domain.model.RenderedAccount;
+import com.sgib.exception.AccountNotFoundException;
+import com.sgib.repository.AccountRepository;
+import org.springframework.stereotype.Service;
+
+import java.io.UncheckedIOException;
+import java.util.UUID;
+
+import static com.sgib.exception.Messages.ACCOUNT_NOT_FOUND;
+
+/**
+ * Serves accounts as ready-to-send JSON. Every commit publishes a new immutable {@link AccountState},
+ * whose sequence doubles as the version of the account: the JSON is rendered once per version and
+ * kept on the account, so polling an account that did not change costs a lookup and a reference
+ * comparison, without locking, allocating or serializing anything.
+ */
+@Service
+public class AccountReadCache {
+
+    private AccountRepository accountRepository;
+    private ObjectWriter accountWriter;
+
+    public AccountReadCache(AccountRepository accountRepository, ObjectMapper objectMapper) {
+        this.accountRepository = accountRepository;
+        this.accountWriter = objectMapper.writerFor(AccountDTO.class);
+    }
+
+    public RenderedAccount getAccount(UUID accountId) {
+        Account account = accountRepository.findOne(accountId)
+                .orElseThrow(() -> new AccountNotFoundException(String.format(ACCOUNT_NOT_FOUND, accountId)));
+        AccountState state = account.getState();
+        RenderedAccount rendered = account.getRendered();
+        if (rendered != null && rendered.isRenderingOf(state))
+            return rendered;
+        rendered = render(accountId, state);
+        // a slower reader may overwrite a newer rendering; the next read simply renders again
+        account.setRendered(rendered);
+        return rendered;
+    }
+
+    private RenderedAccount render(UUID accountId, AccountState state) {
+        AccountDTO accountDTO = AccountDTO.builder()
+                .id(accountId)
+                .balance(Money.toBigDecimal(state.getBalance()))
+                .build();
+        try {
+            return new RenderedAccount(state, accountWriter.writeValueAsBytes(accountDTO), "\"" + state.getSequence() + "\"");
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -1,77 +1,510 @@
 package com.sgib.service;
 
 import com.sgib.domain.dto.AccountDTO;
+import com.sgib.domain.dto.AccountSummaryDTO;
+import com.sgib.domain.dto.AccountTransactionPage;
+import com.sgib.domain.dto.BatchTransactionDTO;
+import com.sgib.domain.dto.DailySummaryDTO;
+import com.sgib.domain.dto.StatementDTO;
+import com.sgib.domain.dto.TransactionResultDTO;
+import com.sgib.domain.dto.TransferDTO;
+import com.sgib.domain.dto.TransferResultDTO;
 import com.sgib.domain.dto.AccountTransactionDTO;
 import com.sgib.domain.mapper.AccountConverter;
 import com.sgib.domain.mapper.AccountTransactionConverter;
+import com.sgib.domain.mapper.DailyAggregateConverter;
 import com.sgib.domain.model.Account;
+import com.sgib.domain.model.AccountJournal;
 import com.sgib.domain.model.AccountTransaction;
+import com.sgib.domain.model.AccountTransactionType;
+import com.sgib.domain.model.DailyAggregate;
+import com.sgib.domain.model.JournalCursor;
+import com.sgib.domain.model.Money;
+import com.sgib.domain.model.Rejection;
+import com.sgib.exception.AccountBusyException;
 import com.sgib.exception.AccountNotFoundException;
-import com.sgib.exception.InsufficientFundsException;
+import com.sgib.exception.BatchTooLargeException;
+import com.sgib.exception.InvalidAccountCountException;
 import com.sgib.exception.InvalidAmountException;
+import com.sgib.exception.InvalidTransactionException;
 import com.sgib.repository.AccountRepository;
-import org.springframework.beans.factory.annotation.Autowired;
+import com.sgib.repository.wal.TransactionLog;
+import com.sgib.service.concurrency.AccountAdmission;
+import com.sgib.service.concurrency.TransactionEngine;
+import com.sgib.service.id.AccountIdGenerator;
+import com.sgib.service.metrics.LedgerMetrics;
+import com.sgib.service.notification.TransactionNotifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
-import static com.sgib.domain.model.AccountTransactionType.DEPOSIT;
-import static com.sgib.domain.model.AccountTransactionType.WITHDRAWAL;
 import static com.sgib.exception.Messages.*;
 
 @Service
 public class AccountService {
 
     private AccountRepository accountRepository;
+    private TransactionEngine transactionEngine;
+    private TransactionLog transactionLog;
+    private LedgerMetrics ledgerMetrics;
+    private AccountAdmission accountAdmission;
+    private TransactionNotifier transactionNotifier;
+    private AccountIdGenerator accountIdGenerator;
+    private int maxPageSize = 1000;
+    private int maxBatchSize = 10000;
+    private int maxAccountBatchSize = 100000;
 
-    public AccountService(AccountRepository accountRepository) {
+    public AccountService(AccountRepository accountRepository, TransactionEngine transactionEngine, TransactionLog transactionLog,
+                          LedgerMetrics ledgerMetrics, AccountAdmission accountAdmission, TransactionNotifier transactionNotifier,
+                          AccountIdGenerator accountIdGenerator) {
         this.accountRepository = accountRepository;
+        this.transactionEngine = transactionEngine;
+        this.transactionLog = transactionLog;
+        this.ledgerMetrics = ledgerMetrics;
+        this.accountAdmission = accountAdmission;
+        this.transactionNotifier = transactionNotifier;
+        this.accountIdGenerator = accountIdGenerator;
+    }
+
+    @Value("${bank.transactions.max-page-size:1000}")
+    public void setMaxPageSize(int maxPageSize) {
+        this.maxPageSize = maxPageSize;
+    }
+
+    @Value("${bank.transactions.max-batch-size:10000}")
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    @Value("${bank.accounts.max-batch-size:100000}")
+    public void setMaxAccountBatchSize(int maxAccountBatchSize) {
+        this.maxAccountBatchSize = maxAccountBatchSize;
     }
 
     public AccountDTO createAccount() {
         Account account = Account.builder()
-                .id(UUID.randomUUID())
-                .balance(BigDecimal.ZERO)
-                .accountTransactions(new ArrayList<>())
+                .id(accountIdGenerator.nextId())
+                .balance(0)
                 .build();
         Account accountCreated = accountRepository.save(account);
+        transactionLog.accountOpened(accountCreated.getId(), accountCreated.getBalance());
+        transactionLog.sync();
         return AccountConverter.toDto(accountCreated);
     }
 
+    /**
+     * Opens {@code count} accounts with one insert into the repository and one sync of the transaction log.
+     */
+    public List<AccountDTO> createAccounts(int count) {
+        if (count < 1)
+            throw new InvalidAccountCountException(String.format(ACCOUNT_BATCH_SIZE_OUT_OF_RANGE, maxAccountBatchSize));
+        if (count > maxAccountBatchSize)
+            throw new BatchTooLargeException(String.format(ACCOUNT_BATCH_SIZE_OUT_OF_RANGE, maxAccountBatchSize));
+        List<Account> accounts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+            accounts.add(Account.builder()
+                    .id(accountIdGenerator.nextId())
+                    .balance(0)
+                    .build());
+        List<Account> accountsCreated = accountRepository.saveAll(accounts);
+        List<AccountDTO> accountDTOs = new ArrayList<>(count);
+        for (Account accountCreated : accountsCreated) {
+            transactionLog.accountOpened(accountCreated.getId(), accountCreated.getBalance());
+            accountDTOs.add(AccountConverter.toDto(accountCreated));
+        }
+        transactionLog.sync();
+        return accountDTOs;
+    }
+
     public AccountTransactionDTO processTransaction(UUID accountId, AccountTransactionDTO accountTransactionDTO) {
-        Account account = accountRepository.findOne(accountId)
-                .orElseThrow(() -> new AccountNotFoundException(String.format(ACCOUNT_NOT_FOUND, accountId)));
-        AccountTransaction accountTransaction = AccountTransactionConverter.toEntity(accountTransactionDTO);
-        validateTransaction(account, accountTransaction);
-        if (DEPOSIT.equals(accountTransaction.getType()))
-            account.setBalance(account.getBalance().add(accountTransaction.getAmount()));
-        else
-            account.setBalance(account.getBalance().subtract(accountTransaction.getAmount()));
-        accountTransaction.setBalanceAfterTransaction(account.getBalance());
-        account.getAccountTransactions().add(accountTransaction);
-        return AccountTransactionConverter.toDto(accountTransaction);
+        TransactionOutcome transactionOutcome = tryProcessTransaction(accountId, accountTransactionDTO);
+        if (!transactionOutcome.isCommitted())
+            throw transactionOutcome.getRejection().toException();
+        return transactionOutcome.getTransaction();
+    }
+
+    /**
+     * Like {@link #processTransaction}, but a transaction the account turns down, for lack of funds for
+     * instance, comes back as a rejected outcome instead of an exception. Malformed requests and unknown
+     * or busy accounts still throw.
+     */
+    public TransactionOutcome tryProcessTransaction(UUID accountId, AccountTransactionDTO accountTransactionDTO) {
+        long startNanos = System.nanoTime();
+        try {
+            Account account = findAccount(accountId);
+            AccountTransaction accountTransaction = toBookableTransaction(accountTransactionDTO);
+            Rejection rejection;
+            accountAdmission.enter(account);
+            try {
+                rejection = transactionEngine.tryExecute(account, accountTransaction);
+            } finally {
+                accountAdmission.exit(account);
+            }
+            if (rejection != null) {
+                ledgerMetrics.transactionRejected(rejection);
+                return TransactionOutcome.rejected(rejection);
+            }
+            transactionLog.sync();
+            ledgerMetrics.transactionCommitted(accountTransaction.getType(), System.nanoTime() - startNanos);
+            AccountTransactionDTO accountTransactionDtoProcessed = AccountTransactionConverter.toDto(accountTransaction);
+            transactionNotifier.transactionCommitted(accountId, accountTransactionDtoProcessed);
+            return TransactionOutcome.committed(accountTransactionDtoProcessed);
+        } catch (AccountNotFoundException | AccountBusyException | IllegalArgumentException | NullPointerException e) {
+            ledgerMetrics.transactionRejected(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Commits a batch of transactions on one account with one lookup, one lock acquisition and one sync
+     * of the transaction log. Each transaction gets its own result, in request order; a rejected one
+     * does not stop the others.
+     */
+    public List<TransactionResultDTO> processTransactions(UUID accountId, List<AccountTransactionDTO> accountTransactionDTOs) {
+        checkBatchSize(accountTransactionDTOs.size());
+        Account account = findAccount(accountId);
+        int[] positions = new int[accountTransactionDTOs.size()];
+        for (int i = 0; i < positions.length; i++)
+            positions[i] = i;
+        TransactionResultDTO[] results = new TransactionResultDTO[positions.length];
+        commitGroup(account, accountTransactionDTOs, positions, results);
+        transactionLog.sync();
+        notifyCommitted(results);
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Commits a batch of transactions spanning several accounts. Transactions are grouped by account,
+     * keeping their relative order, and each group is committed like a single account batch. The
+     * transaction log is synced once for the whole batch.
+     */
+    public List<TransactionResultDTO> processTransactions(List<BatchTransactionDTO> batchTransactionDTOs) {
+        checkBatchSize(batchTransactionDTOs.size());
+        Map<UUID, List<Integer>> positionsByAccount = new LinkedHashMap<>();
+        for (int i = 0; i < batchTransactionDTOs.size(); i++)
+            positionsByAccount.computeIfAbsent(batchTransactionDTOs.get(i).getAccountId(), accountId -> new ArrayList<>()).add(i);
+        TransactionResultDTO[] results = new TransactionResultDTO[batchTransactionDTOs.size()];
+        positionsByAccount.forEach((accountId, group) -> {
+            Optional<Account> account = accountId == null ? Optional.empty() : accountRepository.findOne(accountId);
+            if (account.isEmpty()) {
+                AccountNotFoundException accountNotFound = new AccountNotFoundException(String.format(ACCOUNT_NOT_FOUND, accountId));
+                for (int position : group) {
+                    results[position] = rejected(accountId, accountNotFound.getMessage());
+                    ledgerMetrics.transactionRejected(accountNotFound);
+                }
+                return;
+            }
+            int[] positions = new int[group.size()];
+            List<AccountTransactionDTO> accountTransactionDTOs = new ArrayList<>(group.size());
+            for (int i = 0; i < positions.length; i++) {
+                positions[i] = group.get(i);
+                BatchTransactionDTO batchTransactionDTO = batchTransactionDTOs.get(positions[i]);
+                accountTransactionDTOs.add(AccountTransactionDTO.builder()
+                        .transactionDate(batchTransactionDTO.getTransactionDate())
+                        .amount(batchTransactionDTO.getAmount())
+                        .type(batchTransactionDTO.getType())
+                        .build());
+            }
+            commitGroup(account.get(), accountTransactionDTOs, positions, results);
+        });
+        transactionLog.sync();
+        notifyCommitted(results);
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Moves money between two accounts: a {@code TRANSFER_OUT} on the source and a {@code TRANSFER_IN} on
+     * the target, committed by the transaction engine and linked to each other in both journals.
+     */
+    public TransferResultDTO transfer(TransferDTO transferDTO) {
+        long startNanos = System.nanoTime();
+        try {
+            if (Objects.equals(transferDTO.getSourceAccountId(), transferDTO.getTargetAccountId()))
+                throw new InvalidTransactionException(TRANSFER_TO_SAME_ACCOUNT);
+            Account source = findAccount(transferDTO.getSourceAccountId());
+            Account target = findAccount(transferDTO.getTargetAccountId());
+            long amount = transferDTO.getAmount() == null ? 0 : Money.toMinorUnits(transferDTO.getAmount());
+            LocalDateTime now = now();
+            AccountTransaction debit = dated(new AccountTransaction(transferDTO.getTransactionDate(), amount, 0, AccountTransactionType.TRANSFER_OUT), now);
+            AccountTransaction credit = dated(new AccountTransaction(transferDTO.getTransactionDate(), amount, 0, AccountTransactionType.TRANSFER_IN), now);
+            accountAdmission.enter(source);
+            try {
+                accountAdmission.enter(target);
+                try {
+                    transactionEngine.transfer(source, target, debit, credit);
+                } finally {
+                    accountAdmission.exit(target);
+                }
+            } finally {
+                accountAdmission.exit(source);
+            }
+            transactionLog.sync();
+            ledgerMetrics.transactionCommitted(AccountTransactionType.TRANSFER_OUT, System.nanoTime() - startNanos);
+            AccountTransactionDTO debitDTO = AccountTransactionConverter.toDto(debit);
+            debitDTO.setCounterpartyAccountId(target.getId());
+            AccountTransactionDTO creditDTO = AccountTransactionConverter.toDto(credit);
+            creditDTO.setCounterpartyAccountId(source.getId());
+            transactionNotifier.transactionCommitted(source.getId(), debitDTO);
+            transactionNotifier.transactionCommitted(target.getId(), creditDTO);
+            return TransferResultDTO.builder()
+                    .sourceAccountId(source.getId())
+                    .targetAccountId(target.getId())
+                    .debit(debitDTO)
+                    .credit(creditDTO)
+                    .build();
+        } catch (AccountNotFoundException | AccountBusyException | IllegalArgumentException | NullPointerException e) {
+            ledgerMetrics.transactionRejected(e);
+            throw e;
+        }
     }
 
     public AccountDTO getAccount(UUID accountId) {
-        Account account = accountRepository.findOne(accountId)
-                .orElseThrow(() -> new AccountNotFoundException(String.format(ACCOUNT_NOT_FOUND, accountId)));
+        Account account = findAccount(accountId);
         return AccountConverter.toDto(account);
     }
 
     public List<AccountTransactionDTO> getTransactionsByAccountId(UUID accountId) {
-        Account account = accountRepository.findOne(accountId)
-                .orElseThrow(() -> new AccountNotFoundException(String.format(ACCOUNT_NOT_FOUND, accountId)));
-        return account.getAccountTransactions().stream().map(AccountTransactionConverter::toDto).toList();
+        Account account = findAccount(accountId);
+        JournalCursor journalCursor = account.getJournal().cursor();
+        List<AccountTransactionDTO> accountTransactions = new ArrayList<>((int) account.getJournal().size());
+        while (journalCursor.next())
+            accountTransactions.add(AccountTransactionConverter.toDto(journalCursor));
+        return accountTransactions;
     }
 
-    private void validateTransaction(Account account, AccountTransaction accountTransaction) {
-        if (accountTransaction.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
-            throw new InvalidAmountException(AMOUNT_MUST_BE_GREATER_THAN_ZERO);
+    /**
+     * Returns up to {@code limit} transactions booked in {@code [from, to)}, after the transaction whose
+     * sequence is {@code cursor}. Sequences start at 1 and have no gaps, so the cursor is also the
+     * number of transactions to skip.
+     */
+    public AccountTransactionPage getTransactionPage(UUID accountId, long cursor, Integer limit, LocalDateTime from, LocalDateTime to) {
+        AccountJournal journal = findAccount(accountId).getJournal();
+        int pageSize = limit == null ? maxPageSize : Math.max(1, Math.min(limit, maxPageSize));
+        long end = to == null ? journal.size() : journal.indexAt(AccountJournal.toEpochMillis(to));
+        long start = Math.max(cursor, from == null ? 0 : journal.indexAt(AccountJournal.toEpochMillis(from)));
+        JournalCursor journalCursor = journal.cursor(start, Math.min(end, start + pageSize));
+        List<AccountTransactionDTO> accountTransactions = new ArrayList<>();
+        while (journalCursor.next())
+            accountTransactions.add(AccountTransactionConverter.toDto(journalCursor));
+        long scanned = start + accountTransactions.size();
+        return new AccountTransactionPage(accountTransactions, scanned < end ? scanned : null);
+    }
+
+    /**
+     * Returns a lazy stream over the transactions booked in {@code [from, to)}: entries are mapped one at
+     * a time while the stream is consumed, so memory use does not depend on the length of the history.
+     */
+    public Stream<AccountTransactionDTO> streamTransactions(UUID accountId, LocalDateTime from, LocalDateTime to) {
+        JournalCursor journalCursor = findAccount(accountId).getJournal().cursorBetween(fromMillis(from), toMillis(to));
+        return StreamSupport.stream(new Spliterators.AbstractSpliterator<AccountTransactionDTO>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super AccountTransactionDTO> action) {
+                if (!journalCursor.next())
+                    return false;
+                action.accept(AccountTransactionConverter.toDto(journalCursor));
+                return true;
+            }
+        }, false);
+    }
+
+    /**
+     * Returns the transactions booked in {@code [from, to)} with the balance before and after them.
+     * Both bounds are found by binary search over the journal.
+     */
+    public StatementDTO getStatement(UUID accountId, LocalDateTime from, LocalDateTime to) {
+        Account account = findAccount(accountId);
+        AccountJournal journal = account.getJournal();
+        long end = journal.indexAt(toMillis(to));
+        long start = Math.min(journal.indexAt(fromMillis(from)), end);
+        JournalCursor journalCursor = journal.cursor(start, end);
+        List<AccountTransactionDTO> accountTransactions = new ArrayList<>();
+        while (journalCursor.next())
+            accountTransactions.add(AccountTransactionConverter.toDto(journalCursor));
+        long balance = account.getBalance();
+        return StatementDTO.builder()
+                .accountId(accountId)
+                .from(from)
+                .to(to)
+                .openingBalance(Money.toBigDecimal(journal.balanceBefore(start, balance)))
+                .closingBalance(Money.toBigDecimal(journal.balanceBefore(end, balance)))
+                .transactions(accountTransactions)
+                .build();
+    }
+
+    /**
+     * Returns the per-day totals of the transactions booked on the UTC days in {@code [from, to)}, and
+     * their sum. Totals are maintained as transactions are recorded, so this costs one step per day with
+     * transactions, however many transactions each day has.
+     */
+    public AccountSummaryDTO getSummary(UUID accountId, LocalDate from, LocalDate to) {
+        AccountJournal journal = findAccount(accountId).getJournal();
+        long fromDay = from == null ? Long.MIN_VALUE : from.toEpochDay();
+        long toDay = to == null ? Long.MAX_VALUE : to.toEpochDay();
+        List<DailySummaryDTO> days = new ArrayList<>();
+        long creditTotal = 0, creditCount = 0, debitTotal = 0, debitCount = 0;
+        long minBalance = Long.MAX_VALUE, maxBalance = Long.MIN_VALUE;
+        for (DailyAggregate dailyAggregate : journal.dailyAggregates(fromDay, toDay)) {
+            if (dailyAggregate.getCount() == 0)
+                continue;
+            DailySummaryDTO day = DailyAggregateConverter.toDto(dailyAggregate);
+            days.add(day);
+            creditTotal = Money.add(creditTotal, dailyAggregate.getCreditTotal());
+            creditCount += day.getCreditCount();
+            debitTotal = Money.add(debitTotal, dailyAggregate.getDebitTotal());
+            debitCount += day.getDebitCount();
+            minBalance = Math.min(minBalance, dailyAggregate.getMinBalance());
+            maxBalance = Math.max(maxBalance, dailyAggregate.getMaxBalance());
         }
-        if (WITHDRAWAL.equals(accountTransaction.getType()) && account.getBalance().compareTo(accountTransaction.getAmount()) < 0)
-            throw new InsufficientFundsException(INSUFFICIENT_FUNDS);
+        return AccountSummaryDTO.builder()
+                .accountId(accountId)
+                .from(from)
+                .to(to)
+                .creditTotal(Money.toBigDecimal(creditTotal))
+                .creditCount(creditCount)
+                .debitTotal(Money.toBigDecimal(debitTotal))
+                .debitCount(debitCount)
+                .minBalance(days.isEmpty() ? null : Money.toBigDecimal(minBalance))
+                .maxBalance(days.isEmpty() ? null : Money.toBigDecimal(maxBalance))
+                .days(days)
+                .build();
+    }
+
+    /**
+     * Returns the account with its balance after every transaction booked up to and including {@code asOf}.
+     */
+    public AccountDTO getAccountAsOf(UUID accountId, LocalDateTime asOf) {
+        Account account = findAccount(accountId);
+        long asOfMillis = AccountJournal.toEpochMillis(asOf);
+        long end = asOfMillis == Long.MAX_VALUE ? account.getJournal().size() : account.getJournal().indexAt(asOfMillis + 1);
+        return AccountDTO.builder()
+                .id(accountId)
+                .balance(Money.toBigDecimal(account.getJournal().balanceBefore(end, account.getBalance())))
+                .build();
+    }
+
+    private void commitGroup(Account account, List<AccountTransactionDTO> accountTransactionDTOs, int[] positions,
+                             TransactionResultDTO[] results) {
+        List<AccountTransaction> accountTransactions = new ArrayList<>(accountTransactionDTOs.size());
+        int[] accepted = new int[accountTransactionDTOs.size()];
+        for (int i = 0; i < accountTransactionDTOs.size(); i++) {
+            AccountTransactionDTO accountTransactionDTO = accountTransactionDTOs.get(i);
+            try {
+                accountTransactions.add(toBookableTransaction(accountTransactionDTO));
+                accepted[accountTransactions.size() - 1] = positions[i];
+            } catch (InvalidAmountException | InvalidTransactionException e) {
+                results[positions[i]] = rejected(account.getId(), e.getMessage());
+                ledgerMetrics.transactionRejected(e);
+            } catch (IllegalArgumentException | NullPointerException e) {
+                results[positions[i]] = rejected(account.getId(), String.format(TRANSACTION_TYPE_NOT_SUPPORTED, accountTransactionDTO.getType()));
+                ledgerMetrics.transactionRejected(e);
+            }
+        }
+        long startNanos = System.nanoTime();
+        Rejection[] rejections;
+        try {
+            accountAdmission.enter(account);
+        } catch (AccountBusyException e) {
+            for (int i = 0; i < accountTransactions.size(); i++) {
+                results[accepted[i]] = rejected(account.getId(), e.getMessage());
+                ledgerMetrics.transactionRejected(e);
+            }
+            return;
+        }
+        try {
+            rejections = transactionEngine.executeAll(account, accountTransactions);
+        } finally {
+            accountAdmission.exit(account);
+        }
+        // the group is committed in one go, so each transaction is charged its share of the group
+        long nanosPerTransaction = (System.nanoTime() - startNanos) / Math.max(1, rejections.length);
+        for (int i = 0; i < rejections.length; i++) {
+            if (rejections[i] == null) {
+                results[accepted[i]] = TransactionResultDTO.builder()
+                        .accountId(account.getId())
+                        .status(TransactionResultDTO.COMMITTED)
+                        .transaction(AccountTransactionConverter.toDto(accountTransactions.get(i)))
+                        .build();
+                ledgerMetrics.transactionCommitted(accountTransactions.get(i).getType(), nanosPerTransaction);
+            } else {
+                results[accepted[i]] = rejected(account.getId(), rejections[i].getMessage());
+                ledgerMetrics.transactionRejected(rejections[i]);
+            }
+        }
+    }
+
+    private void notifyCommitted(TransactionResultDTO[] results) {
+        for (TransactionResultDTO result : results)
+            if (TransactionResultDTO.COMMITTED.equals(result.getStatus()))
+                transactionNotifier.transactionCommitted(result.getAccountId(), result.getTransaction());
+    }
+
+    private static TransactionResultDTO rejected(UUID accountId, String message) {
+        return TransactionResultDTO.builder()
+                .accountId(accountId)
+                .status(TransactionResultDTO.REJECTED)
+                .message(message)
+                .build();
+    }
+
+    private void checkBatchSize(int size) {
+        if (size > maxBatchSize)
+            throw new BatchTooLargeException(String.format(BATCH_TOO_LARGE, maxBatchSize));
+    }
+
+    /**
+     * Transfer legs only come from {@link #transfer(TransferDTO)}: posted on their own they would move
+     * money without a counterparty. Interest and fees only come from the end-of-day batch.
+     */
+    private static AccountTransaction toBookableTransaction(AccountTransactionDTO accountTransactionDTO) {
+        AccountTransaction accountTransaction = AccountTransactionConverter.toEntity(accountTransactionDTO);
+        if (accountTransaction.getType().isTransfer() || accountTransaction.getType().isPosting())
+            throw new InvalidTransactionException(String.format(TRANSACTION_TYPE_NOT_SUPPORTED, accountTransaction.getType()));
+        return dated(accountTransaction, now());
+    }
+
+    /**
+     * Keeps the requested date of a transaction, the current time when there is none, and books it at that
+     * date, or now for a date still to come: bookings order the history of the account, and one booked in
+     * the future would drag every later booking along with it.
+     */
+    private static AccountTransaction dated(AccountTransaction accountTransaction, LocalDateTime now) {
+        LocalDateTime date = accountTransaction.getDate() == null ? now : accountTransaction.getDate().truncatedTo(ChronoUnit.MILLIS);
+        accountTransaction.setDate(date);
+        accountTransaction.setBookingDate(date.isAfter(now) ? now : date);
+        return accountTransaction;
+    }
+
+    private static LocalDateTime now() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+    }
+
+    private Account findAccount(UUID accountId) {
+        return accountRepository.findOne(accountId)
+                .orElseThrow(() -> new AccountNotFoundException(String.format(ACCOUNT_NOT_FOUND, accountId)));
+    }
+
+    private static long fromMillis(LocalDateTime from) {
+        return from == null ? Long.MIN_VALUE : AccountJournal.toEpochMillis(from);
+    }
+
+    private static long toMillis(LocalDateTime to) {
+        return to == null ? Long.MAX_VALUE : AccountJournal.toEpochMillis(to);
     }
 }
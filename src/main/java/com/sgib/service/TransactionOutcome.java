@@ -0,0 +1,52 @@
+package com.sgib.service;
+
+import com.sgib.domain.dto.AccountTransactionDTO;
+import com.sgib.domain.model.Rejection;
+
+/**
+ * What became of a transaction: either committed, or rejected for a business reason. Rejected
+ * outcomes are shared, one per {@link Rejection}, so turning a transaction down allocates nothing.
+ */
+public final class TransactionOutcome {
+
+    private static final TransactionOutcome[] REJECTED = new TransactionOutcome[Rejection.values().length];
+
+    static {
+        for (Rejection rejection : Rejection.values())
+            REJECTED[rejection.ordinal()] = new TransactionOutcome(null, rejection);
+    }
+
+    private final AccountTransactionDTO transaction;
+    private final Rejection rejection;
+
+    private TransactionOutcome(AccountTransactionDTO transaction, Rejection rejection) {
+        this.transaction = transaction;
+        this.rejection = rejection;
+    }
+
+    public static TransactionOutcome committed(AccountTransactionDTO transaction) {
+        return new TransactionOutcome(transaction, null);
+    }
+
+    public static TransactionOutcome rejected(Rejection rejection) {
+        return REJECTED[rejection.ordinal()];
+    }
+
+    public boolean isCommitted() {
+        return rejection == null;
+    }
+
+    /**
+     * The committed transaction, or null if it was rejected.
+     */
+    public AccountTransactionDTO getTransaction() {
+        return transaction;
+    }
+
+    /**
+     * Why the transaction was rejected, or null if it was committed.
+     */
+    public Rejection getRejection() {
+        return rejection;
+    }
+}
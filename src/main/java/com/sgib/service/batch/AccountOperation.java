@@ -0,0 +1,24 @@
+package com.sgib.service.batch;
+
+import com.sgib.domain.model.AccountTransactionType;
+
+import java.time.LocalDate;
+
+/**
+ * Work the {@link EndOfDayBatch} applies to every account: at most one transaction per account and
+ * business date. Operations are looked up by name.
+ */
+public interface AccountOperation {
+
+    String name();
+
+    /**
+     * Type of the transactions the operation posts, one for which {@link AccountTransactionType#isPosting()} holds.
+     */
+    AccountTransactionType type();
+
+    /**
+     * Returns the amount, in minor units, to post on an account with the given balance, or 0 to post nothing.
+     */
+    long amount(long balance, LocalDate businessDate);
+}
@@ -0,0 +1,105 @@
+package com.sgib.service.batch;
+
+import com.sgib.domain.dto.EndOfDayRunDTO;
+import com.sgib.exception.EndOfDayOperationNotFoundException;
+import com.sgib.exception.EndOfDayRunInProgressException;
+import com.sgib.exception.InvalidBusinessDateException;
+import com.sgib.repository.AccountRepository;
+import com.sgib.repository.wal.TransactionLog;
+import com.sgib.service.concurrency.TransactionEngine;
+import com.sgib.service.notification.TransactionNotifier;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.sgib.exception.Messages.END_OF_DAY_BUSINESS_DATE_NOT_CLOSED;
+import static com.sgib.exception.Messages.END_OF_DAY_OPERATION_NOT_FOUND;
+import static com.sgib.exception.Messages.END_OF_DAY_RUN_IN_PROGRESS;
+
+/**
+ * Applies an {@link AccountOperation}, such as interest accrual, to every account on a fork-join pool of
+ * its own, so the run uses every core without taking threads from request handling. One run at a time;
+ * running an operation again for a business date it already completed posts nothing.
+ */
+@Service
+public class EndOfDayBatch {
+
+    private final AccountRepository accountRepository;
+    private final TransactionEngine transactionEngine;
+    private final TransactionLog transactionLog;
+    private final TransactionNotifier transactionNotifier;
+    private final Map<String, AccountOperation> operations;
+    private final Path checkpointDirectory;
+    private final ForkJoinPool pool;
+    private final AtomicReference<EndOfDayRun> lastRun = new AtomicReference<>();
+
+    public EndOfDayBatch(AccountRepository accountRepository, TransactionEngine transactionEngine, TransactionLog transactionLog,
+                         TransactionNotifier transactionNotifier, List<AccountOperation> operations,
+                         @Value("${bank.batch.checkpoint-directory:data/batch}") String checkpointDirectory,
+                         @Value("${bank.batch.parallelism:0}") int parallelism) {
+        this.accountRepository = accountRepository;
+        this.transactionEngine = transactionEngine;
+        this.transactionLog = transactionLog;
+        this.transactionNotifier = transactionNotifier;
+        this.operations = operations.stream().collect(Collectors.toMap(AccountOperation::name, Function.identity()));
+        this.checkpointDirectory = Path.of(checkpointDirectory);
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Starts a run in the background and returns its progress so far. A run of the same operation and
+     * business date that was interrupted resumes from its checkpoint.
+     */
+    public EndOfDayRunDTO start(String operationName, LocalDate businessDate) {
+        return launch(operationName, businessDate).progress();
+    }
+
+    /**
+     * Runs an operation and waits for it to finish.
+     */
+    public EndOfDayRunDTO run(String operationName, LocalDate businessDate) {
+        EndOfDayRun run = launch(operationName, businessDate);
+        run.join();
+        return run.progress();
+    }
+
+    /**
+     * Returns the progress of the current run, or the outcome of the last one.
+     */
+    public Optional<EndOfDayRunDTO> getLastRun() {
+        return Optional.ofNullable(lastRun.get()).map(EndOfDayRun::progress);
+    }
+
+    @PreDestroy
+    public void stop() {
+        pool.shutdownNow();
+    }
+
+    private EndOfDayRun launch(String operationName, LocalDate businessDate) {
+        AccountOperation operation = operations.get(operationName);
+        if (operation == null)
+            throw new EndOfDayOperationNotFoundException(String.format(END_OF_DAY_OPERATION_NOT_FOUND, operationName));
+        if (!businessDate.isBefore(LocalDate.now()))
+            throw new InvalidBusinessDateException(String.format(END_OF_DAY_BUSINESS_DATE_NOT_CLOSED, businessDate));
+        EndOfDayRun run = new EndOfDayRun(operation, businessDate,
+                checkpointDirectory.resolve(operation.name() + "-" + businessDate + ".checkpoint"),
+                accountRepository, transactionEngine, transactionLog, transactionNotifier);
+        EndOfDayRun previous = lastRun.get();
+        if (previous != null && previous.isRunning() || !lastRun.compareAndSet(previous, run)) {
+            EndOfDayRunDTO current = lastRun.get().progress();
+            throw new EndOfDayRunInProgressException(String.format(END_OF_DAY_RUN_IN_PROGRESS, current.getOperation(), current.getBusinessDate()));
+        }
+        pool.execute(run);
+        return run;
+    }
+}
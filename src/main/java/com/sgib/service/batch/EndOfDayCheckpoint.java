@@ -0,0 +1,105 @@
+package com.sgib.service.batch;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The buckets of an end-of-day run that are done, kept in a file so that a run interrupted by a crash
+ * resumes where it stopped. A bucket is only marked once the postings of all its accounts are synced
+ * to the transaction log.
+ * <p>
+ * The file is rewritten every {@link #SAVE_EVERY} buckets rather than after each one: a bucket that was
+ * done but not saved is simply done again on resume, and the run skips the accounts that already have
+ * their posting.
+ */
+final class EndOfDayCheckpoint {
+
+    static final int SAVE_EVERY = 64;
+
+    private static final int MAGIC = 0x454F4443;
+
+    private final Path file;
+    private final int buckets;
+    private final long[] completed;
+    private final boolean resumed;
+    private int unsaved;
+
+    private EndOfDayCheckpoint(Path file, int buckets, long[] completed, boolean resumed) {
+        this.file = file;
+        this.buckets = buckets;
+        this.completed = completed;
+        this.resumed = resumed;
+    }
+
+    /**
+     * Opens the checkpoint of a run, reading the buckets an earlier attempt completed. The file is
+     * written right away, so a run that fails before its first bucket still counts as attempted.
+     */
+    static EndOfDayCheckpoint open(Path file, int buckets) throws IOException {
+        long[] completed = new long[(buckets + Long.SIZE - 1) / Long.SIZE];
+        boolean resumed = Files.exists(file);
+        if (resumed) {
+            try (DataInputStream input = new DataInputStream(Files.newInputStream(file))) {
+                if (input.readInt() != MAGIC || input.readInt() != buckets)
+                    throw new IOException("Not a checkpoint of " + buckets + " buckets: " + file);
+                for (int i = 0; i < completed.length; i++)
+                    completed[i] = input.readLong();
+            }
+        }
+        EndOfDayCheckpoint checkpoint = new EndOfDayCheckpoint(file, buckets, completed, resumed);
+        checkpoint.save();
+        return checkpoint;
+    }
+
+    /**
+     * Whether an earlier attempt of the same run left this checkpoint behind.
+     */
+    boolean isResumed() {
+        return resumed;
+    }
+
+    synchronized boolean isCompleted(int bucket) {
+        return (completed[bucket / Long.SIZE] & 1L << bucket) != 0;
+    }
+
+    synchronized int completedCount() {
+        int count = 0;
+        for (long word : completed)
+            count += Long.bitCount(word);
+        return count;
+    }
+
+    synchronized void complete(int bucket) throws IOException {
+        completed[bucket / Long.SIZE] |= 1L << bucket;
+        if (++unsaved >= SAVE_EVERY)
+            save();
+    }
+
+    /**
+     * Writes the checkpoint to a temporary file, forces it to disk and moves it over the previous one,
+     * so the file always holds a whole checkpoint.
+     */
+    synchronized void save() throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        ByteBuffer buffer = ByteBuffer.allocate(2 * Integer.BYTES + completed.length * Long.BYTES);
+        buffer.putInt(MAGIC).putInt(buckets);
+        for (long word : completed)
+            buffer.putLong(word);
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+            channel.force(true);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        unsaved = 0;
+    }
+}
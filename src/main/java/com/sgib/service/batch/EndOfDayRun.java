@@ -0,0 +1,219 @@
+package com.sgib.service.batch;
+
+import com.sgib.domain.dto.EndOfDayRunDTO;
+import com.sgib.domain.mapper.AccountTransactionConverter;
+import com.sgib.domain.model.Account;
+import com.sgib.domain.model.AccountJournal;
+import com.sgib.domain.model.AccountTransaction;
+import com.sgib.domain.model.JournalCursor;
+import com.sgib.repository.AccountRepository;
+import com.sgib.repository.wal.TransactionLog;
+import com.sgib.service.concurrency.TransactionEngine;
+import com.sgib.service.notification.TransactionNotifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * One run of an {@link AccountOperation} over every account, for one business date.
+ * <p>
+ * Accounts are spread over {@link #BUCKETS} buckets by a hash of their id, which does not depend on the
+ * order the repository visits them in, so the buckets of a resumed run hold the same accounts as before.
+ * The buckets are then processed as fork-join subtasks: each one posts on its accounts, syncs the
+ * transaction log once and is marked in the {@link EndOfDayCheckpoint}.
+ * <p>
+ * Only a business day that is over can be run. Amounts are computed from the balance at the close of
+ * that day, read from the journal, so transactions booked since do not change them.
+ * <p>
+ * Postings are dated at the last millisecond of the business day, and go through the transaction
+ * engine like any other transaction, so they are validated, logged and journaled the same way. On a
+ * resumed run, an account whose journal already holds a posting of the operation dated at that time
+ * is skipped, which makes redoing a bucket that was done but not yet checkpointed harmless. A posting
+ * is booked later than its date when the account already had later bookings, but it keeps its date,
+ * so it is told apart from the postings of later business dates.
+ */
+final class EndOfDayRun extends RecursiveAction {
+
+    static final int BUCKETS = 4096;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EndOfDayRun.class);
+
+    private final AccountOperation operation;
+    private final LocalDate businessDate;
+    private final LocalDateTime postingDate;
+    private final long closingMillis;
+    private final Path checkpointFile;
+    private final AccountRepository accountRepository;
+    private final TransactionEngine transactionEngine;
+    private final TransactionLog transactionLog;
+    private final TransactionNotifier transactionNotifier;
+    private final LongAdder processed = new LongAdder();
+    private final LongAdder posted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final AtomicInteger bucketsCompleted = new AtomicInteger();
+    private volatile long accounts;
+    private volatile long resumed;
+    private volatile String status = EndOfDayRunDTO.RUNNING;
+    private volatile String message;
+    private EndOfDayCheckpoint checkpoint;
+
+    EndOfDayRun(AccountOperation operation, LocalDate businessDate, Path checkpointFile, AccountRepository accountRepository,
+                TransactionEngine transactionEngine, TransactionLog transactionLog, TransactionNotifier transactionNotifier) {
+        this.operation = operation;
+        this.businessDate = businessDate;
+        this.postingDate = businessDate.plusDays(1).atStartOfDay().minusNanos(1_000_000);
+        this.closingMillis = AccountJournal.toEpochMillis(businessDate.plusDays(1).atStartOfDay());
+        this.checkpointFile = checkpointFile;
+        this.accountRepository = accountRepository;
+        this.transactionEngine = transactionEngine;
+        this.transactionLog = transactionLog;
+        this.transactionNotifier = transactionNotifier;
+    }
+
+    @Override
+    protected void compute() {
+        try {
+            checkpoint = EndOfDayCheckpoint.open(checkpointFile, BUCKETS);
+            List<Account>[] buckets = bucketAccounts();
+            bucketsCompleted.set(checkpoint.completedCount());
+            invokeAll(new Buckets(buckets, 0, BUCKETS));
+            checkpoint.save();
+            status = EndOfDayRunDTO.COMPLETED;
+        } catch (Exception e) {
+            LOGGER.error("End-of-day {} for {} failed", operation.name(), businessDate, e);
+            message = e.getMessage();
+            status = EndOfDayRunDTO.FAILED;
+        }
+    }
+
+    boolean isRunning() {
+        return EndOfDayRunDTO.RUNNING.equals(status);
+    }
+
+    EndOfDayRunDTO progress() {
+        return EndOfDayRunDTO.builder()
+                .operation(operation.name())
+                .businessDate(businessDate)
+                .status(status)
+                .accounts(accounts)
+                .resumed(resumed)
+                .processed(processed.sum())
+                .posted(posted.sum())
+                .rejected(rejected.sum())
+                .bucketsCompleted(bucketsCompleted.get())
+                .buckets(BUCKETS)
+                .message(message)
+                .build();
+    }
+
+    static int bucketOf(Account account) {
+        long bits = account.getId().getMostSignificantBits() ^ account.getId().getLeastSignificantBits();
+        return (int) (bits * 0x9E3779B97F4A7C15L >>> (Long.SIZE - Integer.numberOfTrailingZeros(BUCKETS)));
+    }
+
+    // only the accounts of buckets left to do are kept
+    @SuppressWarnings("unchecked")
+    private List<Account>[] bucketAccounts() {
+        List<Account>[] buckets = new List[BUCKETS];
+        int expectedPerBucket = (int) Math.min(Integer.MAX_VALUE, accountRepository.count() / BUCKETS + 1);
+        long[] counts = new long[2];
+        accountRepository.forEach(account -> {
+            int bucket = bucketOf(account);
+            counts[0]++;
+            if (checkpoint.isCompleted(bucket)) {
+                counts[1]++;
+                return;
+            }
+            if (buckets[bucket] == null)
+                buckets[bucket] = new ArrayList<>(expectedPerBucket);
+            buckets[bucket].add(account);
+        });
+        accounts = counts[0];
+        resumed = counts[1];
+        return buckets;
+    }
+
+    private void process(int bucket, List<Account> bucketAccounts) throws IOException {
+        List<Account> notified = new ArrayList<>();
+        List<AccountTransaction> notifications = new ArrayList<>();
+        for (Account account : bucketAccounts) {
+            AccountTransaction posting = post(account);
+            if (posting != null && transactionNotifier.hasListeners(account.getId())) {
+                notified.add(account);
+                notifications.add(posting);
+            }
+            processed.increment();
+        }
+        transactionLog.sync();
+        for (int i = 0; i < notified.size(); i++)
+            transactionNotifier.transactionCommitted(notified.get(i).getId(), AccountTransactionConverter.toDto(notifications.get(i)));
+        checkpoint.complete(bucket);
+        bucketsCompleted.incrementAndGet();
+    }
+
+    private AccountTransaction post(Account account) {
+        if (checkpoint.isResumed() && alreadyPosted(account.getJournal()))
+            return null;
+        AccountJournal journal = account.getJournal();
+        long closingBalance = journal.balanceBefore(journal.indexAt(closingMillis), account.getBalance());
+        long amount = operation.amount(closingBalance, businessDate);
+        if (amount <= 0)
+            return null;
+        AccountTransaction posting = new AccountTransaction(postingDate, amount, 0, operation.type());
+        if (transactionEngine.tryExecute(account, posting) != null) {
+            rejected.increment();
+            return null;
+        }
+        posted.increment();
+        return posting;
+    }
+
+    // a posting is booked at the posting date, or later if the account already had later transactions
+    private boolean alreadyPosted(AccountJournal journal) {
+        long postingMillis = AccountJournal.toEpochMillis(postingDate);
+        JournalCursor cursor = journal.cursor(journal.indexAt(postingMillis), journal.size());
+        while (cursor.next())
+            if (cursor.type() == operation.type() && cursor.transactionMillis() == postingMillis)
+                return true;
+        return false;
+    }
+
+    private final class Buckets extends RecursiveAction {
+
+        private final List<Account>[] buckets;
+        private final int from;
+        private final int to;
+
+        private Buckets(List<Account>[] buckets, int from, int to) {
+            this.buckets = buckets;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Buckets(buckets, from, middle), new Buckets(buckets, middle, to));
+                return;
+            }
+            if (checkpoint.isCompleted(from))
+                return;
+            try {
+                process(from, buckets[from] == null ? List.of() : buckets[from]);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.sgib.service.batch;
+
+import com.sgib.domain.model.AccountTransactionType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Credits one day of interest on positive balances, at an annual rate in basis points over a 365-day
+ * year, rounded down to the minor unit.
+ */
+@Component
+public class InterestAccrual implements AccountOperation {
+
+    private static final long DIVISOR = 10_000L * 365;
+
+    private final long annualRateBasisPoints;
+
+    public InterestAccrual(@Value("${bank.batch.interest.annual-rate-bps:0}") long annualRateBasisPoints) {
+        if (annualRateBasisPoints < 0)
+            throw new IllegalArgumentException("Interest rate must not be negative: " + annualRateBasisPoints);
+        this.annualRateBasisPoints = annualRateBasisPoints;
+    }
+
+    @Override
+    public String name() {
+        return "interest";
+    }
+
+    @Override
+    public AccountTransactionType type() {
+        return AccountTransactionType.INTEREST;
+    }
+
+    @Override
+    public long amount(long balance, LocalDate businessDate) {
+        if (balance <= 0)
+            return 0;
+        // balance * rate / DIVISOR without overflowing on large balances
+        return balance / DIVISOR * annualRateBasisPoints + balance % DIVISOR * annualRateBasisPoints / DIVISOR;
+    }
+}
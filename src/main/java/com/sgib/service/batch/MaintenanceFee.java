@@ -0,0 +1,38 @@
+package com.sgib.service.batch;
+
+import com.sgib.domain.model.AccountTransactionType;
+import com.sgib.domain.model.Money;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Charges a flat fee to every account. Like any withdrawal, the fee is rejected on an account that
+ * cannot cover it.
+ */
+@Component
+public class MaintenanceFee implements AccountOperation {
+
+    private final long fee;
+
+    public MaintenanceFee(@Value("${bank.batch.fee.amount:0}") BigDecimal fee) {
+        this.fee = Money.toMinorUnits(fee);
+    }
+
+    @Override
+    public String name() {
+        return "fee";
+    }
+
+    @Override
+    public AccountTransactionType type() {
+        return AccountTransactionType.FEE;
+    }
+
+    @Override
+    public long amount(long balance, LocalDate businessDate) {
+        return fee;
+    }
+}
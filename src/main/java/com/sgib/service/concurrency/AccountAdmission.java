@@ -0,0 +1,36 @@
+package com.sgib.service.concurrency;
+
+import com.sgib.domain.model.Account;
+import com.sgib.exception.AccountBusyException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import static com.sgib.exception.Messages.ACCOUNT_BUSY;
+
+/**
+ * Caps the number of requests working on the same account at once, so a burst on one hot account
+ * is turned away instead of tying up every request thread on its lock.
+ * A limit of zero or less disables the cap.
+ */
+@Component
+public class AccountAdmission {
+
+    private final int maxInFlightPerAccount;
+
+    public AccountAdmission(@Value("${bank.concurrency.max-in-flight-per-account:0}") int maxInFlightPerAccount) {
+        this.maxInFlightPerAccount = maxInFlightPerAccount;
+    }
+
+    /**
+     * @throws AccountBusyException if the account already has the maximum number of requests in flight
+     */
+    public void enter(Account account) {
+        if (maxInFlightPerAccount > 0 && !account.tryEnter(maxInFlightPerAccount))
+            throw new AccountBusyException(String.format(ACCOUNT_BUSY, account.getId()));
+    }
+
+    public void exit(Account account) {
+        if (maxInFlightPerAccount > 0)
+            account.exit();
+    }
+}
@@ -0,0 +1,42 @@
+package com.sgib.service.concurrency;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Striped locks keyed on the account id.
+ * Transactions on the same account are serialized, transactions on different accounts only
+ * contend when their ids hash to the same stripe.
+ */
+@Component
+public class AccountLocks {
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+
+    public AccountLocks(@Value("${bank.concurrency.lock-stripes:1024}") int stripeCount) {
+        if (stripeCount <= 0)
+            throw new IllegalArgumentException("Lock stripe count must be greater than zero");
+        int size = stripeCount == 1 ? 1 : Integer.highestOneBit(stripeCount - 1) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++)
+            stripes[i] = new ReentrantLock();
+        this.mask = size - 1;
+    }
+
+    public ReentrantLock lockFor(UUID accountId) {
+        return stripes[stripeIndex(accountId)];
+    }
+
+    public int stripeCount() {
+        return stripes.length;
+    }
+
+    int stripeIndex(UUID accountId) {
+        int h = accountId.hashCode();
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
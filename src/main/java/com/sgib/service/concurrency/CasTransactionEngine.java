@@ -0,0 +1,122 @@
+package com.sgib.service.concurrency;
+
+import com.sgib.domain.model.Account;
+import com.sgib.domain.model.AccountJournal;
+import com.sgib.domain.model.AccountState;
+import com.sgib.domain.model.AccountTransaction;
+import com.sgib.domain.model.Rejection;
+import com.sgib.repository.wal.TransactionLog;
+import com.sgib.service.metrics.LedgerMetrics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Commits transactions with a compare-and-set on the account state, without taking any lock.
+ * A committer that loses the race validates again against the state that won.
+ * <p>
+ * The transaction log must get the records of an account in sequence order, but concurrent winners
+ * leave the compare-and-set in any order. A winner therefore waits until the record of the sequence
+ * before its own is published in the journal, which happens right after it is appended to the log,
+ * before appending its own. A caller that then syncs the log knows the whole prefix of the journal is
+ * durable, not just its own record. Once an append has failed, waiting winners give up with the same
+ * error instead of waiting for a record that will never come, and every winner whose append failed
+ * puts the previous state back, unless a later winner already built on it.
+ * <p>
+ * Two states cannot be swapped in one compare-and-set, so a transfer first {@link AccountState#hold() holds}
+ * both accounts, in the order of their ids so that two transfers in opposite directions cannot wait for
+ * each other, then commits both legs at once. Committers that find an account held wait for its release.
+ */
+@Component
+@ConditionalOnProperty(name = "bank.concurrency.mode", havingValue = "cas")
+public class CasTransactionEngine implements TransactionEngine {
+
+    // the winner waited for may have been preempted; on a single core only yielding lets it run
+    private static final int PUBLISH_SPINS = Runtime.getRuntime().availableProcessors() > 1 ? 100 : 0;
+
+    private final TransactionLog transactionLog;
+    private final LedgerMetrics ledgerMetrics;
+    private volatile RuntimeException logFailure;
+
+    public CasTransactionEngine(TransactionLog transactionLog, LedgerMetrics ledgerMetrics) {
+        this.transactionLog = transactionLog;
+        this.ledgerMetrics = ledgerMetrics;
+    }
+
+    @Override
+    public Rejection tryExecute(Account account, AccountTransaction accountTransaction) {
+        while (true) {
+            AccountState current = account.getState();
+            if (current.isHeld()) {
+                Thread.onSpinWait();
+                continue;
+            }
+            Rejection rejection = current.check(accountTransaction);
+            if (rejection != null)
+                return rejection;
+            AccountState next = current.next(accountTransaction);
+            if (account.compareAndSetState(current, next)) {
+                next.book(accountTransaction);
+                try {
+                    awaitPublished(account, next.getSequence() - 1);
+                    transactionLog.transactionCommitted(account.getId(), next.getSequence(), accountTransaction);
+                } catch (RuntimeException e) {
+                    logFailure = e;
+                    account.compareAndSetState(next, current);
+                    throw e;
+                }
+                account.getJournal().record(next.getSequence(), accountTransaction);
+                return null;
+            }
+            ledgerMetrics.compareAndSetRetried(account.getId());
+            Thread.onSpinWait();
+        }
+    }
+
+    @Override
+    public void transfer(Account source, Account target, AccountTransaction debit, AccountTransaction credit) {
+        boolean sourceFirst = source.getId().compareTo(target.getId()) < 0;
+        AccountState firstHeld = hold(sourceFirst ? source : target);
+        AccountState secondHeld = hold(sourceFirst ? target : source);
+        try {
+            awaitPublished(source, source.getState().getSequence());
+            awaitPublished(target, target.getState().getSequence());
+            Transfers.commit(source, target, debit, credit, transactionLog);
+        } catch (RuntimeException e) {
+            release(sourceFirst ? source : target, firstHeld);
+            release(sourceFirst ? target : source, secondHeld);
+            throw e;
+        }
+    }
+
+    private void awaitPublished(Account account, long sequence) {
+        AccountJournal journal = account.getJournal();
+        for (int spins = 0; journal.size() < sequence; spins++) {
+            RuntimeException failure = logFailure;
+            if (failure != null)
+                throw failure;
+            if (spins < PUBLISH_SPINS)
+                Thread.onSpinWait();
+            else
+                Thread.yield();
+        }
+    }
+
+
+    private AccountState hold(Account account) {
+        while (true) {
+            AccountState current = account.getState();
+            if (!current.isHeld()) {
+                AccountState held = current.hold();
+                if (account.compareAndSetState(current, held))
+                    return held;
+            }
+            ledgerMetrics.compareAndSetRetried(account.getId());
+            Thread.onSpinWait();
+        }
+    }
+
+    // a transfer that failed, whether rejected or refused by the log, leaves both states held
+    private static void release(Account account, AccountState held) {
+        account.compareAndSetState(held, held.release());
+    }
+}
@@ -0,0 +1,85 @@
+package com.sgib.service.concurrency;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded lock-free ring buffer with many producers and a single consumer.
+ * <p>
+ * Every slot carries a sequence that tells whose turn it is: a producer may claim position {@code p}
+ * once the slot sequence equals {@code p}, and publishes it by setting the sequence to {@code p + 1};
+ * the consumer frees it for the next lap by setting it to {@code p + capacity}. Producers only
+ * contend on the claim of the tail, the consumer never writes anything they read except the slot
+ * sequences.
+ */
+final class CommandRing<T> {
+
+    private final Object[] buffer;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private final int mask;
+    private long head;
+
+    CommandRing(int capacity) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("Ring capacity must be greater than zero");
+        int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.buffer = new Object[size];
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++)
+            sequences.set(i, i);
+        this.mask = size - 1;
+    }
+
+    /**
+     * Adds an element, from any thread.
+     *
+     * @return false if the ring is full
+     */
+    boolean offer(T element) {
+        long position;
+        int index;
+        while (true) {
+            position = tail.get();
+            index = (int) position & mask;
+            long difference = sequences.getAcquire(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1))
+                    break;
+            } else if (difference < 0) {
+                return false;
+            }
+        }
+        buffer[index] = element;
+        sequences.set(index, position + 1);
+        return true;
+    }
+
+    /**
+     * Removes the oldest element, from the consumer thread only.
+     *
+     * @return null if the ring is empty
+     */
+    @SuppressWarnings("unchecked")
+    T poll() {
+        int index = (int) head & mask;
+        if (sequences.getAcquire(index) != head + 1)
+            return null;
+        T element = (T) buffer[index];
+        buffer[index] = null;
+        sequences.setRelease(index, head + buffer.length);
+        head++;
+        return element;
+    }
+
+    /**
+     * From the consumer thread only.
+     */
+    boolean isEmpty() {
+        return sequences.get((int) head & mask) != head + 1;
+    }
+
+    int capacity() {
+        return buffer.length;
+    }
+}
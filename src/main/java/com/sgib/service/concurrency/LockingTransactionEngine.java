@@ -0,0 +1,117 @@
+package com.sgib.service.concurrency;
+
+import com.sgib.domain.model.Account;
+import com.sgib.domain.model.AccountState;
+import com.sgib.domain.model.AccountTransaction;
+import com.sgib.domain.model.Rejection;
+import com.sgib.repository.wal.TransactionLog;
+import com.sgib.service.metrics.LedgerMetrics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Commits transactions under the striped lock of their account. A commit the transaction log refuses
+ * is undone before the lock is released.
+ */
+@Component
+@ConditionalOnProperty(name = "bank.concurrency.mode", havingValue = "locking", matchIfMissing = true)
+public class LockingTransactionEngine implements TransactionEngine {
+
+    private final AccountLocks accountLocks;
+    private final TransactionLog transactionLog;
+    private final LedgerMetrics ledgerMetrics;
+
+    public LockingTransactionEngine(AccountLocks accountLocks, TransactionLog transactionLog, LedgerMetrics ledgerMetrics) {
+        this.accountLocks = accountLocks;
+        this.transactionLog = transactionLog;
+        this.ledgerMetrics = ledgerMetrics;
+    }
+
+    @Override
+    public Rejection tryExecute(Account account, AccountTransaction accountTransaction) {
+        ReentrantLock lock = accountLocks.lockFor(account.getId());
+        acquire(lock, account);
+        try {
+            return commit(account, accountTransaction);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes the lock of the account once for the whole group.
+     */
+    @Override
+    public Rejection[] executeAll(Account account, List<AccountTransaction> accountTransactions) {
+        Rejection[] rejections = new Rejection[accountTransactions.size()];
+        ReentrantLock lock = accountLocks.lockFor(account.getId());
+        acquire(lock, account);
+        try {
+            for (int i = 0; i < rejections.length; i++)
+                rejections[i] = commit(account, accountTransactions.get(i));
+        } finally {
+            lock.unlock();
+        }
+        return rejections;
+    }
+
+    /**
+     * Commits both legs under the locks of both accounts. The locks are always taken in stripe order,
+     * so two transfers in opposite directions cannot deadlock, and only once when both accounts share
+     * a stripe. Transfers between unrelated accounts never wait for each other.
+     */
+    @Override
+    public void transfer(Account source, Account target, AccountTransaction debit, AccountTransaction credit) {
+        int sourceStripe = accountLocks.stripeIndex(source.getId());
+        int targetStripe = accountLocks.stripeIndex(target.getId());
+        Account firstAccount = sourceStripe <= targetStripe ? source : target;
+        Account secondAccount = sourceStripe <= targetStripe ? target : source;
+        ReentrantLock first = accountLocks.lockFor(firstAccount.getId());
+        ReentrantLock second = accountLocks.lockFor(secondAccount.getId());
+        acquire(first, firstAccount);
+        try {
+            if (second != first)
+                acquire(second, secondAccount);
+            try {
+                Transfers.commit(source, target, debit, credit, transactionLog);
+            } finally {
+                if (second != first)
+                    second.unlock();
+            }
+        } finally {
+            first.unlock();
+        }
+    }
+
+    /**
+     * Only measures the wait when the lock is already held, so the uncontended path stays a single CAS.
+     */
+    private void acquire(ReentrantLock lock, Account account) {
+        if (lock.tryLock())
+            return;
+        long startNanos = System.nanoTime();
+        lock.lock();
+        ledgerMetrics.lockWaited(account.getId(), System.nanoTime() - startNanos);
+    }
+
+    private Rejection commit(Account account, AccountTransaction accountTransaction) {
+        AccountState current = account.getState();
+        Rejection rejection = current.check(accountTransaction);
+        if (rejection != null)
+            return rejection;
+        AccountState next = current.next(accountTransaction);
+        account.setState(next);
+        next.book(accountTransaction);
+        try {
+            transactionLog.transactionCommitted(account.getId(), next.getSequence(), accountTransaction);
+        } catch (RuntimeException e) {
+            account.setState(current);
+            throw e;
+        }
+        account.getJournal().record(next.getSequence(), accountTransaction);
+        return null;
+    }
+}
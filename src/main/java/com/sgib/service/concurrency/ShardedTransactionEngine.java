@@ -0,0 +1,232 @@
+package com.sgib.service.concurrency;
+
+import com.sgib.domain.model.Account;
+import com.sgib.domain.model.AccountState;
+import com.sgib.domain.model.AccountTransaction;
+import com.sgib.domain.model.Rejection;
+import com.sgib.repository.wal.TransactionLog;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Partitions accounts by id across single-threaded shards. Every transaction of an account is
+ * applied by the thread of its shard, so commits take no lock and no compare-and-set at all, and the
+ * state of an account stays in the cache of one core.
+ * <p>
+ * Callers hand their work to the shard through a lock-free {@link CommandRing} and get a
+ * {@link CompletableFuture} back; {@link #execute} simply waits for it. On multi-core machines an idle
+ * shard and a waiting caller spin briefly before parking, and producers only unpark a shard that
+ * announced it was going to sleep.
+ * <p>
+ * A transfer between two accounts of the same shard is committed at once by that shard. Across
+ * shards, the shard with the lower index is first pinned: its thread waits, owning nothing but its own
+ * accounts, while the other shard commits both legs at once. A pinned shard only ever waits for a
+ * shard with a higher index, so pinned shards cannot wait for each other in a cycle.
+ */
+@Component
+@ConditionalOnProperty(name = "bank.concurrency.mode", havingValue = "sharded")
+public class ShardedTransactionEngine implements TransactionEngine {
+
+    // spinning only pays off when the other side runs on another core
+    private static final boolean MULTI_CORE = Runtime.getRuntime().availableProcessors() > 1;
+    private static final int IDLE_SPINS = MULTI_CORE ? 1_000 : 0;
+    private static final int CALLER_SPINS = MULTI_CORE ? 200 : 0;
+    private static final long PARK_NANOS = 100_000;
+
+    private final TransactionLog transactionLog;
+    private final Shard[] shards;
+    private final int mask;
+
+    public ShardedTransactionEngine(TransactionLog transactionLog,
+                                    @Value("${bank.concurrency.shards:0}") int shardCount,
+                                    @Value("${bank.concurrency.ring-size:4096}") int ringSize) {
+        this.transactionLog = transactionLog;
+        int count = shardCount > 0 ? shardCount : Runtime.getRuntime().availableProcessors();
+        int size = count == 1 ? 1 : Integer.highestOneBit(count - 1) << 1;
+        this.shards = new Shard[size];
+        for (int i = 0; i < size; i++)
+            shards[i] = new Shard(i, ringSize);
+        this.mask = size - 1;
+    }
+
+    @Override
+    public Rejection tryExecute(Account account, AccountTransaction accountTransaction) {
+        return join(submit(account, accountTransaction));
+    }
+
+    @Override
+    public Rejection[] executeAll(Account account, List<AccountTransaction> accountTransactions) {
+        CompletableFuture<Rejection[]> result = new CompletableFuture<>();
+        shardFor(account.getId()).submit(() -> {
+            Rejection[] rejections = new Rejection[accountTransactions.size()];
+            for (int i = 0; i < rejections.length; i++)
+                rejections[i] = commit(account, accountTransactions.get(i));
+            result.complete(rejections);
+        }, result);
+        return join(result);
+    }
+
+    @Override
+    public void transfer(Account source, Account target, AccountTransaction debit, AccountTransaction credit) {
+        Shard sourceShard = shardFor(source.getId());
+        Shard targetShard = shardFor(target.getId());
+        Shard owner = sourceShard.index < targetShard.index ? targetShard : sourceShard;
+        Shard pinned = owner == sourceShard ? targetShard : sourceShard;
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        if (pinned != owner) {
+            CompletableFuture<Void> pinning = new CompletableFuture<>();
+            // the pinned shard waits for the outcome, whatever it is
+            pinned.submit(() -> {
+                pinning.complete(null);
+                result.handle((ignored, e) -> null).join();
+            }, pinning);
+            join(pinning);
+        }
+        try {
+            owner.submit(() -> {
+                Transfers.commit(source, target, debit, credit, transactionLog);
+                result.complete(null);
+            }, result);
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+            throw e;
+        }
+        join(result);
+    }
+
+    /**
+     * Queues the transaction on the shard of its account.
+     *
+     * @return a future completed by the shard with null once the transaction is committed, or with the reason
+     * it was rejected
+     */
+    public CompletableFuture<Rejection> submit(Account account, AccountTransaction accountTransaction) {
+        CompletableFuture<Rejection> result = new CompletableFuture<>();
+        shardFor(account.getId()).submit(() -> result.complete(commit(account, accountTransaction)), result);
+        return result;
+    }
+
+    public int shardCount() {
+        return shards.length;
+    }
+
+    @PreDestroy
+    public void close() {
+        for (Shard shard : shards)
+            shard.stop();
+    }
+
+    private Rejection commit(Account account, AccountTransaction accountTransaction) {
+        AccountState current = account.getState();
+        Rejection rejection = current.check(accountTransaction);
+        if (rejection != null)
+            return rejection;
+        AccountState next = current.next(accountTransaction);
+        account.setState(next);
+        next.book(accountTransaction);
+        try {
+            transactionLog.transactionCommitted(account.getId(), next.getSequence(), accountTransaction);
+        } catch (RuntimeException e) {
+            account.setState(current);
+            throw e;
+        }
+        account.getJournal().record(next.getSequence(), accountTransaction);
+        return null;
+    }
+
+    private Shard shardFor(UUID accountId) {
+        int h = accountId.hashCode();
+        return shards[(h ^ (h >>> 16)) & mask];
+    }
+
+    private static <T> T join(CompletableFuture<T> result) {
+        for (int i = 0; i < CALLER_SPINS && !result.isDone(); i++)
+            Thread.onSpinWait();
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause)
+                throw cause;
+            throw e;
+        }
+    }
+
+    private record Command(Runnable work, CompletableFuture<?> result) {
+    }
+
+    private static final class Shard implements Runnable {
+
+        private final int index;
+        private final CommandRing<Command> ring;
+        private final Thread thread;
+        private volatile boolean sleeping;
+        private volatile boolean running = true;
+
+        Shard(int index, int ringSize) {
+            this.index = index;
+            this.ring = new CommandRing<>(ringSize);
+            this.thread = new Thread(this, "ledger-shard-" + index);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        void submit(Runnable work, CompletableFuture<?> result) {
+            Command command = new Command(work, result);
+            while (!ring.offer(command)) {
+                if (!running)
+                    throw new IllegalStateException("Transaction engine is shut down");
+                Thread.onSpinWait();
+            }
+            if (sleeping)
+                LockSupport.unpark(thread);
+        }
+
+        @Override
+        public void run() {
+            int idle = 0;
+            while (running) {
+                Command command = ring.poll();
+                if (command != null) {
+                    idle = 0;
+                    run(command);
+                } else if (++idle < IDLE_SPINS) {
+                    Thread.onSpinWait();
+                } else {
+                    sleeping = true;
+                    if (ring.isEmpty())
+                        LockSupport.parkNanos(this, PARK_NANOS);
+                    sleeping = false;
+                }
+            }
+            Command command;
+            while ((command = ring.poll()) != null)
+                run(command);
+        }
+
+        void stop() {
+            running = false;
+            LockSupport.unpark(thread);
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private static void run(Command command) {
+            try {
+                command.work().run();
+            } catch (RuntimeException e) {
+                command.result().completeExceptionally(e);
+            }
+        }
+    }
+}
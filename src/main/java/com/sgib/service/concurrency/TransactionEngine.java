@@ -0,0 +1,55 @@
+package com.sgib.service.concurrency;
+
+import com.sgib.domain.model.Account;
+import com.sgib.domain.model.AccountTransaction;
+import com.sgib.domain.model.Rejection;
+
+import java.util.List;
+
+/**
+ * Applies transactions to accounts atomically.
+ * The implementation is chosen with {@code bank.concurrency.mode}.
+ */
+public interface TransactionEngine {
+
+    /**
+     * Validates the transaction against the current state of the account, commits it and records it
+     * in the account journal.
+     *
+     * @return the committed transaction, with its balance after transaction set
+     */
+    default AccountTransaction execute(Account account, AccountTransaction accountTransaction) {
+        Rejection rejection = tryExecute(account, accountTransaction);
+        if (rejection != null)
+            throw rejection.toException();
+        return accountTransaction;
+    }
+
+    /**
+     * Like {@link #execute}, but reports a transaction that fails validation by returning the reason
+     * instead of throwing it.
+     *
+     * @return null if the transaction was committed, which then has its balance after transaction set,
+     * or the reason it was rejected, in which case the account is left unchanged
+     */
+    Rejection tryExecute(Account account, AccountTransaction accountTransaction);
+
+    /**
+     * Commits the transactions of one account in order. A transaction that fails validation does not stop
+     * the ones after it.
+     *
+     * @return for each transaction, the reason it was rejected, or null if it was committed
+     */
+    default Rejection[] executeAll(Account account, List<AccountTransaction> accountTransactions) {
+        Rejection[] rejections = new Rejection[accountTransactions.size()];
+        for (int i = 0; i < rejections.length; i++)
+            rejections[i] = tryExecute(account, accountTransactions.get(i));
+        return rejections;
+    }
+
+    /**
+     * Moves money from one account to another: commits the debit on the source and the credit on the
+     * target, and links the two journal entries to each other. The accounts must differ.
+     */
+    void transfer(Account source, Account target, AccountTransaction debit, AccountTransaction credit);
+}
@@ -0,0 +1,49 @@
+package com.sgib.service.concurrency;
+
+import com.sgib.domain.model.Account;
+import com.sgib.domain.model.AccountState;
+import com.sgib.domain.model.AccountTransaction;
+import com.sgib.domain.model.TransferLink;
+import com.sgib.repository.wal.TransactionLog;
+
+/**
+ * How a {@link TransactionEngine} commits a transfer between two accounts.
+ */
+final class Transfers {
+
+    private Transfers() {
+    }
+
+    /**
+     * Commits both legs at once. Both are validated before either account changes, and both accounts
+     * are restored if the transaction log refuses the transfer, so a failed transfer leaves no trace.
+     * The caller must own both accounts, and they must differ.
+     */
+    static void commit(Account source, Account target, AccountTransaction debit, AccountTransaction credit,
+                       TransactionLog transactionLog) {
+        AccountState sourceCurrent = source.getState();
+        AccountState targetCurrent = target.getState();
+        AccountState sourceNext = sourceCurrent.apply(debit);
+        AccountState targetNext = targetCurrent.apply(credit);
+        source.setState(sourceNext);
+        target.setState(targetNext);
+        sourceNext.book(debit);
+        targetNext.book(credit);
+        try {
+            transactionLog.transferCommitted(source.getId(), sourceNext.getSequence(), debit, target.getId(), targetNext.getSequence(), credit);
+        } catch (RuntimeException e) {
+            source.setState(sourceCurrent);
+            target.setState(targetCurrent);
+            throw e;
+        }
+        link(source, target, debit, credit);
+        source.getJournal().record(sourceNext.getSequence(), debit);
+        target.getJournal().record(targetNext.getSequence(), credit);
+    }
+
+    // before the entries are recorded, so a snapshot that sees the entries always sees the link
+    private static void link(Account source, Account target, AccountTransaction debit, AccountTransaction credit) {
+        source.getJournal().link(debit.getSequence(), new TransferLink(target.getId(), credit.getSequence()));
+        target.getJournal().link(credit.getSequence(), new TransferLink(source.getId(), debit.getSequence()));
+    }
+}
@@ -0,0 +1,11 @@
+package com.sgib.service.id;
+
+import java.util.UUID;
+
+/**
+ * Source of the ids of new accounts. The implementation is chosen with {@code bank.accounts.id-generator}.
+ */
+public interface AccountIdGenerator {
+
+    UUID nextId();
+}
@@ -0,0 +1,20 @@
+package com.sgib.service.id;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Random (version 4) ids drawn from the shared {@link java.security.SecureRandom} behind
+ * {@link UUID#randomUUID()}: unguessable, but every id takes a turn on the same entropy source.
+ */
+@Component
+@ConditionalOnProperty(name = "bank.accounts.id-generator", havingValue = "secure-random", matchIfMissing = true)
+public class SecureRandomAccountIdGenerator implements AccountIdGenerator {
+
+    @Override
+    public UUID nextId() {
+        return UUID.randomUUID();
+    }
+}
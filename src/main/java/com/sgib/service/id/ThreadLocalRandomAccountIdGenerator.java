@@ -0,0 +1,25 @@
+package com.sgib.service.id;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Random (version 4) ids drawn from the random generator of the calling thread, so threads creating
+ * accounts never wait on each other. The generator is not cryptographically strong: only use it when
+ * account ids are not relied upon to be unguessable.
+ */
+@Component
+@ConditionalOnProperty(name = "bank.accounts.id-generator", havingValue = "thread-local-random")
+public class ThreadLocalRandomAccountIdGenerator implements AccountIdGenerator {
+
+    @Override
+    public UUID nextId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long mostSignificantBits = random.nextLong() & ~0xF000L | 0x4000L;
+        long leastSignificantBits = random.nextLong() & 0x3FFFFFFFFFFFFFFFL | 0x8000000000000000L;
+        return new UUID(mostSignificantBits, leastSignificantBits);
+    }
+}
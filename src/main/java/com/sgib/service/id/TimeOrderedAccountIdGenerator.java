@@ -0,0 +1,27 @@
+package com.sgib.service.id;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Time-ordered (version 7) ids: the creation time in milliseconds in the 48 high bits, followed by 74
+ * random bits from the random generator of the calling thread. Ids sort by creation time, and the
+ * accounts created together sit next to each other in any index ordered by id. Like
+ * {@link ThreadLocalRandomAccountIdGenerator}, the ids are not meant to be unguessable, and they
+ * reveal when the account was created.
+ */
+@Component
+@ConditionalOnProperty(name = "bank.accounts.id-generator", havingValue = "time-ordered")
+public class TimeOrderedAccountIdGenerator implements AccountIdGenerator {
+
+    @Override
+    public UUID nextId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long mostSignificantBits = System.currentTimeMillis() << 16 | 0x7000L | random.nextInt(1 << 12);
+        long leastSignificantBits = random.nextLong() & 0x3FFFFFFFFFFFFFFFL | 0x8000000000000000L;
+        return new UUID(mostSignificantBits, leastSignificantBits);
+    }
+}
@@ -0,0 +1,188 @@
+package com.sgib.service.idempotency;
+
+import com.sgib.domain.dto.AccountTransactionDTO;
+import com.sgib.exception.IdempotencyKeyReusedException;
+import com.sgib.exception.InvalidIdempotencyKeyException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import static com.sgib.exception.Messages.IDEMPOTENCY_KEY_REUSED;
+import static com.sgib.exception.Messages.IDEMPOTENCY_KEY_TOO_LONG;
+
+/**
+ * Remembers the outcome of the transactions posted with an {@code Idempotency-Key}, so a client
+ * retrying after a timeout gets the original transaction back instead of committing it twice.
+ * <p>
+ * Keys are scoped to their account and split into segments by account id, each with its own lock and
+ * held only while looking up or inserting, never while the transaction runs. A retry that arrives
+ * while the original is still running waits for it. Only committed transactions are remembered: a
+ * rejected one can be retried with the same key. A key reused for a transaction with another type,
+ * amount or date is refused rather than answered with the result of the first one.
+ * <p>
+ * Memory is bounded by {@code bank.idempotency.max-keys}: each segment keeps its keys in insertion
+ * order, drops the ones older than {@code bank.idempotency.ttl-seconds} as new keys come in, and
+ * drops the oldest one when it is full.
+ */
+@Component
+public class IdempotencyCache {
+
+    public static final int MAX_KEY_LENGTH = 255;
+
+    private final Segment[] segments;
+    private final int mask;
+    private final long ttlNanos;
+    LongSupplier nanoClock = System::nanoTime;
+
+    public IdempotencyCache(@Value("${bank.idempotency.max-keys:1000000}") int maxKeys,
+                            @Value("${bank.idempotency.ttl-seconds:86400}") long ttlSeconds,
+                            @Value("${bank.idempotency.segments:64}") int segmentCount) {
+        int size = segmentCount <= 1 ? 1 : Integer.highestOneBit(segmentCount - 1) << 1;
+        int segmentCapacity = Math.max(1, (maxKeys + size - 1) / size);
+        this.segments = new Segment[size];
+        for (int i = 0; i < size; i++)
+            segments[i] = new Segment(segmentCapacity);
+        this.mask = size - 1;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+    }
+
+    /**
+     * Runs the transaction, unless one was already posted on the account with the same key: then
+     * returns its result, waiting for it if it is still running.
+     *
+     * @param request the transaction as posted, which a replay of the key must match
+     */
+    public AccountTransactionDTO execute(UUID accountId, String idempotencyKey, AccountTransactionDTO request,
+                                         Supplier<AccountTransactionDTO> transaction) {
+        if (idempotencyKey.length() > MAX_KEY_LENGTH)
+            throw new InvalidIdempotencyKeyException(String.format(IDEMPOTENCY_KEY_TOO_LONG, MAX_KEY_LENGTH));
+        Key key = new Key(accountId, idempotencyKey);
+        Segment segment = segmentFor(accountId);
+        long nowNanos = nanoClock.getAsLong();
+        Fingerprint fingerprint = Fingerprint.of(request);
+        Entry entry = new Entry(new CompletableFuture<>(), fingerprint, nowNanos + ttlNanos);
+        Entry existing = segment.putIfAbsent(key, entry, nowNanos);
+        if (existing != null) {
+            if (!existing.fingerprint().equals(fingerprint))
+                throw new IdempotencyKeyReusedException(String.format(IDEMPOTENCY_KEY_REUSED, idempotencyKey));
+            return join(existing.result());
+        }
+        try {
+            AccountTransactionDTO result = transaction.get();
+            entry.result().complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            segment.remove(key, entry);
+            entry.result().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments)
+            size += segment.size();
+        return size;
+    }
+
+    private Segment segmentFor(UUID accountId) {
+        int h = accountId.hashCode();
+        return segments[(h ^ (h >>> 16)) & mask];
+    }
+
+    private static AccountTransactionDTO join(CompletableFuture<AccountTransactionDTO> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause)
+                throw cause;
+            throw e;
+        }
+    }
+
+    private record Key(UUID accountId, String idempotencyKey) {
+    }
+
+    // amounts are compared by value, so 10 and 10.00 are the same transaction
+    private record Fingerprint(String type, BigDecimal amount, LocalDateTime date) {
+
+        static Fingerprint of(AccountTransactionDTO request) {
+            BigDecimal amount = request.getAmount();
+            return new Fingerprint(request.getType(), amount == null ? null : amount.stripTrailingZeros(),
+                    request.getTransactionDate());
+        }
+    }
+
+    private record Entry(CompletableFuture<AccountTransactionDTO> result, Fingerprint fingerprint, long expiresAtNanos) {
+
+        boolean isExpired(long nowNanos) {
+            return nowNanos - expiresAtNanos >= 0;
+        }
+    }
+
+    private static final class Segment {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<Key, Entry> entries;
+
+        Segment(int capacity) {
+            this.entries = new LinkedHashMap<>() {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                    return size() > capacity;
+                }
+            };
+        }
+
+        /**
+         * @return the live entry already held for the key, or null if the given one was added
+         */
+        Entry putIfAbsent(Key key, Entry entry, long nowNanos) {
+            lock.lock();
+            try {
+                // every entry gets the same TTL, so insertion order is expiry order and the expired ones are
+                // at the head; entries with their own TTL would need to be kept sorted by expiry instead
+                Iterator<Entry> oldest = entries.values().iterator();
+                while (oldest.hasNext() && oldest.next().isExpired(nowNanos))
+                    oldest.remove();
+                Entry existing = entries.get(key);
+                if (existing != null)
+                    return existing;
+                entries.put(key, entry);
+                return null;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void remove(Key key, Entry entry) {
+            lock.lock();
+            try {
+                entries.remove(key, entry);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int size() {
+            lock.lock();
+            try {
+                return entries.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.sgib.service.journal;
+
+import com.sgib.repository.AccountRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Periodically seals the journal history older than {@code bank.journal.cold.age-days} of every
+ * account, off the transaction path. Recent history, which most reads are about, stays as it is.
+ */
+@Component
+@ConditionalOnExpression("${bank.journal.cold.age-days:90} > 0")
+public class JournalSealer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JournalSealer.class);
+
+    private final AccountRepository accountRepository;
+    private final long ageMillis;
+    private final boolean deflate;
+    private final ScheduledExecutorService executor;
+
+    public JournalSealer(AccountRepository accountRepository,
+                         @Value("${bank.journal.cold.age-days:90}") int ageDays,
+                         @Value("${bank.journal.cold.deflate:false}") boolean deflate,
+                         @Value("${bank.journal.cold.interval-ms:3600000}") long intervalMs) {
+        this.accountRepository = accountRepository;
+        this.ageMillis = Duration.ofDays(ageDays).toMillis();
+        this.deflate = deflate;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "journal-sealer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::sealQuietly, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Seals the history booked before the given time.
+     *
+     * @return the number of chunks sealed
+     */
+    public long seal(long beforeMillis) {
+        LongAdder sealed = new LongAdder();
+        accountRepository.forEach(account -> sealed.add(account.getJournal().seal(beforeMillis, deflate)));
+        return sealed.sum();
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    private void sealQuietly() {
+        try {
+            long sealed = seal(System.currentTimeMillis() - ageMillis);
+            if (sealed > 0)
+                LOGGER.info("Sealed {} journal chunks", sealed);
+        } catch (Exception e) {
+            LOGGER.error("Journal sealing failed", e);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.sgib.service.metrics;
+
+import com.sgib.domain.model.AccountTransactionType;
+import com.sgib.domain.model.Rejection;
+import com.sgib.exception.AccountBusyException;
+import com.sgib.exception.AccountNotFoundException;
+import com.sgib.exception.InsufficientFundsException;
+import com.sgib.exception.InvalidAmountException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Meters of the transaction hot path. Every meter is registered up front, so recording never looks
+ * anything up in the registry, and the contention meters are only touched when a committer actually
+ * had to wait or retry.
+ * <p>
+ * Contended commits are also counted per account, for at most {@code bank.metrics.tracked-accounts}
+ * accounts per window. {@link #publishHotAccounts()} exposes the most contended ones as the
+ * {@code bank.account.contention} gauge and starts a new window.
+ */
+@Component
+public class LedgerMetrics {
+
+    private static final AccountTransactionType[] TYPES = AccountTransactionType.values();
+
+    private final Timer[] transactionLatencies;
+    private final Counter insufficientFunds;
+    private final Counter invalidAmount;
+    private final Counter accountNotFound;
+    private final Counter accountBusy;
+    private final Counter invalidRequest;
+    private final Timer lockWait;
+    private final Counter contendedCommits;
+    private final DistributionSummary journalLength;
+    private final MultiGauge hotAccounts;
+    private final int trackedAccounts;
+    private final int hotAccountCount;
+    private volatile ConcurrentHashMap<UUID, LongAdder> contentionByAccount = new ConcurrentHashMap<>();
+
+    public LedgerMetrics(MeterRegistry meterRegistry,
+                         @Value("${bank.metrics.tracked-accounts:4096}") int trackedAccounts,
+                         @Value("${bank.metrics.hot-accounts:10}") int hotAccountCount) {
+        this.trackedAccounts = trackedAccounts;
+        this.hotAccountCount = hotAccountCount;
+        this.transactionLatencies = new Timer[TYPES.length];
+        for (AccountTransactionType type : TYPES)
+            transactionLatencies[type.ordinal()] = Timer.builder("bank.transaction.latency")
+                    .description("Time to validate, commit and make durable a transaction")
+                    .tag("type", type.name())
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofNanos(1_000))
+                    .maximumExpectedValue(Duration.ofSeconds(1))
+                    .register(meterRegistry);
+        this.insufficientFunds = rejections(meterRegistry, "insufficient_funds");
+        this.invalidAmount = rejections(meterRegistry, "invalid_amount");
+        this.accountNotFound = rejections(meterRegistry, "account_not_found");
+        this.accountBusy = rejections(meterRegistry, "account_busy");
+        this.invalidRequest = rejections(meterRegistry, "invalid_request");
+        this.lockWait = Timer.builder("bank.lock.wait")
+                .description("Time spent waiting for an account lock held by another committer")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(1_000))
+                .maximumExpectedValue(Duration.ofSeconds(1))
+                .register(meterRegistry);
+        this.contendedCommits = Counter.builder("bank.transaction.contended")
+                .description("Commits that had to wait for a lock or retry a compare-and-set")
+                .register(meterRegistry);
+        this.journalLength = DistributionSummary.builder("bank.journal.length")
+                .description("Number of transactions in the journal of each account, sampled periodically")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(1.0)
+                .maximumExpectedValue(10_000_000.0)
+                .register(meterRegistry);
+        this.hotAccounts = MultiGauge.builder("bank.account.contention")
+                .description("Contended commits of the most contended accounts during the last window")
+                .register(meterRegistry);
+    }
+
+    public void transactionCommitted(AccountTransactionType type, long nanos) {
+        transactionLatencies[type.ordinal()].record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void transactionRejected(RuntimeException reason) {
+        if (reason instanceof InsufficientFundsException)
+            insufficientFunds.increment();
+        else if (reason instanceof InvalidAmountException)
+            invalidAmount.increment();
+        else if (reason instanceof AccountNotFoundException)
+            accountNotFound.increment();
+        else if (reason instanceof AccountBusyException)
+            accountBusy.increment();
+        else
+            invalidRequest.increment();
+    }
+
+    public void transactionRejected(Rejection reason) {
+        if (reason == Rejection.INSUFFICIENT_FUNDS)
+            insufficientFunds.increment();
+        else
+            invalidAmount.increment();
+    }
+
+    public void lockWaited(UUID accountId, long nanos) {
+        lockWait.record(nanos, TimeUnit.NANOSECONDS);
+        contended(accountId);
+    }
+
+    public void compareAndSetRetried(UUID accountId) {
+        contended(accountId);
+    }
+
+    public void journalLength(long length) {
+        journalLength.record(length);
+    }
+
+    /**
+     * Publishes the most contended accounts of the window that just ended and starts a new one.
+     */
+    public void publishHotAccounts() {
+        Map<UUID, LongAdder> window = contentionByAccount;
+        contentionByAccount = new ConcurrentHashMap<>();
+        List<MultiGauge.Row<?>> rows = new ArrayList<>(hotAccountCount);
+        window.entrySet().stream()
+                .map(entry -> Map.entry(entry.getKey(), entry.getValue().sum()))
+                .sorted(Map.Entry.<UUID, Long>comparingByValue(Comparator.reverseOrder()))
+                .limit(hotAccountCount)
+                .forEach(entry -> rows.add(MultiGauge.Row.of(Tags.of("account", entry.getKey().toString()), entry.getValue())));
+        hotAccounts.register(rows, true);
+    }
+
+    private void contended(UUID accountId) {
+        contendedCommits.increment();
+        ConcurrentHashMap<UUID, LongAdder> window = contentionByAccount;
+        LongAdder counter = window.get(accountId);
+        if (counter == null) {
+            if (window.size() >= trackedAccounts)
+                return;
+            counter = window.computeIfAbsent(accountId, id -> new LongAdder());
+        }
+        counter.increment();
+    }
+
+    private static Counter rejections(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("bank.transaction.rejected")
+                .description("Transactions rejected, by reason")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
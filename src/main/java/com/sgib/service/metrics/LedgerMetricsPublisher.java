@@ -0,0 +1,58 @@
+package com.sgib.service.metrics;
+
+import com.sgib.repository.AccountRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically publishes the hot accounts and samples the journal length of every account, off the
+ * transaction path.
+ */
+@Component
+@ConditionalOnExpression("${bank.metrics.publish-interval-ms:15000} > 0")
+public class LedgerMetricsPublisher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LedgerMetricsPublisher.class);
+
+    private final AccountRepository accountRepository;
+    private final LedgerMetrics ledgerMetrics;
+    private final ScheduledExecutorService executor;
+
+    public LedgerMetricsPublisher(AccountRepository accountRepository, LedgerMetrics ledgerMetrics,
+                                  @Value("${bank.metrics.publish-interval-ms:15000}") long intervalMs) {
+        this.accountRepository = accountRepository;
+        this.ledgerMetrics = ledgerMetrics;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ledger-metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::publishQuietly, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void publish() {
+        ledgerMetrics.publishHotAccounts();
+        accountRepository.forEach(account -> ledgerMetrics.journalLength(account.getJournal().size()));
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    private void publishQuietly() {
+        try {
+            publish();
+        } catch (Exception e) {
+            LOGGER.error("Ledger metrics publication failed", e);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.sgib.service.notification;
+
+import com.sgib.domain.dto.AccountTransactionDTO;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pushes committed transactions to whoever listens to their account.
+ * <p>
+ * An account only has a channel while it has listeners, so publishing a transaction nobody listens
+ * to costs one map lookup. A channel never buffers: a listener that has no demand skips the
+ * transaction, and it is up to the listener to buffer. Every transaction carries its sequence, so a
+ * listener that missed some can fetch them from the history.
+ */
+@Component
+public class TransactionNotifier {
+
+    private final ConcurrentHashMap<UUID, Channel> channels = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the transactions committed on the account from the time of subscription on. Concurrent
+     * commits may arrive out of sequence order.
+     */
+    public Flux<AccountTransactionDTO> transactions(UUID accountId) {
+        return Flux.defer(() -> {
+            Channel channel = channels.compute(accountId, (id, current) -> {
+                Channel joined = current == null ? new Channel() : current;
+                joined.listeners++;
+                return joined;
+            });
+            return channel.sink.asFlux()
+                    .doFinally(signal -> channels.computeIfPresent(accountId, (id, current) -> --current.listeners == 0 ? null : current));
+        });
+    }
+
+    public void transactionCommitted(UUID accountId, AccountTransactionDTO accountTransactionDTO) {
+        Channel channel = channels.get(accountId);
+        if (channel == null)
+            return;
+        // a sink must not be signalled by two threads at once
+        synchronized (channel) {
+            channel.sink.tryEmitNext(accountTransactionDTO);
+        }
+    }
+
+    /**
+     * Whether anybody listens to the account, for publishers that would rather not build a transaction
+     * nobody receives.
+     */
+    public boolean hasListeners(UUID accountId) {
+        return channels.containsKey(accountId);
+    }
+
+    public int channelCount() {
+        return channels.size();
+    }
+
+    private static final class Channel {
+        private final Sinks.Many<AccountTransactionDTO> sink = Sinks.many().multicast().directBestEffort();
+        private int listeners;
+    }
+}
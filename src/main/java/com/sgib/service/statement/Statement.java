@@ -0,0 +1,74 @@
+package com.sgib.service.statement;
+
+import com.sgib.domain.model.Account;
+import com.sgib.domain.model.AccountJournal;
+import com.sgib.domain.model.JournalCursor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * The transactions of an account booked in {@code [from, to)}, with the balance before and after them.
+ * The range of the journal is fixed when the statement is taken, so transactions booked while it is
+ * printed are left out, and nothing is read until it is printed.
+ */
+public final class Statement {
+
+    private final UUID accountId;
+    private final LocalDateTime from;
+    private final LocalDateTime to;
+    private final AccountJournal journal;
+    private final long start;
+    private final long end;
+    private final long openingBalance;
+    private final long closingBalance;
+
+    private Statement(UUID accountId, LocalDateTime from, LocalDateTime to, AccountJournal journal, long start, long end,
+                      long openingBalance, long closingBalance) {
+        this.accountId = accountId;
+        this.from = from;
+        this.to = to;
+        this.journal = journal;
+        this.start = start;
+        this.end = end;
+        this.openingBalance = openingBalance;
+        this.closingBalance = closingBalance;
+    }
+
+    public static Statement of(Account account, LocalDateTime from, LocalDateTime to) {
+        AccountJournal journal = account.getJournal();
+        long balance = account.getBalance();
+        long end = journal.indexAt(to == null ? Long.MAX_VALUE : AccountJournal.toEpochMillis(to));
+        long start = Math.min(journal.indexAt(from == null ? Long.MIN_VALUE : AccountJournal.toEpochMillis(from)), end);
+        return new Statement(account.getId(), from, to, journal, start, end,
+                journal.balanceBefore(start, balance), journal.balanceBefore(end, balance));
+    }
+
+    public UUID getAccountId() {
+        return accountId;
+    }
+
+    public LocalDateTime getFrom() {
+        return from;
+    }
+
+    public LocalDateTime getTo() {
+        return to;
+    }
+
+    public long getOpeningBalance() {
+        return openingBalance;
+    }
+
+    public long getClosingBalance() {
+        return closingBalance;
+    }
+
+    public long size() {
+        return end - start;
+    }
+
+    public JournalCursor cursor() {
+        return journal.cursor(start, end);
+    }
+}
@@ -0,0 +1,79 @@
+package com.sgib.service.statement;
+
+import com.sgib.domain.dto.StatementRunDTO;
+import com.sgib.exception.StatementRunInProgressException;
+import com.sgib.repository.AccountRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.sgib.exception.Messages.STATEMENT_RUN_IN_PROGRESS;
+
+/**
+ * Prints the statements of every account into files, on a fork-join pool of its own so that a
+ * month-end run uses every core without taking threads from request handling. One run at a time;
+ * the statements of a period go to a directory named after it, and running the period again
+ * overwrites them.
+ */
+@Service
+public class StatementBatch {
+
+    private final AccountRepository accountRepository;
+    private final Path directory;
+    private final ForkJoinPool pool;
+    private final AtomicReference<StatementRun> lastRun = new AtomicReference<>();
+
+    public StatementBatch(AccountRepository accountRepository,
+                          @Value("${bank.statements.directory:data/statements}") String directory,
+                          @Value("${bank.statements.parallelism:0}") int parallelism) {
+        this.accountRepository = accountRepository;
+        this.directory = Path.of(directory);
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Starts a run in the background and returns its progress so far.
+     */
+    public StatementRunDTO start(LocalDate from, LocalDate to, StatementFormat format) {
+        return launch(from, to, format).progress();
+    }
+
+    /**
+     * Runs and waits for the run to finish.
+     */
+    public StatementRunDTO run(LocalDate from, LocalDate to, StatementFormat format) {
+        StatementRun run = launch(from, to, format);
+        run.join();
+        return run.progress();
+    }
+
+    /**
+     * Returns the progress of the current run, or the outcome of the last one.
+     */
+    public Optional<StatementRunDTO> getLastRun() {
+        return Optional.ofNullable(lastRun.get()).map(StatementRun::progress);
+    }
+
+    @PreDestroy
+    public void stop() {
+        pool.shutdownNow();
+    }
+
+    private StatementRun launch(LocalDate from, LocalDate to, StatementFormat format) {
+        StatementRun run = new StatementRun(from, to, format, directory.resolve(from + "_" + to), accountRepository,
+                pool.getParallelism());
+        StatementRun previous = lastRun.get();
+        if (previous != null && previous.isRunning() || !lastRun.compareAndSet(previous, run)) {
+            StatementRunDTO current = lastRun.get().progress();
+            throw new StatementRunInProgressException(String.format(STATEMENT_RUN_IN_PROGRESS, current.getFrom(), current.getTo()));
+        }
+        pool.execute(run);
+        return run;
+    }
+}
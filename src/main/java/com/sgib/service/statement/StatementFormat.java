@@ -0,0 +1,55 @@
+package com.sgib.service.statement;
+
+import org.springframework.http.MediaType;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Layouts a statement can be printed in.
+ */
+public enum StatementFormat {
+
+    /**
+     * Aligned columns between an opening and a closing balance, for reading.
+     */
+    TEXT(MediaType.TEXT_PLAIN_VALUE, "txt"),
+    /**
+     * A header and one row per transaction, for spreadsheets.
+     */
+    CSV(StatementFormat.CSV_VALUE, "csv");
+
+    public static final String CSV_VALUE = "text/csv";
+
+    private final String mediaType;
+    private final String fileExtension;
+
+    StatementFormat(String mediaType, String fileExtension) {
+        this.mediaType = mediaType;
+        this.fileExtension = fileExtension;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public String getFileExtension() {
+        return fileExtension;
+    }
+
+    /**
+     * The format the Accept header prefers, text when it names neither.
+     */
+    public static StatementFormat forAccept(String accept) {
+        if (accept == null)
+            return TEXT;
+        List<MediaType> mediaTypes = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        mediaTypes.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        for (MediaType mediaType : mediaTypes)
+            for (StatementFormat format : values())
+                if (mediaType.equalsTypeAndSubtype(MediaType.parseMediaType(format.mediaType)))
+                    return format;
+        return TEXT;
+    }
+}
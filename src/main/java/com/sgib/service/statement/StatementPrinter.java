@@ -0,0 +1,36 @@
+package com.sgib.service.statement;
+
+import com.sgib.exception.AccountNotFoundException;
+import com.sgib.repository.AccountRepository;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static com.sgib.exception.Messages.ACCOUNT_NOT_FOUND;
+
+/**
+ * Prints the statement of one account. Taking the statement and printing it are two steps, so that a
+ * missing account is reported before the response starts.
+ */
+@Service
+public class StatementPrinter {
+
+    private final AccountRepository accountRepository;
+
+    public StatementPrinter(AccountRepository accountRepository) {
+        this.accountRepository = accountRepository;
+    }
+
+    public Statement getStatement(UUID accountId, LocalDateTime from, LocalDateTime to) {
+        return accountRepository.findOne(accountId)
+                .map(account -> Statement.of(account, from, to))
+                .orElseThrow(() -> new AccountNotFoundException(String.format(ACCOUNT_NOT_FOUND, accountId)));
+    }
+
+    public void print(Statement statement, StatementFormat format, OutputStream output) throws IOException {
+        new StatementWriter().write(statement, format, output);
+    }
+}
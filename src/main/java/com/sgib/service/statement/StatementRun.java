@@ -0,0 +1,148 @@
+package com.sgib.service.statement;
+
+import com.sgib.domain.dto.StatementRunDTO;
+import com.sgib.domain.model.Account;
+import com.sgib.repository.AccountRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * One run printing the statement of every account for {@code [from, to)} into a file per account.
+ * <p>
+ * Accounts are handed out in slices of {@link #ACCOUNTS_PER_SLICE} while the repository is visited,
+ * and no more than a few slices per worker are waiting at any time, so the run holds no list of the
+ * whole book. Each worker prints with a {@link StatementWriter} of its own, reused from one account
+ * to the next, which keeps the heap flat however many accounts and transactions there are.
+ */
+final class StatementRun extends RecursiveAction {
+
+    static final int ACCOUNTS_PER_SLICE = 256;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StatementRun.class);
+
+    private final LocalDate from;
+    private final LocalDate to;
+    private final StatementFormat format;
+    private final Path directory;
+    private final AccountRepository accountRepository;
+    private final int maxPendingSlices;
+    private final ThreadLocal<StatementWriter> writers = ThreadLocal.withInitial(StatementWriter::new);
+    private final LongAdder accounts = new LongAdder();
+    private final LongAdder printed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private volatile String status = StatementRunDTO.RUNNING;
+    private volatile String message;
+
+    StatementRun(LocalDate from, LocalDate to, StatementFormat format, Path directory, AccountRepository accountRepository,
+                 int parallelism) {
+        this.from = from;
+        this.to = to;
+        this.format = format;
+        this.directory = directory;
+        this.accountRepository = accountRepository;
+        this.maxPendingSlices = 4 * parallelism;
+    }
+
+    @Override
+    protected void compute() {
+        try {
+            Files.createDirectories(directory);
+            Slicer slicer = new Slicer();
+            accountRepository.forEach(slicer);
+            slicer.finish();
+            status = StatementRunDTO.COMPLETED;
+        } catch (Exception e) {
+            LOGGER.error("Statement run for {} to {} failed", from, to, e);
+            message = e.getMessage();
+            status = StatementRunDTO.FAILED;
+        }
+    }
+
+    boolean isRunning() {
+        return StatementRunDTO.RUNNING.equals(status);
+    }
+
+    StatementRunDTO progress() {
+        return StatementRunDTO.builder()
+                .from(from)
+                .to(to)
+                .format(format.name())
+                .status(status)
+                .directory(directory.toString())
+                .accounts(accounts.sum())
+                .printed(printed.sum())
+                .failed(failed.sum())
+                .message(message)
+                .build();
+    }
+
+    // a file that cannot be written is counted and the run goes on with the next account
+    private void print(Account account, StatementWriter writer) {
+        Path file = directory.resolve(account.getId() + "." + format.getFileExtension());
+        try (OutputStream output = Files.newOutputStream(file)) {
+            writer.write(Statement.of(account, from.atStartOfDay(), to.atStartOfDay()), format, output);
+            printed.increment();
+        } catch (IOException e) {
+            LOGGER.warn("Could not print the statement of {} to {}", account.getId(), file, e);
+            message = e.getMessage();
+            failed.increment();
+        }
+    }
+
+    private final class Slicer implements Consumer<Account> {
+
+        private final Queue<ForkJoinTask<?>> pending = new ArrayDeque<>();
+        private Account[] slice = new Account[ACCOUNTS_PER_SLICE];
+        private int size;
+
+        @Override
+        public void accept(Account account) {
+            accounts.increment();
+            slice[size++] = account;
+            if (size < ACCOUNTS_PER_SLICE)
+                return;
+            pending.add(new Slice(slice, size).fork());
+            slice = new Account[ACCOUNTS_PER_SLICE];
+            size = 0;
+            if (pending.size() > maxPendingSlices)
+                pending.remove().join();
+        }
+
+        private void finish() {
+            if (size > 0)
+                pending.add(new Slice(slice, size).fork());
+            while (!pending.isEmpty())
+                pending.remove().join();
+        }
+    }
+
+    private final class Slice extends RecursiveAction {
+
+        private final Account[] accounts;
+        private final int size;
+
+        private Slice(Account[] accounts, int size) {
+            this.accounts = accounts;
+            this.size = size;
+        }
+
+        @Override
+        protected void compute() {
+            StatementWriter writer = writers.get();
+            for (int i = 0; i < size; i++)
+                print(accounts[i], writer);
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.sgib.service.statement;
+
+import com.sgib.domain.model.AccountJournal;
+import com.sgib.domain.model.AccountTransactionType;
+import com.sgib.domain.model.JournalCursor;
+import com.sgib.domain.model.Money;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Prints statements straight from the journal. Lines are formatted in a buffer owned by the writer,
+ * which goes to the output stream whenever it fills up, so printing allocates nothing per transaction
+ * and needs the same memory for a statement of ten lines or ten million.
+ * <p>
+ * A writer prints any number of statements one after the other, but only one at a time.
+ */
+public final class StatementWriter {
+
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    private static final int MAX_LINE_LENGTH = 128;
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+    private static final byte[][] TYPES = new byte[AccountTransactionType.values().length][];
+    private static final int DATE_WIDTH = 23;
+    private static final int TYPE_WIDTH;
+    private static final int MONEY_WIDTH = 16;
+    private static final int GAP = 2;
+
+    static {
+        int typeWidth = 0;
+        for (AccountTransactionType type : AccountTransactionType.values()) {
+            TYPES[type.ordinal()] = type.name().getBytes(StandardCharsets.US_ASCII);
+            typeWidth = Math.max(typeWidth, type.name().length());
+        }
+        TYPE_WIDTH = typeWidth;
+    }
+
+    private final byte[] buffer;
+    private final byte[] digits = new byte[24];
+    private byte[] day = new byte[0];
+    private long epochDay = Long.MIN_VALUE;
+    private OutputStream output;
+    private int position;
+
+    public StatementWriter() {
+        this(DEFAULT_BUFFER_SIZE);
+    }
+
+    public StatementWriter(int bufferSize) {
+        this.buffer = new byte[Math.max(bufferSize, MAX_LINE_LENGTH)];
+    }
+
+    /**
+     * Prints the statement and flushes it to the output stream, which is left open.
+     */
+    public void write(Statement statement, StatementFormat format, OutputStream output) throws IOException {
+        this.output = output;
+        position = 0;
+        try {
+            if (format == StatementFormat.CSV)
+                writeCsv(statement);
+            else
+                writeText(statement);
+            flushBuffer();
+            output.flush();
+        } finally {
+            this.output = null;
+        }
+    }
+
+    private void writeText(Statement statement) throws IOException {
+        appendLine("Statement of account " + statement.getAccountId());
+        appendLine("Period: " + describe(statement.getFrom(), "beginning") + " to " + describe(statement.getTo(), "now"));
+        appendAscii("Opening balance: ");
+        appendMoney(statement.getOpeningBalance(), 0);
+        newLine();
+        newLine();
+        appendLeft("Date", DATE_WIDTH + GAP);
+        appendLeft("Type", TYPE_WIDTH);
+        appendRight("Amount", MONEY_WIDTH);
+        appendRight("Balance", MONEY_WIDTH);
+        newLine();
+        JournalCursor cursor = statement.cursor();
+        while (cursor.next()) {
+            appendDate(cursor.epochMillis(), (byte) ' ');
+            appendSpaces(GAP);
+            AccountTransactionType type = cursor.type();
+            appendLeft(TYPES[type.ordinal()], TYPE_WIDTH);
+            appendMoney(type.isDebit() ? -cursor.amount() : cursor.amount(), MONEY_WIDTH);
+            appendMoney(cursor.balanceAfterTransaction(), MONEY_WIDTH);
+            newLine();
+        }
+        newLine();
+        appendAscii("Closing balance: ");
+        appendMoney(statement.getClosingBalance(), 0);
+        newLine();
+    }
+
+    private void writeCsv(Statement statement) throws IOException {
+        appendLine("date,type,amount,balance");
+        JournalCursor cursor = statement.cursor();
+        while (cursor.next()) {
+            appendDate(cursor.epochMillis(), (byte) 'T');
+            buffer[position++] = ',';
+            AccountTransactionType type = cursor.type();
+            appendLeft(TYPES[type.ordinal()], 0);
+            buffer[position++] = ',';
+            appendMoney(type.isDebit() ? -cursor.amount() : cursor.amount(), 0);
+            buffer[position++] = ',';
+            appendMoney(cursor.balanceAfterTransaction(), 0);
+            newLine();
+        }
+    }
+
+    private static String describe(LocalDateTime date, String whenMissing) {
+        return date == null ? whenMissing : date.toString();
+    }
+
+    // the date of the day is formatted again only when it changes, which in a statement is seldom
+    private void appendDate(long epochMillis, byte separator) {
+        if (epochMillis == AccountJournal.NO_DATE) {
+            appendSpaces(DATE_WIDTH);
+            return;
+        }
+        long currentDay = Math.floorDiv(epochMillis, MILLIS_PER_DAY);
+        if (currentDay != epochDay) {
+            day = LocalDate.ofEpochDay(currentDay).toString().getBytes(StandardCharsets.US_ASCII);
+            epochDay = currentDay;
+        }
+        System.arraycopy(day, 0, buffer, position, day.length);
+        position += day.length;
+        buffer[position++] = separator;
+        int millisOfDay = (int) Math.floorMod(epochMillis, MILLIS_PER_DAY);
+        appendFixed(millisOfDay / 3_600_000, 2);
+        buffer[position++] = ':';
+        appendFixed(millisOfDay / 60_000 % 60, 2);
+        buffer[position++] = ':';
+        appendFixed(millisOfDay / 1000 % 60, 2);
+        buffer[position++] = '.';
+        appendFixed(millisOfDay % 1000, 3);
+    }
+
+    private void appendFixed(int value, int width) {
+        for (int i = position + width - 1; i >= position; i--, value /= 10)
+            buffer[i] = (byte) ('0' + value % 10);
+        position += width;
+    }
+
+    // digits are produced from the right, on the negative value so that Long.MIN_VALUE fits
+    private void appendMoney(long minorUnits, int width) {
+        long value = minorUnits < 0 ? minorUnits : -minorUnits;
+        int start = digits.length;
+        for (int i = 0; i < Money.SCALE; i++, value /= 10)
+            digits[--start] = (byte) ('0' - value % 10);
+        if (Money.SCALE > 0)
+            digits[--start] = '.';
+        do {
+            digits[--start] = (byte) ('0' - value % 10);
+            value /= 10;
+        } while (value != 0);
+        if (minorUnits < 0)
+            digits[--start] = '-';
+        int length = digits.length - start;
+        appendSpaces(width - length);
+        System.arraycopy(digits, start, buffer, position, length);
+        position += length;
+    }
+
+    private void appendLeft(byte[] text, int width) {
+        System.arraycopy(text, 0, buffer, position, text.length);
+        position += text.length;
+        appendSpaces(width - text.length);
+    }
+
+    private void appendLeft(String text, int width) {
+        appendAscii(text);
+        appendSpaces(width - text.length());
+    }
+
+    private void appendRight(String text, int width) {
+        appendSpaces(width - text.length());
+        appendAscii(text);
+    }
+
+    private void appendSpaces(int count) {
+        for (int i = 0; i < count; i++)
+            buffer[position++] = ' ';
+    }
+
+    private void appendLine(String text) throws IOException {
+        appendAscii(text);
+        newLine();
+    }
+
+    // headers only, which are short and ASCII
+    private void appendAscii(String text) {
+        for (int i = 0; i < text.length(); i++)
+            buffer[position++] = (byte) text.charAt(i);
+    }
+
+    // every line fits in MAX_LINE_LENGTH, so making room after each one is enough
+    private void newLine() throws IOException {
+        buffer[position++] = '\n';
+        reserve();
+    }
+
+    private void reserve() throws IOException {
+        if (position + MAX_LINE_LENGTH > buffer.length)
+            flushBuffer();
+    }
+
+    private void flushBuffer() throws IOException {
+        output.write(buffer, 0, position);
+        position = 0;
+    }
+}
@@ -3,8 +3,11 @@ package com.sgib.controller;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.sgib.controller.binary.LedgerBinaryFormat;
 import com.sgib.domain.dto.AccountDTO;
 import com.sgib.domain.dto.AccountTransactionDTO;
+import com.sgib.domain.dto.BatchTransactionDTO;
+import com.sgib.domain.dto.TransferDTO;
 import com.sgib.exception.Messages;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
@@ -12,11 +15,18 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -25,6 +35,8 @@ import java.util.UUID;
 import static com.sgib.exception.Messages.ACCOUNT_NOT_FOUND;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -48,6 +60,22 @@ class AccountControllerIT {
         objectMapper.registerModule(new JavaTimeModule());
     }
 
+    @Test
+    void should_create_accounts_in_bulk() throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(post(API_URL).param("count", "3"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andReturn().getResponse();
+
+        AccountDTO[] accounts = objectMapper.readValue(response.getContentAsString(), AccountDTO[].class);
+        for (AccountDTO account : accounts)
+            mockMvc.perform(get(API_URL + "/{accountId}", account.getId()))
+                    .andExpect(status().isOk());
+
+        mockMvc.perform(post(API_URL).param("count", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void should_test_full_account_lifecycle() throws Exception {
         // Create Account
@@ -127,7 +155,7 @@ class AccountControllerIT {
 
         assertNotNull(account);
         assertNotNull(account.getId());
-        assertEquals(BigDecimal.valueOf(90),account.getBalance());
+        assertEquals(new BigDecimal("90.00"), account.getBalance());
 
         //get all transactions
         MockHttpServletResponse accountTransactionResponse =
@@ -141,29 +169,306 @@ class AccountControllerIT {
                 new TypeReference<>() {
                 }
         );
-        assertEquals(BigDecimal.valueOf(100), responseTransactions.get(0).getAmount());
-        assertEquals(BigDecimal.valueOf(100), responseTransactions.get(0).getBalanceAfterTransaction());
+        assertEquals(new BigDecimal("100.00"), responseTransactions.get(0).getAmount());
+        assertEquals(new BigDecimal("100.00"), responseTransactions.get(0).getBalanceAfterTransaction());
         assertEquals(DEPOSIT, responseTransactions.get(0).getType());
         
-        assertEquals(BigDecimal.valueOf(30), responseTransactions.get(1).getAmount());
-        assertEquals(BigDecimal.valueOf(70), responseTransactions.get(1).getBalanceAfterTransaction());
+        assertEquals(new BigDecimal("30.00"), responseTransactions.get(1).getAmount());
+        assertEquals(new BigDecimal("70.00"), responseTransactions.get(1).getBalanceAfterTransaction());
         assertEquals(WITHDRAWAL, responseTransactions.get(1).getType());
         
-        assertEquals(BigDecimal.valueOf(50), responseTransactions.get(2).getAmount());
-        assertEquals(BigDecimal.valueOf(120), responseTransactions.get(2).getBalanceAfterTransaction());
+        assertEquals(new BigDecimal("50.00"), responseTransactions.get(2).getAmount());
+        assertEquals(new BigDecimal("120.00"), responseTransactions.get(2).getBalanceAfterTransaction());
         assertEquals(DEPOSIT, responseTransactions.get(2).getType());
 
-        assertEquals(BigDecimal.valueOf(20), responseTransactions.get(3).getAmount());
-        assertEquals(BigDecimal.valueOf(100), responseTransactions.get(3).getBalanceAfterTransaction());
+        assertEquals(new BigDecimal("20.00"), responseTransactions.get(3).getAmount());
+        assertEquals(new BigDecimal("100.00"), responseTransactions.get(3).getBalanceAfterTransaction());
         assertEquals(WITHDRAWAL, responseTransactions.get(3).getType());
 
-        assertEquals(BigDecimal.valueOf(10), responseTransactions.get(4).getAmount());
-        assertEquals(BigDecimal.valueOf(90), responseTransactions.get(4).getBalanceAfterTransaction());
+        assertEquals(new BigDecimal("10.00"), responseTransactions.get(4).getAmount());
+        assertEquals(new BigDecimal("90.00"), responseTransactions.get(4).getBalanceAfterTransaction());
         assertEquals(WITHDRAWAL, responseTransactions.get(4).getType());
 
         
     }
 
+    @Test
+    void should_page_and_stream_transactions() throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(post(API_URL))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse();
+        String accountId = String.valueOf(objectMapper.readValue(response.getContentAsString(), AccountDTO.class).getId());
+        for (int i = 0; i < 3; i++) {
+            AccountTransactionDTO depositRequest = AccountTransactionDTO.builder()
+                    .transactionDate(LocalDateTime.now())
+                    .amount(BigDecimal.valueOf(10))
+                    .type(DEPOSIT).build();
+            mockMvc.perform(post(API_URL + "/{accountId}/transactions", accountId)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(depositRequest)))
+                    .andExpect(status().isCreated());
+        }
+
+        // first page of two
+        mockMvc.perform(get(API_URL + "/{accountId}/transactions", accountId).param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(AccountController.NEXT_CURSOR_HEADER, "2"))
+                .andExpect(jsonPath("$.length()").value(2));
+
+        // last page
+        mockMvc.perform(get(API_URL + "/{accountId}/transactions", accountId).param("cursor", "2").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(AccountController.NEXT_CURSOR_HEADER))
+                .andExpect(jsonPath("$[0].balanceAfterTransaction").value(30));
+
+        // newline-delimited stream
+        MvcResult streamResult = mockMvc.perform(get(API_URL + "/{accountId}/transactions/stream", accountId)
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String ndjson = mockMvc.perform(asyncDispatch(streamResult))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals(3, ndjson.lines().count());
+
+        // JSON array stream
+        MvcResult arrayResult = mockMvc.perform(get(API_URL + "/{accountId}/transactions/stream", accountId)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(arrayResult))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3));
+    }
+
+    @Test
+    void should_exchange_accounts_and_transactions_in_binary_when_asked() throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(post(API_URL))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse();
+        UUID accountId = objectMapper.readValue(response.getContentAsString(), AccountDTO.class).getId();
+        AccountTransactionDTO depositRequest = AccountTransactionDTO.builder()
+                .transactionDate(LocalDateTime.now())
+                .amount(new BigDecimal("12.5"))
+                .type(DEPOSIT).build();
+
+        // binary request and response
+        byte[] created = mockMvc.perform(post(API_URL + "/{accountId}/transactions", accountId)
+                        .contentType(LedgerBinaryFormat.MEDIA_TYPE)
+                        .accept(LedgerBinaryFormat.MEDIA_TYPE)
+                        .content(binary(output -> LedgerBinaryFormat.writeTransaction(output, depositRequest))))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentType(LedgerBinaryFormat.MEDIA_TYPE))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertEquals(new BigDecimal("12.50"), LedgerBinaryFormat.readTransaction(readBinary(created)).getBalanceAfterTransaction());
+
+        byte[] history = mockMvc.perform(get(API_URL + "/{accountId}/transactions", accountId)
+                        .accept(LedgerBinaryFormat.MEDIA_TYPE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(LedgerBinaryFormat.MEDIA_TYPE))
+                .andReturn().getResponse().getContentAsByteArray();
+        List<AccountTransactionDTO> transactions = LedgerBinaryFormat.readTransactions(readBinary(history));
+        assertEquals(1, transactions.size());
+        assertEquals(DEPOSIT, transactions.get(0).getType());
+
+        byte[] account = mockMvc.perform(get(API_URL + "/{accountId}", accountId)
+                        .accept(LedgerBinaryFormat.MEDIA_TYPE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(LedgerBinaryFormat.MEDIA_TYPE))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertEquals(accountId, LedgerBinaryFormat.readAccount(readBinary(account)).getId());
+
+        // anything else still gets JSON
+        mockMvc.perform(get(API_URL + "/{accountId}/transactions", accountId).accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    void should_print_the_statement_as_text_or_csv() throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(post(API_URL))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse();
+        String accountId = String.valueOf(objectMapper.readValue(response.getContentAsString(), AccountDTO.class).getId());
+        AccountTransactionDTO depositRequest = AccountTransactionDTO.builder()
+                .transactionDate(LocalDateTime.of(2024, 3, 1, 9, 0))
+                .amount(new BigDecimal("12.5"))
+                .type(DEPOSIT).build();
+        mockMvc.perform(post(API_URL + "/{accountId}/transactions", accountId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(depositRequest)))
+                .andExpect(status().isCreated());
+
+        MvcResult csvResult = mockMvc.perform(get(API_URL + "/{accountId}/statement", accountId)
+                        .accept("text/csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String csv = mockMvc.perform(asyncDispatch(csvResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andReturn().getResponse().getContentAsString();
+        assertEquals("date,type,amount,balance\n2024-03-01T09:00:00.000,DEPOSIT,12.50,12.50\n", csv);
+
+        MvcResult textResult = mockMvc.perform(get(API_URL + "/{accountId}/statement", accountId)
+                        .accept(MediaType.TEXT_PLAIN))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String text = mockMvc.perform(asyncDispatch(textResult))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals("Closing balance: 12.50", text.lines().reduce((first, second) -> second).orElseThrow());
+
+        // JSON stays the default
+        mockMvc.perform(get(API_URL + "/{accountId}/statement", accountId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.closingBalance").value(12.5));
+
+        mockMvc.perform(get(API_URL + "/{accountId}/statement", UUID.randomUUID()).accept(MediaType.TEXT_PLAIN))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void should_process_account_and_cross_account_batches() throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(post(API_URL))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse();
+        UUID accountId = objectMapper.readValue(response.getContentAsString(), AccountDTO.class).getId();
+        List<AccountTransactionDTO> accountBatch = List.of(
+                AccountTransactionDTO.builder().amount(BigDecimal.valueOf(100)).type(DEPOSIT).build(),
+                AccountTransactionDTO.builder().amount(BigDecimal.valueOf(500)).type(WITHDRAWAL).build());
+
+        mockMvc.perform(post(API_URL + "/{accountId}/transactions:batch", accountId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(accountBatch)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("COMMITTED"))
+                .andExpect(jsonPath("$[1].message").value(Messages.INSUFFICIENT_FUNDS));
+
+        List<BatchTransactionDTO> crossAccountBatch = List.of(
+                BatchTransactionDTO.builder().accountId(accountId).amount(BigDecimal.valueOf(40)).type(WITHDRAWAL).build(),
+                BatchTransactionDTO.builder().accountId(UUID.randomUUID()).amount(BigDecimal.ONE).type(DEPOSIT).build());
+
+        mockMvc.perform(post("/api/v1/transactions:batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(crossAccountBatch)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].transaction.balanceAfterTransaction").value(60))
+                .andExpect(jsonPath("$[1].status").value("REJECTED"));
+    }
+
+    @Test
+    void should_transfer_between_accounts_and_link_both_legs() throws Exception {
+        UUID sourceId = objectMapper.readValue(mockMvc.perform(post(API_URL)).andReturn().getResponse().getContentAsString(), AccountDTO.class).getId();
+        UUID targetId = objectMapper.readValue(mockMvc.perform(post(API_URL)).andReturn().getResponse().getContentAsString(), AccountDTO.class).getId();
+        mockMvc.perform(post(API_URL + "/{accountId}/transactions", sourceId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(AccountTransactionDTO.builder().amount(BigDecimal.valueOf(100)).type(DEPOSIT).build())))
+                .andExpect(status().isCreated());
+        TransferDTO transferDTO = TransferDTO.builder().sourceAccountId(sourceId).targetAccountId(targetId).amount(BigDecimal.valueOf(40)).build();
+
+        mockMvc.perform(post("/api/v1/transfers")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(transferDTO)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.debit.balanceAfterTransaction").value(60))
+                .andExpect(jsonPath("$.credit.balanceAfterTransaction").value(40));
+
+        mockMvc.perform(get(API_URL + "/{accountId}/transactions", targetId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].type").value("TRANSFER_IN"))
+                .andExpect(jsonPath("$[0].counterpartyAccountId").value(sourceId.toString()));
+
+        transferDTO.setTargetAccountId(sourceId);
+        mockMvc.perform(post("/api/v1/transfers")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(transferDTO)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value(Messages.TRANSFER_TO_SAME_ACCOUNT));
+    }
+
+    @Test
+    void should_commit_a_retried_transaction_once_when_it_has_an_idempotency_key() throws Exception {
+        UUID accountId = objectMapper.readValue(mockMvc.perform(post(API_URL)).andReturn().getResponse().getContentAsString(), AccountDTO.class).getId();
+        String deposit = objectMapper.writeValueAsString(AccountTransactionDTO.builder().amount(BigDecimal.valueOf(100)).type(DEPOSIT).build());
+
+        for (int attempt = 0; attempt < 3; attempt++)
+            mockMvc.perform(post(API_URL + "/{accountId}/transactions", accountId)
+                            .header(AccountController.IDEMPOTENCY_KEY_HEADER, "retry-1")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(deposit))
+                    .andExpect(status().isCreated())
+                    .andExpect(jsonPath("$.balanceAfterTransaction").value(100));
+
+        String otherDeposit = objectMapper.writeValueAsString(AccountTransactionDTO.builder().amount(BigDecimal.valueOf(200)).type(DEPOSIT).build());
+        mockMvc.perform(post(API_URL + "/{accountId}/transactions", accountId)
+                        .header(AccountController.IDEMPOTENCY_KEY_HEADER, "retry-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(otherDeposit))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.message").value(String.format(Messages.IDEMPOTENCY_KEY_REUSED, "retry-1")));
+
+        mockMvc.perform(get(API_URL + "/{accountId}", accountId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(100));
+
+        mockMvc.perform(get(API_URL + "/{accountId}/summary", accountId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.creditCount").value(1))
+                .andExpect(jsonPath("$.days.length()").value(1));
+    }
+
+    @Test
+    void should_render_amounts_with_two_decimals() throws Exception {
+        UUID accountId = objectMapper.readValue(mockMvc.perform(post(API_URL)).andReturn().getResponse().getContentAsString(), AccountDTO.class).getId();
+        String transaction = mockMvc.perform(post(API_URL + "/{accountId}/transactions", accountId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"amount\":90,\"type\":\"DEPOSIT\"}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        assertTrue(transaction.contains("\"amount\":90.00,"), transaction);
+        assertTrue(transaction.contains("\"balanceAfterTransaction\":90.00,"), transaction);
+
+        String account = mockMvc.perform(get(API_URL + "/{accountId}", accountId))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertTrue(account.contains("\"balance\":90.00"), account);
+    }
+
+    @Test
+    void should_answer_not_modified_when_the_account_did_not_change() throws Exception {
+        UUID accountId = objectMapper.readValue(mockMvc.perform(post(API_URL)).andReturn().getResponse().getContentAsString(), AccountDTO.class).getId();
+        String etag = mockMvc.perform(get(API_URL + "/{accountId}", accountId))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get(API_URL + "/{accountId}", accountId).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get(API_URL + "/{accountId}", accountId).header(HttpHeaders.IF_NONE_MATCH, "\"7\", W/" + etag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get(API_URL + "/{accountId}", accountId).header(HttpHeaders.IF_NONE_MATCH, "*"))
+                .andExpect(status().isNotModified());
+
+        // the binary representation has a tag of its own
+        mockMvc.perform(get(API_URL + "/{accountId}", accountId).header(HttpHeaders.IF_NONE_MATCH, etag)
+                        .accept(LedgerBinaryFormat.MEDIA_TYPE))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0-b\""));
+        mockMvc.perform(get(API_URL + "/{accountId}", accountId).header(HttpHeaders.IF_NONE_MATCH, "\"0-b\"")
+                        .accept(LedgerBinaryFormat.MEDIA_TYPE))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(post(API_URL + "/{accountId}/transactions", accountId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(AccountTransactionDTO.builder().amount(BigDecimal.TEN).type(DEPOSIT).build())))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get(API_URL + "/{accountId}", accountId).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                .andExpect(jsonPath("$.balance").value(10));
+    }
+
     @Test
     public void should_throw_error_when_account_not_found() throws Exception {
         String nonExistingAccountId=String.valueOf(UUID.randomUUID());
@@ -208,4 +513,22 @@ class AccountControllerIT {
                 .andExpect(jsonPath("$.message").value(Messages.AMOUNT_MUST_BE_GREATER_THAN_ZERO));
     }
 
-}
\ No newline at end of file
+
+    private static byte[] binary(BinaryWriter writer) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(bytes);
+        output.writeByte(LedgerBinaryFormat.VERSION);
+        writer.write(output);
+        return bytes.toByteArray();
+    }
+
+    private static DataInputStream readBinary(byte[] bytes) throws IOException {
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes));
+        assertEquals(LedgerBinaryFormat.VERSION, input.readUnsignedByte());
+        return input;
+    }
+
+    private interface BinaryWriter {
+        void write(DataOutputStream output) throws IOException;
+    }
+}
@@ -0,0 +1,100 @@
+package com.sgib.controller.binary;
+
+import com.sgib.domain.dto.AccountDTO;
+import com.sgib.domain.dto.AccountTransactionDTO;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LedgerBinaryFormatTest {
+
+    @Test
+    void should_read_back_the_transactions_it_wrote() throws IOException {
+        // Given
+        AccountTransactionDTO transfer = AccountTransactionDTO.builder()
+                .transactionDate(LocalDateTime.of(2024, 3, 1, 10, 15, 30, 123_000_000))
+                .amount(new BigDecimal("90.50"))
+                .balanceAfterTransaction(new BigDecimal("-12.01"))
+                .type("TRANSFER_OUT")
+                .sequence(7L)
+                .counterpartyAccountId(UUID.randomUUID())
+                .bookingDate(LocalDateTime.of(2024, 3, 1, 10, 16))
+                .build();
+        AccountTransactionDTO deposit = AccountTransactionDTO.builder()
+                .amount(BigDecimal.TEN)
+                .type("DEPOSIT")
+                .build();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        // When
+        LedgerBinaryFormat.writeTransactions(new DataOutputStream(bytes), List.of(transfer, deposit));
+        List<AccountTransactionDTO> read = LedgerBinaryFormat.readTransactions(input(bytes.toByteArray()));
+
+        // Then
+        assertEquals(2, read.size());
+        assertEquals(transfer.getTransactionDate(), read.get(0).getTransactionDate());
+        assertEquals(transfer.getAmount(), read.get(0).getAmount());
+        assertEquals(transfer.getBalanceAfterTransaction(), read.get(0).getBalanceAfterTransaction());
+        assertEquals(transfer.getType(), read.get(0).getType());
+        assertEquals(transfer.getSequence(), read.get(0).getSequence());
+        assertEquals(transfer.getCounterpartyAccountId(), read.get(0).getCounterpartyAccountId());
+        assertEquals(transfer.getBookingDate(), read.get(0).getBookingDate());
+        assertEquals(new BigDecimal("10.00"), read.get(1).getAmount());
+        assertNull(read.get(1).getTransactionDate());
+        assertNull(read.get(1).getSequence());
+        assertNull(read.get(1).getCounterpartyAccountId());
+        assertNull(read.get(1).getBookingDate());
+        // size prefix, two flag bytes, two types, five longs and an id
+        assertEquals(4 + 2 + 2 + 5 * 8 + 16 + 8, bytes.size());
+    }
+
+    @Test
+    void should_read_back_the_account_it_wrote() throws IOException {
+        // Given
+        AccountDTO account = AccountDTO.builder().id(UUID.randomUUID()).balance(new BigDecimal("1234.56")).build();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        // When
+        LedgerBinaryFormat.writeAccount(new DataOutputStream(bytes), account);
+        AccountDTO read = LedgerBinaryFormat.readAccount(input(bytes.toByteArray()));
+
+        // Then
+        assertEquals(account.getId(), read.getId());
+        assertEquals(account.getBalance(), read.getBalance());
+        assertEquals(1 + 16 + 8, bytes.size());
+    }
+
+    @Test
+    void should_fail_when_payload_is_truncated_or_has_an_unknown_type() {
+        assertThrows(EOFException.class, () -> LedgerBinaryFormat.readTransactions(input(new byte[]{0, 0, 0, 2, 0})));
+        assertThrows(IOException.class, () -> LedgerBinaryFormat.readTransaction(input(new byte[]{1 << 3, 100})));
+    }
+
+    @Test
+    void should_prefer_binary_only_when_the_client_names_it_first() {
+        assertTrue(LedgerBinaryFormat.isPreferred(LedgerBinaryFormat.MEDIA_TYPE_VALUE));
+        assertTrue(LedgerBinaryFormat.isPreferred("application/json;q=0.5, " + LedgerBinaryFormat.MEDIA_TYPE_VALUE));
+        assertFalse(LedgerBinaryFormat.isPreferred("application/json, " + LedgerBinaryFormat.MEDIA_TYPE_VALUE));
+        assertFalse(LedgerBinaryFormat.isPreferred("*/*"));
+        assertFalse(LedgerBinaryFormat.isPreferred(null));
+    }
+
+    private static DataInputStream input(byte[] bytes) {
+        return new DataInputStream(new ByteArrayInputStream(bytes));
+    }
+}
@@ -0,0 +1,129 @@
+package com.sgib.controller.reactive;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sgib.domain.dto.AccountDTO;
+import com.sgib.domain.dto.AccountTransactionDTO;
+import com.sgib.service.notification.TransactionNotifier;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+class ReactiveAccountControllerIT {
+
+    private static final String API_URL = "/api/v1/accounts";
+    private static final String REACTIVE_API_URL = "/api/v1/reactive/accounts";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TransactionNotifier transactionNotifier;
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    void should_return_account_and_stream_its_history() throws Exception {
+        UUID accountId = createAccount();
+        for (int i = 1; i <= 3; i++)
+            deposit(accountId, BigDecimal.valueOf(i));
+
+        MvcResult accountResult = mockMvc.perform(get(REACTIVE_API_URL + "/{accountId}", accountId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(accountResult))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(6));
+
+        MvcResult historyResult = mockMvc.perform(get(REACTIVE_API_URL + "/{accountId}/transactions", accountId)
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String ndjson = mockMvc.perform(asyncDispatch(historyResult))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals(3, ndjson.lines().count());
+
+        mockMvc.perform(get(REACTIVE_API_URL + "/{accountId}/transactions", accountId)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotAcceptable());
+
+        mockMvc.perform(get(REACTIVE_API_URL + "/{accountId}/transactions/events", UUID.randomUUID()))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void should_push_committed_transactions_as_server_sent_events() throws Exception {
+        UUID accountId = createAccount();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + REACTIVE_API_URL + "/" + accountId + "/transactions/events"))
+                .header("Accept", MediaType.TEXT_EVENT_STREAM_VALUE)
+                .build();
+        HttpResponse<java.io.InputStream> response = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofInputStream());
+        try (BufferedReader events = new BufferedReader(new InputStreamReader(response.body()))) {
+            assertEquals(200, response.statusCode());
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (transactionNotifier.channelCount() == 0 && System.currentTimeMillis() < deadline)
+                Thread.sleep(10);
+
+            deposit(accountId, BigDecimal.TEN);
+
+            String line;
+            String id = null;
+            String data = null;
+            while (data == null && (line = events.readLine()) != null) {
+                if (line.startsWith("id:"))
+                    id = line.substring(3);
+                else if (line.startsWith("data:"))
+                    data = line.substring(5);
+            }
+            assertEquals("1", id);
+            assertTrue(data != null);
+            AccountTransactionDTO transaction = objectMapper.readValue(data, AccountTransactionDTO.class);
+            assertEquals(0, BigDecimal.TEN.compareTo(transaction.getBalanceAfterTransaction()));
+            assertEquals(1L, transaction.getSequence());
+        }
+    }
+
+    private UUID createAccount() throws Exception {
+        String body = mockMvc.perform(post(API_URL))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(body, AccountDTO.class).getId();
+    }
+
+    private void deposit(UUID accountId, BigDecimal amount) throws Exception {
+        mockMvc.perform(post(API_URL + "/{accountId}/transactions", accountId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(AccountTransactionDTO.builder().amount(amount).type("DEPOSIT").build())))
+                .andExpect(status().isCreated());
+    }
+}
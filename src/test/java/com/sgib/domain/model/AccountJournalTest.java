@@ -0,0 +1,226 @@
+package com.sgib.domain.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AccountJournalTest {
+
+    @Test
+    public void should_read_back_entries_across_chunk_boundaries() {
+        // Given
+        AccountJournal journal = new AccountJournal();
+        int entries = 5_000;
+        for (int sequence = 1; sequence <= entries; sequence++)
+            journal.record(sequence, sequence * 1000L, sequence, sequence * 10L,
+                    sequence % 2 == 0 ? AccountTransactionType.WITHDRAWAL : AccountTransactionType.DEPOSIT);
+        // When
+        JournalCursor cursor = journal.cursor(1000, 3000);
+        // Then
+        assertEquals(entries, journal.size());
+        for (long index = 1000; index < 3000; index++) {
+            assertTrue(cursor.next());
+            assertEquals(index, cursor.index());
+            assertEquals((index + 1) * 1000L, cursor.epochMillis());
+            assertEquals(index + 1, cursor.amount());
+            assertEquals((index + 1) * 10L, cursor.balanceAfterTransaction());
+        }
+        assertFalse(cursor.next());
+    }
+
+    @Test
+    public void should_read_the_same_history_after_sealing_old_chunks() {
+        // Given
+        AccountJournal journal = new AccountJournal();
+        AccountJournal unsealed = new AccountJournal();
+        long balance = 0;
+        for (int sequence = 1; sequence <= 5_000; sequence++) {
+            AccountTransactionType type = sequence % 4 == 0 ? AccountTransactionType.WITHDRAWAL : AccountTransactionType.DEPOSIT;
+            balance += type.isDebit() ? -sequence : sequence;
+            journal.record(sequence, sequence * 60_000L, sequence, balance, type);
+            unsealed.record(sequence, sequence * 60_000L, sequence, balance, type);
+        }
+        // When
+        int sealed = journal.seal(3_000 * 60_000L, true);
+        journal.record(10, 0, 0, 0, AccountTransactionType.FEE);
+        // Then
+        assertEquals(7, sealed);
+        assertEquals(0, journal.seal(3_000 * 60_000L, true));
+        JournalCursor cursor = journal.cursor();
+        JournalCursor expected = unsealed.cursor();
+        while (expected.next()) {
+            assertTrue(cursor.next());
+            assertEquals(expected.epochMillis(), cursor.epochMillis());
+            assertEquals(expected.amount(), cursor.amount());
+            assertEquals(expected.balanceAfterTransaction(), cursor.balanceAfterTransaction());
+            assertEquals(expected.type(), cursor.type());
+        }
+        assertFalse(cursor.next());
+        for (long epochMillis : new long[]{0, 60_000, 1_500 * 60_000L + 1, 2_032 * 60_000L, 4_999 * 60_000L})
+            assertEquals(unsealed.indexAt(epochMillis), journal.indexAt(epochMillis));
+        assertEquals(unsealed.balanceBefore(1_500, 0), journal.balanceBefore(1_500, 0));
+    }
+
+    @Test
+    public void should_find_first_entry_at_or_after_a_time_with_duplicate_timestamps() {
+        // Given
+        AccountJournal journal = new AccountJournal();
+        for (int sequence = 1; sequence <= 5_000; sequence++)
+            journal.record(sequence, (sequence / 2) * 1000L, 1, sequence, AccountTransactionType.DEPOSIT);
+        // When / Then
+        assertEquals(0, journal.indexAt(Long.MIN_VALUE));
+        assertEquals(0, journal.indexAt(0));
+        assertEquals(1, journal.indexAt(1));
+        assertEquals(3, journal.indexAt(2000));
+        assertEquals(2999, journal.indexAt(1_500_000));
+        assertEquals(5_000, journal.indexAt(2_500_001));
+        assertEquals(1000, journal.balanceBefore(1000, -1));
+        assertEquals(0, journal.balanceBefore(0, -1));
+        assertEquals(5_000, journal.balanceBefore(10_000, -1));
+        assertEquals(7, new AccountJournal().balanceBefore(0, 7));
+    }
+
+    @Test
+    public void should_only_expose_the_contiguous_prefix_when_sequences_are_recorded_out_of_order() {
+        // Given
+        AccountJournal journal = new AccountJournal();
+        // When
+        journal.record(2, 0, 20, 20, AccountTransactionType.DEPOSIT);
+        journal.record(3, 0, 30, 50, AccountTransactionType.DEPOSIT);
+        // Then
+        assertEquals(0, journal.size());
+        journal.record(1, 0, 10, 10, AccountTransactionType.DEPOSIT);
+        assertEquals(3, journal.size());
+    }
+
+    @Test
+    public void should_publish_every_entry_when_recorded_concurrently() throws Exception {
+        // Given
+        AccountJournal journal = new AccountJournal();
+        AtomicLong sequences = new AtomicLong();
+        List<Thread> threads = new ArrayList<>();
+        // When
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 20_000; i++) {
+                    long sequence = sequences.incrementAndGet();
+                    journal.record(sequence, 0, sequence, sequence, AccountTransactionType.DEPOSIT);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads)
+            thread.join();
+        // Then
+        assertEquals(160_000, journal.size());
+        JournalCursor cursor = journal.cursor();
+        while (cursor.next())
+            assertEquals(cursor.index() + 1, cursor.amount());
+    }
+
+    @Test
+    public void should_read_transfer_links_only_for_linked_legs_and_keep_them_when_copied() {
+        // Given
+        AccountJournal journal = new AccountJournal();
+        UUID counterparty = UUID.randomUUID();
+        journal.record(1, 1000, 100, 100, AccountTransactionType.DEPOSIT);
+        // When
+        JournalCursor beforeAnyLink = journal.cursor();
+        journal.link(2, new TransferLink(counterparty, 7));
+        journal.record(2, 2000, 40, 60, AccountTransactionType.TRANSFER_OUT);
+        AccountJournal copy = new AccountJournal();
+        journal.copyTo(copy);
+        // Then
+        assertTrue(beforeAnyLink.next());
+        assertNull(beforeAnyLink.transferLink());
+        assertNull(journal.transferLink(1));
+        assertNull(new AccountJournal().transferLink(1));
+        JournalCursor cursor = copy.cursor(1, 2);
+        assertTrue(cursor.next());
+        assertEquals(counterparty, cursor.transferLink().counterpartyAccountId());
+        assertEquals(7, copy.transferLink(2).counterpartySequence());
+    }
+
+    @Test
+    public void should_keep_transaction_dates_to_the_millisecond() {
+        LocalDateTime date = LocalDateTime.of(2024, 1, 31, 23, 59, 59, 123_000_000);
+        assertEquals(date, AccountJournal.toLocalDateTime(AccountJournal.toEpochMillis(date)));
+        assertEquals(null, AccountJournal.toLocalDateTime(AccountJournal.toEpochMillis(null)));
+    }
+
+    @Test
+    public void should_aggregate_entries_per_day_and_ignore_replayed_ones() {
+        // Given
+        AccountJournal journal = new AccountJournal();
+        long day = 86_400_000L;
+        journal.record(1, 10 * day, 100, 100, AccountTransactionType.DEPOSIT);
+        journal.record(2, 10 * day + 1, 30, 70, AccountTransactionType.WITHDRAWAL);
+        journal.record(3, 10 * day + 2, 50, 120, AccountTransactionType.TRANSFER_IN);
+        journal.record(4, 12 * day, 20, 100, AccountTransactionType.TRANSFER_OUT);
+        // When
+        journal.record(2, 10 * day + 1, 30, 70, AccountTransactionType.WITHDRAWAL);
+        List<DailyAggregate> dailyAggregates = new ArrayList<>(journal.dailyAggregates(Long.MIN_VALUE, Long.MAX_VALUE));
+        // Then
+        assertEquals(2, dailyAggregates.size());
+        DailyAggregate first = dailyAggregates.get(0);
+        assertEquals(10, first.getEpochDay());
+        assertEquals(150, first.getCreditTotal());
+        assertEquals(2, first.getCreditCount());
+        assertEquals(30, first.getDebitTotal());
+        assertEquals(1, first.getDebitCount());
+        assertEquals(70, first.getMinBalance());
+        assertEquals(120, first.getMaxBalance());
+        assertEquals(20, dailyAggregates.get(1).getDebitTotal());
+        assertEquals(1, journal.dailyAggregates(11, 13).size());
+        assertEquals(4, journal.size());
+    }
+
+    @Test
+    public void should_have_no_daily_aggregates_before_a_dated_entry() {
+        // Given
+        AccountJournal journal = new AccountJournal();
+        // When
+        journal.record(1, AccountJournal.NO_DATE, 100, 100, AccountTransactionType.DEPOSIT);
+        // Then
+        assertTrue(journal.dailyAggregates(Long.MIN_VALUE, Long.MAX_VALUE).isEmpty());
+        assertTrue(new AccountJournal().dailyAggregates(Long.MIN_VALUE, Long.MAX_VALUE).isEmpty());
+    }
+
+    @Test
+    public void should_release_the_chunk_allocated_by_a_writer_that_lost_the_race_to_grow() {
+        // Given
+        AccountJournal[] journal = new AccountJournal[1];
+        List<JournalChunk> allocated = new ArrayList<>();
+        List<JournalChunk> released = new ArrayList<>();
+        journal[0] = new AccountJournal(new JournalChunkAllocator() {
+            @Override
+            public JournalChunk allocate(int capacity) {
+                JournalChunk chunk = new HeapJournalChunk(capacity);
+                allocated.add(chunk);
+                if (allocated.size() == 1)
+                    journal[0].record(2, 2000, 20, 30, AccountTransactionType.DEPOSIT);
+                return chunk;
+            }
+
+            @Override
+            public void release(JournalChunk chunk) {
+                released.add(chunk);
+            }
+        });
+        // When
+        journal[0].record(1, 1000, 10, 10, AccountTransactionType.DEPOSIT);
+        // Then
+        assertEquals(2, journal[0].size());
+        assertEquals(List.of(allocated.get(0)), released);
+    }
+}
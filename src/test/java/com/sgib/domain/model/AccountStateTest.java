@@ -0,0 +1,42 @@
+package com.sgib.domain.model;
+
+import com.sgib.exception.InvalidAmountException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static com.sgib.exception.Messages.AMOUNT_OUT_OF_RANGE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class AccountStateTest {
+
+    private static final LocalDateTime DATE = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    @Test
+    public void should_report_rejections_without_throwing() {
+        AccountState state = new AccountState(100, 3, AccountJournal.NO_DATE);
+        assertEquals(Rejection.AMOUNT_NOT_POSITIVE, state.check(new AccountTransaction(DATE, 0, 0, AccountTransactionType.DEPOSIT)));
+        assertEquals(Rejection.INSUFFICIENT_FUNDS, state.check(new AccountTransaction(DATE, 101, 0, AccountTransactionType.WITHDRAWAL)));
+        assertEquals(Rejection.AMOUNT_OUT_OF_RANGE, state.check(new AccountTransaction(DATE, Long.MAX_VALUE, 0, AccountTransactionType.DEPOSIT)));
+        assertNull(state.check(new AccountTransaction(DATE, 100, 0, AccountTransactionType.FEE)));
+    }
+
+    @Test
+    public void should_move_to_next_balance_and_sequence_when_transaction_passes_check() {
+        AccountState state = new AccountState(100, 3, AccountJournal.NO_DATE);
+        AccountState next = state.next(new AccountTransaction(DATE, 40, 0, AccountTransactionType.WITHDRAWAL));
+        assertEquals(60, next.getBalance());
+        assertEquals(4, next.getSequence());
+        assertEquals(AccountJournal.toEpochMillis(DATE), next.getLastBookingMillis());
+    }
+
+    @Test
+    public void should_throw_the_exception_of_the_rejection_when_applying() {
+        AccountState state = new AccountState(Long.MAX_VALUE - 1, 0, AccountJournal.NO_DATE);
+        Exception exception = Assertions.assertThrows(InvalidAmountException.class, () ->
+                state.apply(new AccountTransaction(DATE, 2, 0, AccountTransactionType.DEPOSIT)));
+        assertEquals(AMOUNT_OUT_OF_RANGE, exception.getMessage());
+    }
+}
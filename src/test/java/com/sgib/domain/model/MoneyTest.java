@@ -0,0 +1,45 @@
+package com.sgib.domain.model;
+
+import com.sgib.exception.InvalidAmountException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static com.sgib.exception.Messages.AMOUNT_OUT_OF_RANGE;
+import static com.sgib.exception.Messages.AMOUNT_SCALE_NOT_SUPPORTED;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class MoneyTest {
+
+    @Test
+    public void should_convert_decimal_amount_to_minor_units() {
+        assertEquals(9050, Money.toMinorUnits(new BigDecimal("90.50")));
+        assertEquals(9000, Money.toMinorUnits(BigDecimal.valueOf(90)));
+        assertEquals(-1, Money.toMinorUnits(new BigDecimal("-0.010")));
+    }
+
+    @Test
+    public void should_render_minor_units_with_two_decimals() {
+        assertEquals(new BigDecimal("90.00"), Money.toBigDecimal(9000));
+        assertEquals(new BigDecimal("90.50"), Money.toBigDecimal(9050));
+        assertEquals(new BigDecimal("0.01"), Money.toBigDecimal(1));
+        assertEquals(new BigDecimal("0.00"), Money.toBigDecimal(0));
+    }
+
+    @Test
+    public void should_throw_error_when_amount_has_more_decimals_than_the_currency() {
+        Exception exception = Assertions.assertThrows(InvalidAmountException.class, () ->
+                Money.toMinorUnits(new BigDecimal("10.001")));
+        assertEquals(String.format(AMOUNT_SCALE_NOT_SUPPORTED, Money.SCALE), exception.getMessage());
+    }
+
+    @Test
+    public void should_throw_error_when_amount_overflows() {
+        Exception exception = Assertions.assertThrows(InvalidAmountException.class, () ->
+                Money.add(Long.MAX_VALUE - 1, 2));
+        assertEquals(AMOUNT_OUT_OF_RANGE, exception.getMessage());
+        Assertions.assertThrows(InvalidAmountException.class, () ->
+                Money.toMinorUnits(new BigDecimal("1e30")));
+    }
+}
@@ -0,0 +1,41 @@
+package com.sgib.domain.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SealedJournalChunkTest {
+
+    private static final int CAPACITY = AccountJournal.CHUNK_SIZE;
+
+    @Test
+    public void should_decode_the_columns_it_encoded() {
+        // Given
+        HeapJournalChunk chunk = new HeapJournalChunk(CAPACITY);
+        long epochMillis = 1_700_000_000_000L;
+        long balance = 0;
+        for (int offset = 0; offset < CAPACITY; offset++) {
+            long amount = offset % 7 == 0 ? 1_000_000_00L : 12_34 + offset;
+            balance += offset % 3 == 0 ? -amount : amount;
+            epochMillis += offset % 5 == 0 ? 0 : 3_600_000;
+            chunk.write(offset, offset == 42 ? AccountJournal.NO_DATE : epochMillis, amount, balance);
+        }
+        chunk.write(CAPACITY - 1, Long.MAX_VALUE, Long.MAX_VALUE, Long.MIN_VALUE);
+
+        for (boolean deflate : new boolean[]{false, true}) {
+            // When
+            SealedJournalChunk sealed = SealedJournalChunk.seal(chunk, deflate);
+            // Then
+            assertSame(chunk.types, sealed.types);
+            assertTrue(sealed.encodedBytes() < CAPACITY * DirectJournalChunk.BYTES_PER_ENTRY / 2);
+            JournalChunk decoded = sealed.readable();
+            for (int offset = 0; offset < CAPACITY; offset++) {
+                assertEquals(chunk.epochMillis(offset), decoded.epochMillis(offset));
+                assertEquals(chunk.amount(offset), decoded.amount(offset));
+                assertEquals(chunk.balanceAfterTransaction(offset), decoded.balanceAfterTransaction(offset));
+            }
+        }
+    }
+}
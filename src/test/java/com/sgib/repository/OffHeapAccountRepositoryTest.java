@@ -0,0 +1,78 @@
+package com.sgib.repository;
+
+import com.sgib.domain.model.Account;
+import com.sgib.domain.model.AccountTransaction;
+import com.sgib.domain.model.AccountTransactionType;
+import com.sgib.domain.model.JournalCursor;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class OffHeapAccountRepositoryTest {
+
+    @Test
+    public void should_find_every_saved_account_after_the_index_grows() {
+        // Given
+        OffHeapAccountRepository accountRepository = new OffHeapAccountRepository(16, 1);
+        List<Account> accounts = new ArrayList<>();
+        // When
+        for (int i = 0; i < 10_000; i++)
+            accounts.add(accountRepository.save(Account.builder().id(UUID.randomUUID()).balance(i).build()));
+        // Then
+        for (Account account : accounts) {
+            assertSame(account, accountRepository.findOne(account.getId()).orElseThrow());
+        }
+        assertFalse(accountRepository.findOne(UUID.randomUUID()).isPresent());
+    }
+
+    @Test
+    public void should_find_every_account_saved_in_one_batch_next_to_earlier_ones() {
+        // Given
+        OffHeapAccountRepository accountRepository = new OffHeapAccountRepository(16, 1);
+        Account earlier = accountRepository.save(Account.builder().id(UUID.randomUUID()).balance(1).build());
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++)
+            accounts.add(Account.builder().id(UUID.randomUUID()).balance(i).build());
+        // When
+        List<Account> stored = accountRepository.saveAll(accounts);
+        // Then
+        assertEquals(10_001, accountRepository.count());
+        for (int i = 0; i < stored.size(); i++) {
+            assertEquals(accounts.get(i).getId(), stored.get(i).getId());
+            assertSame(stored.get(i), accountRepository.findOne(stored.get(i).getId()).orElseThrow());
+        }
+        assertSame(earlier, accountRepository.findOne(earlier.getId()).orElseThrow());
+    }
+
+    @Test
+    public void should_move_the_journal_of_a_saved_account_off_heap() {
+        // Given
+        OffHeapAccountRepository accountRepository = new OffHeapAccountRepository(16, 1);
+        List<AccountTransaction> accountTransactions = new ArrayList<>();
+        accountTransactions.add(new AccountTransaction(LocalDateTime.now(), 5000, 5000, AccountTransactionType.DEPOSIT));
+        accountTransactions.add(new AccountTransaction(LocalDateTime.now(), 3000, 2000, AccountTransactionType.WITHDRAWAL));
+        Account account = Account.builder().id(UUID.randomUUID()).balance(2000).accountTransactions(accountTransactions).build();
+        // When
+        Account stored = accountRepository.save(account);
+        // Then
+        assertNotSame(account, stored);
+        assertEquals(2000, stored.getBalance());
+        JournalCursor cursor = stored.getJournal().cursor();
+        assertTrue(cursor.next());
+        assertEquals(5000, cursor.amount());
+        assertTrue(cursor.next());
+        assertEquals(2000, cursor.balanceAfterTransaction());
+        assertEquals(AccountTransactionType.WITHDRAWAL, cursor.type());
+        assertFalse(cursor.next());
+        assertTrue(accountRepository.offHeapBytes() > 0);
+    }
+}
@@ -0,0 +1,154 @@
+package com.sgib.repository.snapshot;
+
+import com.sgib.domain.model.Account;
+import com.sgib.domain.model.AccountTransaction;
+import com.sgib.domain.model.AccountTransactionType;
+import com.sgib.domain.model.JournalCursor;
+import com.sgib.domain.model.TransferLink;
+import com.sgib.repository.InMemoryAccountRepository;
+import com.sgib.repository.wal.LedgerRecovery;
+import com.sgib.repository.wal.WriteAheadLog;
+import com.sgib.service.concurrency.AccountLocks;
+import com.sgib.service.concurrency.LockingTransactionEngine;
+import com.sgib.service.metrics.LedgerMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LedgerSnapshotsTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void should_restore_the_ledger_from_the_snapshot_and_the_log_tail() throws Exception {
+        // Given
+        InMemoryAccountRepository accountRepository = new InMemoryAccountRepository();
+        WriteAheadLog writeAheadLog = new WriteAheadLog(directory.resolve("wal"), 1, 0, 1);
+        LedgerSnapshots ledgerSnapshots = new LedgerSnapshots(directory.resolve("snapshots"));
+        new LedgerRecovery(accountRepository, writeAheadLog, ledgerSnapshots).afterPropertiesSet();
+        LockingTransactionEngine transactionEngine = new LockingTransactionEngine(new AccountLocks(16), writeAheadLog, new LedgerMetrics(new SimpleMeterRegistry(), 4096, 10));
+        UUID accountId = UUID.randomUUID();
+        Account account = accountRepository.save(Account.builder().id(accountId).balance(0).build());
+        writeAheadLog.accountOpened(accountId, 0);
+        for (int i = 0; i < 2_000; i++)
+            transactionEngine.execute(account, deposit(100));
+        SnapshotScheduler snapshotScheduler = new SnapshotScheduler(accountRepository, writeAheadLog, ledgerSnapshots, 3_600_000);
+        snapshotScheduler.snapshot();
+        for (int i = 0; i < 500; i++)
+            transactionEngine.execute(account, deposit(10));
+        writeAheadLog.sync();
+        writeAheadLog.close();
+        snapshotScheduler.stop();
+        // When
+        InMemoryAccountRepository restoredRepository = new InMemoryAccountRepository();
+        WriteAheadLog reopened = new WriteAheadLog(directory.resolve("wal"), 1, 0, 1);
+        new LedgerRecovery(restoredRepository, reopened, new LedgerSnapshots(directory.resolve("snapshots"))).afterPropertiesSet();
+        // Then
+        try (Stream<Path> segments = Files.list(directory.resolve("wal"))) {
+            assertEquals(1, segments.count());
+        }
+        Account restored = restoredRepository.findOne(accountId).orElseThrow();
+        assertEquals(2_500, restored.getState().getSequence());
+        assertEquals(205_000, restored.getBalance());
+        assertEquals(2_500, restored.getJournal().size());
+        JournalCursor cursor = restored.getJournal().cursor(1_999, 2_001);
+        assertTrue(cursor.next());
+        assertEquals(200_000, cursor.balanceAfterTransaction());
+        assertTrue(cursor.next());
+        assertEquals(200_010, cursor.balanceAfterTransaction());
+        reopened.close();
+    }
+
+    @Test
+    public void should_restore_transfer_links_from_the_snapshot_and_the_log_tail() throws Exception {
+        // Given
+        InMemoryAccountRepository accountRepository = new InMemoryAccountRepository();
+        WriteAheadLog writeAheadLog = new WriteAheadLog(directory.resolve("wal"), 1, 0, 1);
+        LedgerSnapshots ledgerSnapshots = new LedgerSnapshots(directory.resolve("snapshots"));
+        new LedgerRecovery(accountRepository, writeAheadLog, ledgerSnapshots).afterPropertiesSet();
+        LockingTransactionEngine transactionEngine = new LockingTransactionEngine(new AccountLocks(16), writeAheadLog, new LedgerMetrics(new SimpleMeterRegistry(), 4096, 10));
+        UUID sourceId = UUID.randomUUID();
+        UUID targetId = UUID.randomUUID();
+        Account source = accountRepository.save(Account.builder().id(sourceId).balance(0).build());
+        Account target = accountRepository.save(Account.builder().id(targetId).balance(0).build());
+        writeAheadLog.accountOpened(sourceId, 0);
+        writeAheadLog.accountOpened(targetId, 0);
+        transactionEngine.execute(source, deposit(100));
+        transactionEngine.transfer(source, target, transfer(30, AccountTransactionType.TRANSFER_OUT), transfer(30, AccountTransactionType.TRANSFER_IN));
+        SnapshotScheduler snapshotScheduler = new SnapshotScheduler(accountRepository, writeAheadLog, ledgerSnapshots, 3_600_000);
+        snapshotScheduler.snapshot();
+        transactionEngine.transfer(target, source, transfer(10, AccountTransactionType.TRANSFER_OUT), transfer(10, AccountTransactionType.TRANSFER_IN));
+        writeAheadLog.sync();
+        writeAheadLog.close();
+        snapshotScheduler.stop();
+        // When
+        InMemoryAccountRepository restoredRepository = new InMemoryAccountRepository();
+        WriteAheadLog reopened = new WriteAheadLog(directory.resolve("wal"), 1, 0, 1);
+        new LedgerRecovery(restoredRepository, reopened, new LedgerSnapshots(directory.resolve("snapshots"))).afterPropertiesSet();
+        // Then
+        Account restoredSource = restoredRepository.findOne(sourceId).orElseThrow();
+        Account restoredTarget = restoredRepository.findOne(targetId).orElseThrow();
+        assertEquals(80, restoredSource.getBalance());
+        assertEquals(20, restoredTarget.getBalance());
+        assertEquals(new TransferLink(targetId, 1), restoredSource.getJournal().transferLink(2));
+        assertEquals(new TransferLink(sourceId, 2), restoredTarget.getJournal().transferLink(1));
+        assertEquals(new TransferLink(sourceId, 3), restoredTarget.getJournal().transferLink(2));
+        assertEquals(new TransferLink(targetId, 2), restoredSource.getJournal().transferLink(3));
+        reopened.close();
+    }
+
+    @Test
+    public void should_restore_the_dates_of_transactions_booked_at_another_time() throws Exception {
+        // Given
+        InMemoryAccountRepository accountRepository = new InMemoryAccountRepository();
+        WriteAheadLog writeAheadLog = new WriteAheadLog(directory.resolve("wal"), 1, 0, 1);
+        LedgerSnapshots ledgerSnapshots = new LedgerSnapshots(directory.resolve("snapshots"));
+        new LedgerRecovery(accountRepository, writeAheadLog, ledgerSnapshots).afterPropertiesSet();
+        LockingTransactionEngine transactionEngine = new LockingTransactionEngine(new AccountLocks(16), writeAheadLog, new LedgerMetrics(new SimpleMeterRegistry(), 4096, 10));
+        UUID accountId = UUID.randomUUID();
+        Account account = accountRepository.save(Account.builder().id(accountId).balance(0).build());
+        writeAheadLog.accountOpened(accountId, 0);
+        LocalDateTime lastBooking = LocalDateTime.of(2024, 6, 1, 12, 0);
+        transactionEngine.execute(account, new AccountTransaction(lastBooking, 100, 0, AccountTransactionType.DEPOSIT));
+        transactionEngine.execute(account, new AccountTransaction(lastBooking.minusMonths(5), 10, 0, AccountTransactionType.DEPOSIT));
+        SnapshotScheduler snapshotScheduler = new SnapshotScheduler(accountRepository, writeAheadLog, ledgerSnapshots, 3_600_000);
+        snapshotScheduler.snapshot();
+        transactionEngine.execute(account, new AccountTransaction(lastBooking.minusMonths(4), 10, 0, AccountTransactionType.DEPOSIT));
+        writeAheadLog.sync();
+        writeAheadLog.close();
+        snapshotScheduler.stop();
+        // When
+        InMemoryAccountRepository restoredRepository = new InMemoryAccountRepository();
+        WriteAheadLog reopened = new WriteAheadLog(directory.resolve("wal"), 1, 0, 1);
+        new LedgerRecovery(restoredRepository, reopened, new LedgerSnapshots(directory.resolve("snapshots"))).afterPropertiesSet();
+        // Then
+        JournalCursor cursor = restoredRepository.findOne(accountId).orElseThrow().getJournal().cursor();
+        assertTrue(cursor.next());
+        assertEquals(lastBooking, cursor.transactionDate());
+        assertTrue(cursor.next());
+        assertEquals(lastBooking, cursor.date());
+        assertEquals(lastBooking.minusMonths(5), cursor.transactionDate());
+        assertTrue(cursor.next());
+        assertEquals(lastBooking, cursor.date());
+        assertEquals(lastBooking.minusMonths(4), cursor.transactionDate());
+        reopened.close();
+    }
+
+    private static AccountTransaction transfer(long amount, AccountTransactionType type) {
+        return new AccountTransaction(LocalDateTime.now(), amount, 0, type);
+    }
+
+    private static AccountTransaction deposit(long amount) {
+        return new AccountTransaction(LocalDateTime.now(), amount, 0, AccountTransactionType.DEPOSIT);
+    }
+}
@@ -0,0 +1,194 @@
+package com.sgib.repository.wal;
+
+import com.sgib.domain.model.Account;
+import com.sgib.domain.model.AccountTransaction;
+import com.sgib.domain.model.AccountTransactionType;
+import com.sgib.repository.InMemoryAccountRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class WriteAheadLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void should_rebuild_accounts_from_the_log_after_a_restart() throws Exception {
+        // Given
+        WriteAheadLog writeAheadLog = new WriteAheadLog(directory, 1, 1, 64);
+        writeAheadLog.recover(new LedgerRecovery(new InMemoryAccountRepository(), writeAheadLog, null), 0);
+        UUID accountId = UUID.randomUUID();
+        writeAheadLog.accountOpened(accountId, 0);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int first = t * 1000 + 1;
+            Thread thread = new Thread(() -> {
+                for (long sequence = first; sequence < first + 1000; sequence++) {
+                    writeAheadLog.transactionCommitted(accountId, sequence, new AccountTransaction(
+                            LocalDateTime.now(), 100, sequence * 100, AccountTransactionType.DEPOSIT));
+                    writeAheadLog.sync();
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads)
+            thread.join();
+        writeAheadLog.close();
+        // When
+        InMemoryAccountRepository accountRepository = new InMemoryAccountRepository();
+        WriteAheadLog reopened = new WriteAheadLog(directory, 1, 1, 64);
+        reopened.recover(new LedgerRecovery(accountRepository, reopened, null), 0);
+        // Then
+        Account account = accountRepository.findOne(accountId).orElseThrow();
+        assertEquals(4000, account.getJournal().size());
+        assertEquals(4000, account.getState().getSequence());
+        assertEquals(400_000, account.getBalance());
+        reopened.close();
+    }
+
+    @Test
+    public void should_drop_a_torn_record_at_the_tail_of_the_log() throws Exception {
+        // Given
+        WriteAheadLog writeAheadLog = new WriteAheadLog(directory, 1, 0, 1);
+        writeAheadLog.recover(new LedgerRecovery(new InMemoryAccountRepository(), writeAheadLog, null), 0);
+        UUID accountId = UUID.randomUUID();
+        writeAheadLog.accountOpened(accountId, 0);
+        writeAheadLog.transactionCommitted(accountId, 1, new AccountTransaction(
+                LocalDateTime.now(), 500, 500, AccountTransactionType.DEPOSIT));
+        writeAheadLog.sync();
+        writeAheadLog.close();
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.findFirst().orElseThrow();
+        }
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 10);
+        }
+        // When
+        InMemoryAccountRepository accountRepository = new InMemoryAccountRepository();
+        WriteAheadLog reopened = new WriteAheadLog(directory, 1, 0, 1);
+        reopened.recover(new LedgerRecovery(accountRepository, reopened, null), 0);
+        // Then
+        assertEquals(0, accountRepository.findOne(accountId).orElseThrow().getJournal().size());
+        assertEquals(LogRecords.RECORD_BYTES, sizeOf(segment));
+        reopened.close();
+    }
+
+    @Test
+    public void should_recover_a_transfer_whole_or_not_at_all() throws Exception {
+        // Given
+        WriteAheadLog writeAheadLog = new WriteAheadLog(directory, 1, 0, 1);
+        writeAheadLog.recover(new LedgerRecovery(new InMemoryAccountRepository(), writeAheadLog, null), 0);
+        UUID sourceId = UUID.randomUUID();
+        UUID targetId = UUID.randomUUID();
+        writeAheadLog.accountOpened(sourceId, 1_000);
+        writeAheadLog.accountOpened(targetId, 0);
+        writeAheadLog.transferCommitted(sourceId, 1, new AccountTransaction(LocalDateTime.now(), 300, 700, AccountTransactionType.TRANSFER_OUT),
+                targetId, 1, new AccountTransaction(LocalDateTime.now(), 300, 300, AccountTransactionType.TRANSFER_IN));
+        writeAheadLog.sync();
+        writeAheadLog.close();
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.findFirst().orElseThrow();
+        }
+        // When
+        InMemoryAccountRepository wholeRepository = new InMemoryAccountRepository();
+        WriteAheadLog whole = new WriteAheadLog(directory, 1, 0, 1);
+        whole.recover(new LedgerRecovery(wholeRepository, whole, null), 0);
+        whole.close();
+        // the crash kept the debit only
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(3L * LogRecords.RECORD_BYTES);
+        }
+        InMemoryAccountRepository cutRepository = new InMemoryAccountRepository();
+        WriteAheadLog cut = new WriteAheadLog(directory, 1, 0, 1);
+        cut.recover(new LedgerRecovery(cutRepository, cut, null), 0);
+        // Then
+        Account source = wholeRepository.findOne(sourceId).orElseThrow();
+        assertEquals(700, source.getBalance());
+        assertEquals(300, wholeRepository.findOne(targetId).orElseThrow().getBalance());
+        assertEquals(targetId, source.getJournal().transferLink(1).counterpartyAccountId());
+        assertEquals(1_000, cutRepository.findOne(sourceId).orElseThrow().getBalance());
+        assertEquals(0, cutRepository.findOne(sourceId).orElseThrow().getJournal().size());
+        assertEquals(0, cutRepository.findOne(targetId).orElseThrow().getBalance());
+        cut.close();
+    }
+
+    @Test
+    public void should_recover_an_account_up_to_the_first_gap_in_its_sequences() throws Exception {
+        // Given
+        WriteAheadLog writeAheadLog = new WriteAheadLog(directory, 1, 0, 1);
+        writeAheadLog.recover(new LedgerRecovery(new InMemoryAccountRepository(), writeAheadLog, null), 0);
+        UUID accountId = UUID.randomUUID();
+        writeAheadLog.accountOpened(accountId, 0);
+        for (long sequence : new long[]{2, 1, 4, 5})
+            writeAheadLog.transactionCommitted(accountId, sequence, new AccountTransaction(
+                    LocalDateTime.now(), 100, sequence * 100, AccountTransactionType.DEPOSIT));
+        writeAheadLog.sync();
+        writeAheadLog.close();
+        // When
+        InMemoryAccountRepository accountRepository = new InMemoryAccountRepository();
+        WriteAheadLog reopened = new WriteAheadLog(directory, 1, 0, 1);
+        reopened.recover(new LedgerRecovery(accountRepository, reopened, null), 0);
+        // Then
+        Account account = accountRepository.findOne(accountId).orElseThrow();
+        assertEquals(2, account.getState().getSequence());
+        assertEquals(2, account.getJournal().size());
+        assertEquals(200, account.getBalance());
+        reopened.close();
+    }
+
+    private static long sizeOf(Path path) {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Test
+    public void should_keep_reporting_a_failed_flush_to_later_callers() throws Exception {
+        // Given
+        FileChannel failingChannel = mock(FileChannel.class);
+        when(failingChannel.write(any(ByteBuffer.class))).thenThrow(new IOException("No space left on device"));
+        WriteAheadLog writeAheadLog = new WriteAheadLog(directory, 1, 1, 64) {
+            @Override
+            FileChannel openSegment(long index) {
+                return failingChannel;
+            }
+        };
+        writeAheadLog.recover(new LedgerRecovery(new InMemoryAccountRepository(), writeAheadLog, null), 0);
+        UUID accountId = UUID.randomUUID();
+        writeAheadLog.accountOpened(accountId, 0);
+        // When
+        assertThrows(RuntimeException.class, writeAheadLog::sync);
+        // Then
+        assertThrows(UncheckedIOException.class, writeAheadLog::sync);
+        assertThrows(UncheckedIOException.class, () -> writeAheadLog.accountOpened(UUID.randomUUID(), 0));
+        assertThrows(UncheckedIOException.class, writeAheadLog::rollover);
+        verify(failingChannel, times(1)).write(any(ByteBuffer.class));
+        writeAheadLog.close();
+    }
+}
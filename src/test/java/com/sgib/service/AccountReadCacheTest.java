@@ -0,0 +1,61 @@
+package com.sgib.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sgib.domain.dto.AccountDTO;
+import com.sgib.domain.model.Account;
+import com.sgib.domain.model.AccountTransaction;
+import com.sgib.domain.model.AccountTransactionType;
+import com.sgib.domain.model.RenderedAccount;
+import com.sgib.exception.AccountNotFoundException;
+import com.sgib.repository.InMemoryAccountRepository;
+import com.sgib.repository.wal.NoOpTransactionLog;
+import com.sgib.service.concurrency.AccountLocks;
+import com.sgib.service.concurrency.LockingTransactionEngine;
+import com.sgib.service.metrics.LedgerMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class AccountReadCacheTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final InMemoryAccountRepository accountRepository = new InMemoryAccountRepository();
+    private final AccountReadCache accountReadCache = new AccountReadCache(accountRepository, objectMapper);
+
+    @Test
+    public void should_serve_the_same_rendering_until_a_transaction_is_committed() throws Exception {
+        // Given
+        UUID accountId = UUID.randomUUID();
+        Account account = accountRepository.save(Account.builder().id(accountId).balance(0).build());
+        LockingTransactionEngine transactionEngine = new LockingTransactionEngine(new AccountLocks(16), new NoOpTransactionLog(),
+                new LedgerMetrics(new SimpleMeterRegistry(), 4096, 10));
+        RenderedAccount first = accountReadCache.getAccount(accountId);
+        // When
+        RenderedAccount unchanged = accountReadCache.getAccount(accountId);
+        transactionEngine.execute(account, new AccountTransaction(LocalDateTime.now(), 1050, 0, AccountTransactionType.DEPOSIT));
+        RenderedAccount changed = accountReadCache.getAccount(accountId);
+        // Then
+        assertSame(first, unchanged);
+        assertNotEquals(first.etag(), changed.etag());
+        assertEquals("\"1\"", changed.etag());
+        AccountDTO accountDTO = objectMapper.readValue(changed.body(), AccountDTO.class);
+        assertEquals(accountId, accountDTO.getId());
+        assertEquals(0, BigDecimal.valueOf(10.5).compareTo(accountDTO.getBalance()));
+    }
+
+    @Test
+    public void should_throw_error_when_account_not_found() {
+        // Given
+        UUID accountId = UUID.randomUUID();
+        // When / Then
+        Assertions.assertThrows(AccountNotFoundException.class, () -> accountReadCache.getAccount(accountId));
+    }
+}
@@ -0,0 +1,282 @@
+package com.sgib.service;
+
+import com.sgib.domain.dto.AccountDTO;
+import com.sgib.domain.dto.AccountTransactionDTO;
+import com.sgib.domain.dto.TransferDTO;
+import com.sgib.domain.model.Account;
+import com.sgib.domain.model.AccountTransaction;
+import com.sgib.domain.model.AccountTransactionType;
+import com.sgib.exception.InsufficientFundsException;
+import com.sgib.repository.InMemoryAccountRepository;
+import com.sgib.repository.wal.NoOpTransactionLog;
+import com.sgib.repository.wal.TransactionLog;
+import com.sgib.service.concurrency.AccountAdmission;
+import com.sgib.service.concurrency.AccountLocks;
+import com.sgib.service.concurrency.CasTransactionEngine;
+import com.sgib.service.concurrency.LockingTransactionEngine;
+import com.sgib.service.concurrency.ShardedTransactionEngine;
+import com.sgib.service.concurrency.TransactionEngine;
+import com.sgib.service.id.SecureRandomAccountIdGenerator;
+import com.sgib.service.metrics.LedgerMetrics;
+import com.sgib.service.notification.TransactionNotifier;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AccountServiceConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int OPERATIONS_PER_THREAD = 5_000;
+    private static final int ACCOUNTS = 4;
+    private static final LedgerMetrics LEDGER_METRICS = new LedgerMetrics(new SimpleMeterRegistry(), 4096, 10);
+
+    static Stream<TransactionEngine> engines() {
+        return Stream.of(new LockingTransactionEngine(new AccountLocks(64), new NoOpTransactionLog(), LEDGER_METRICS),
+                new CasTransactionEngine(new NoOpTransactionLog(), LEDGER_METRICS),
+                new ShardedTransactionEngine(new NoOpTransactionLog(), 4, 1024));
+    }
+
+    @ParameterizedTest
+    @MethodSource("engines")
+    public void should_conserve_balance_when_deposits_and_withdrawals_run_concurrently(TransactionEngine transactionEngine) throws Exception {
+        assertBalanceConserved(transactionEngine, ACCOUNTS);
+    }
+
+    @ParameterizedTest
+    @MethodSource("engines")
+    public void should_conserve_balance_when_all_threads_hit_the_same_account(TransactionEngine transactionEngine) throws Exception {
+        assertBalanceConserved(transactionEngine, 1);
+    }
+
+    @ParameterizedTest
+    @MethodSource("engines")
+    public void should_conserve_total_balance_when_transfers_run_concurrently_in_both_directions(TransactionEngine transactionEngine) throws Exception {
+        // Given
+        AccountService accountService = new AccountService(new InMemoryAccountRepository(), transactionEngine, new NoOpTransactionLog(), LEDGER_METRICS,
+                new AccountAdmission(0), new TransactionNotifier(), new SecureRandomAccountIdGenerator());
+        List<UUID> accountIds = new ArrayList<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accountIds.add(accountService.createAccount().getId());
+            accountService.processTransaction(accountIds.get(i), AccountTransactionDTO.builder()
+                    .amount(BigDecimal.valueOf(1_000)).type("DEPOSIT").build());
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        // When
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                    int source = random.nextInt(ACCOUNTS);
+                    int target = (source + 1 + random.nextInt(ACCOUNTS - 1)) % ACCOUNTS;
+                    TransferDTO request = TransferDTO.builder()
+                            .sourceAccountId(accountIds.get(source))
+                            .targetAccountId(accountIds.get(target))
+                            .amount(BigDecimal.valueOf(1 + random.nextInt(100))).build();
+                    try {
+                        accountService.transfer(request);
+                    } catch (InsufficientFundsException ignored) {
+                        // rejected transfers leave both balances untouched
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures)
+            future.get(60, TimeUnit.SECONDS);
+        executor.shutdown();
+        // Then
+        BigDecimal total = BigDecimal.ZERO;
+        for (UUID accountId : accountIds) {
+            BigDecimal runningBalance = BigDecimal.ZERO;
+            for (AccountTransactionDTO transaction : accountService.getTransactionsByAccountId(accountId)) {
+                boolean debit = AccountTransactionType.valueOf(transaction.getType()).isDebit();
+                runningBalance = debit ? runningBalance.subtract(transaction.getAmount()) : runningBalance.add(transaction.getAmount());
+                assertEquals(0, runningBalance.compareTo(transaction.getBalanceAfterTransaction()));
+                assertTrue(runningBalance.signum() >= 0);
+            }
+            assertEquals(0, runningBalance.compareTo(accountService.getAccount(accountId).getBalance()));
+            total = total.add(runningBalance);
+        }
+        assertEquals(0, BigDecimal.valueOf(1_000L * ACCOUNTS).compareTo(total));
+    }
+
+    @ParameterizedTest
+    @MethodSource("engines")
+    public void should_leave_no_trace_when_the_credit_of_a_transfer_is_rejected(TransactionEngine transactionEngine) {
+        // Given
+        Account source = Account.builder().id(UUID.randomUUID()).balance(100).build();
+        List<Account> targets = new ArrayList<>();
+        for (int i = 0; i < 16; i++)
+            targets.add(Account.builder().id(UUID.randomUUID()).balance(Long.MAX_VALUE - 10).build());
+        // When
+        for (Account target : targets)
+            assertThrows(RuntimeException.class, () -> transactionEngine.transfer(source, target,
+                    new AccountTransaction(null, 50, 0, AccountTransactionType.TRANSFER_OUT),
+                    new AccountTransaction(null, 50, 0, AccountTransactionType.TRANSFER_IN)));
+        transactionEngine.execute(source, new AccountTransaction(null, 1, 0, AccountTransactionType.DEPOSIT));
+        // Then
+        assertEquals(101, source.getBalance());
+        assertEquals(1, source.getJournal().size());
+        for (Account target : targets) {
+            assertEquals(Long.MAX_VALUE - 10, target.getBalance());
+            assertEquals(0, target.getJournal().size());
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("engineFactories")
+    public void should_append_the_records_of_an_account_in_sequence_order(Function<TransactionLog, TransactionEngine> engineFactory) throws Exception {
+        // Given
+        List<Long> appended = Collections.synchronizedList(new ArrayList<>());
+        TransactionEngine transactionEngine = engineFactory.apply(new NoOpTransactionLog() {
+            @Override
+            public void transactionCommitted(UUID accountId, long sequence, AccountTransaction accountTransaction) {
+                appended.add(sequence);
+            }
+        });
+        Account account = Account.builder().id(UUID.randomUUID()).build();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        // When
+        for (int t = 0; t < THREADS; t++)
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < OPERATIONS_PER_THREAD; i++)
+                    transactionEngine.execute(account, new AccountTransaction(null, 1, 0, AccountTransactionType.DEPOSIT));
+                return null;
+            }));
+        for (Future<?> future : futures)
+            future.get(60, TimeUnit.SECONDS);
+        executor.shutdown();
+        // Then
+        assertEquals(THREADS * OPERATIONS_PER_THREAD, appended.size());
+        for (int i = 0; i < appended.size(); i++)
+            assertEquals(i + 1, appended.get(i));
+        assertEquals(appended.size(), account.getJournal().size());
+    }
+
+    @ParameterizedTest
+    @MethodSource("engineFactories")
+    public void should_leave_balances_unchanged_when_the_log_refuses_a_commit(Function<TransactionLog, TransactionEngine> engineFactory) {
+        // Given
+        TransactionEngine transactionEngine = engineFactory.apply(new NoOpTransactionLog() {
+            @Override
+            public void transactionCommitted(UUID accountId, long sequence, AccountTransaction accountTransaction) {
+                throw new UncheckedIOException(new IOException("No space left on device"));
+            }
+
+            @Override
+            public void transferCommitted(UUID sourceAccountId, long sourceSequence, AccountTransaction debit,
+                                          UUID targetAccountId, long targetSequence, AccountTransaction credit) {
+                throw new UncheckedIOException(new IOException("No space left on device"));
+            }
+        });
+        Account source = Account.builder().id(UUID.randomUUID()).balance(100).build();
+        Account target = Account.builder().id(UUID.randomUUID()).balance(0).build();
+        // When
+        assertThrows(UncheckedIOException.class, () -> transactionEngine.execute(source,
+                new AccountTransaction(null, 10, 0, AccountTransactionType.DEPOSIT)));
+        assertThrows(UncheckedIOException.class, () -> transactionEngine.transfer(source, target,
+                new AccountTransaction(null, 50, 0, AccountTransactionType.TRANSFER_OUT),
+                new AccountTransaction(null, 50, 0, AccountTransactionType.TRANSFER_IN)));
+        // Then
+        assertEquals(100, source.getBalance());
+        assertEquals(0, source.getState().getSequence());
+        assertEquals(0, source.getJournal().size());
+        assertEquals(0, target.getBalance());
+        assertEquals(0, target.getState().getSequence());
+        assertFalse(source.getState().isHeld());
+        assertFalse(target.getState().isHeld());
+    }
+
+    static Stream<Function<TransactionLog, TransactionEngine>> engineFactories() {
+        return Stream.of(transactionLog -> new LockingTransactionEngine(new AccountLocks(64), transactionLog, LEDGER_METRICS),
+                transactionLog -> new CasTransactionEngine(transactionLog, LEDGER_METRICS),
+                transactionLog -> new ShardedTransactionEngine(transactionLog, 4, 1024));
+    }
+
+    private void assertBalanceConserved(TransactionEngine transactionEngine, int accounts) throws Exception {
+        // Given
+        AccountService accountService = new AccountService(new InMemoryAccountRepository(), transactionEngine, new NoOpTransactionLog(), LEDGER_METRICS,
+                new AccountAdmission(0), new TransactionNotifier(), new SecureRandomAccountIdGenerator());
+        List<UUID> accountIds = new ArrayList<>();
+        for (int i = 0; i < accounts; i++)
+            accountIds.add(accountService.createAccount().getId());
+        AtomicLong[] expectedBalances = new AtomicLong[accounts];
+        AtomicLong[] acceptedTransactions = new AtomicLong[accounts];
+        for (int i = 0; i < accounts; i++) {
+            expectedBalances[i] = new AtomicLong();
+            acceptedTransactions[i] = new AtomicLong();
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        // When
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                    int account = random.nextInt(accounts);
+                    long amount = 1 + random.nextInt(100);
+                    boolean deposit = random.nextBoolean();
+                    AccountTransactionDTO request = AccountTransactionDTO.builder()
+                            .amount(BigDecimal.valueOf(amount))
+                            .type(deposit ? "DEPOSIT" : "WITHDRAWAL").build();
+                    try {
+                        accountService.processTransaction(accountIds.get(account), request);
+                        expectedBalances[account].addAndGet(deposit ? amount : -amount);
+                        acceptedTransactions[account].incrementAndGet();
+                    } catch (InsufficientFundsException ignored) {
+                        // rejected withdrawals leave the balance untouched
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures)
+            future.get(60, TimeUnit.SECONDS);
+        executor.shutdown();
+        // Then
+        for (int i = 0; i < accounts; i++) {
+            AccountDTO account = accountService.getAccount(accountIds.get(i));
+            List<AccountTransactionDTO> transactions = accountService.getTransactionsByAccountId(accountIds.get(i));
+            assertEquals(0, BigDecimal.valueOf(expectedBalances[i].get()).compareTo(account.getBalance()));
+            assertEquals(acceptedTransactions[i].get(), transactions.size());
+            BigDecimal runningBalance = BigDecimal.ZERO;
+            for (AccountTransactionDTO transaction : transactions) {
+                runningBalance = "DEPOSIT".equals(transaction.getType())
+                        ? runningBalance.add(transaction.getAmount())
+                        : runningBalance.subtract(transaction.getAmount());
+                assertEquals(0, runningBalance.compareTo(transaction.getBalanceAfterTransaction()));
+                assertTrue(runningBalance.signum() >= 0);
+            }
+        }
+    }
+}
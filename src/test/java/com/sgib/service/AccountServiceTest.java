@@ -1,22 +1,51 @@
 package com.sgib.service;
 
+import com.sgib.domain.dto.AccountDTO;
+import com.sgib.domain.dto.AccountSummaryDTO;
 import com.sgib.domain.dto.AccountTransactionDTO;
+import com.sgib.domain.dto.AccountTransactionPage;
+import com.sgib.domain.dto.BatchTransactionDTO;
+import com.sgib.domain.dto.StatementDTO;
+import com.sgib.domain.dto.TransactionResultDTO;
+import com.sgib.domain.dto.TransferDTO;
+import com.sgib.domain.dto.TransferResultDTO;
 import com.sgib.domain.model.Account;
 import com.sgib.domain.model.AccountTransaction;
 import com.sgib.domain.model.AccountTransactionType;
+import com.sgib.domain.model.Money;
+import com.sgib.domain.model.Rejection;
+import com.sgib.domain.model.TransferLink;
+import com.sgib.exception.AccountBusyException;
 import com.sgib.exception.AccountNotFoundException;
+import com.sgib.exception.BatchTooLargeException;
 import com.sgib.exception.InsufficientFundsException;
+import com.sgib.exception.InvalidAccountCountException;
 import com.sgib.exception.InvalidAmountException;
+import com.sgib.exception.InvalidTransactionException;
 import com.sgib.repository.AccountRepository;
+import com.sgib.repository.wal.NoOpTransactionLog;
+import com.sgib.repository.wal.TransactionLog;
+import com.sgib.service.concurrency.AccountAdmission;
+import com.sgib.service.concurrency.AccountLocks;
+import com.sgib.service.concurrency.LockingTransactionEngine;
+import com.sgib.service.concurrency.TransactionEngine;
+import com.sgib.service.id.AccountIdGenerator;
+import com.sgib.service.id.SecureRandomAccountIdGenerator;
+import com.sgib.service.metrics.LedgerMetrics;
+import com.sgib.service.notification.TransactionNotifier;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -24,22 +53,76 @@ import java.util.UUID;
 
 import static com.sgib.exception.Messages.*;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 public class AccountServiceTest {
 
+    private static final LedgerMetrics LEDGER_METRICS = new LedgerMetrics(new SimpleMeterRegistry(), 4096, 10);
+
     @Mock
     private AccountRepository accountRepository;
 
+    @Mock
+    private TransactionLog transactionLog;
+
+    @Spy
+    private TransactionEngine transactionEngine = new LockingTransactionEngine(new AccountLocks(16), new NoOpTransactionLog(), LEDGER_METRICS);
+
+    @Spy
+    private LedgerMetrics ledgerMetrics = LEDGER_METRICS;
+
+    @Spy
+    private AccountAdmission accountAdmission = new AccountAdmission(0);
+
+    @Spy
+    private TransactionNotifier transactionNotifier = new TransactionNotifier();
+
+    @Spy
+    private AccountIdGenerator accountIdGenerator = new SecureRandomAccountIdGenerator();
+
     @InjectMocks
     private AccountService accountService;
 
+    @Test
+    public void should_create_accounts_with_one_save_and_one_sync_when_count_is_within_limit() {
+        // Given
+        when(accountRepository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        // When
+        List<AccountDTO> accounts = accountService.createAccounts(3);
+        // Then
+        assertEquals(3, accounts.size());
+        assertEquals(3, accounts.stream().map(AccountDTO::getId).distinct().count());
+        assertEquals(0, BigDecimal.ZERO.compareTo(accounts.get(0).getBalance()));
+        verify(accountRepository, times(1)).saveAll(any());
+        verify(transactionLog, times(3)).accountOpened(any(), eq(0L));
+        verify(transactionLog, times(1)).sync();
+    }
+
+    @Test
+    public void should_throw_exception_when_number_of_accounts_to_create_is_out_of_range() {
+        // Given
+        accountService.setMaxAccountBatchSize(10);
+        // When
+        Exception tooMany = Assertions.assertThrows(BatchTooLargeException.class, () -> accountService.createAccounts(11));
+        Exception none = Assertions.assertThrows(InvalidAccountCountException.class, () -> accountService.createAccounts(0));
+        // Then
+        assertEquals(String.format(ACCOUNT_BATCH_SIZE_OUT_OF_RANGE, 10), tooMany.getMessage());
+        assertEquals(String.format(ACCOUNT_BATCH_SIZE_OUT_OF_RANGE, 10), none.getMessage());
+        verify(accountRepository, times(0)).saveAll(any());
+    }
+
     @Test
     public void should_deposit_amount_when_deposit_transaction_and_transaction_is_valid() {
         // Given
         UUID accountId = UUID.randomUUID();
-        Account account = Account.builder().id(accountId).balance(BigDecimal.ZERO)
+        Account account = Account.builder().id(accountId).balance(Money.toMinorUnits(BigDecimal.ZERO))
                 .accountTransactions(new ArrayList<>()).build();
         when(accountRepository.findOne(accountId)).thenReturn(Optional.of(account));
         AccountTransactionDTO accountTransactionDTO = AccountTransactionDTO.builder()
@@ -48,14 +131,14 @@ public class AccountServiceTest {
         // When
         AccountTransactionDTO accountTransaction = accountService.processTransaction(accountId, accountTransactionDTO);
         // Then
-        assertEquals(BigDecimal.valueOf(10), accountTransaction.getBalanceAfterTransaction());
+        assertEquals(new BigDecimal("10.00"), accountTransaction.getBalanceAfterTransaction());
     }
 
     @Test
     public void should_withdraw_amount_when_transaction_is_withdrawal_and_transaction_is_valid() {
         // Given
         UUID accountId = UUID.randomUUID();
-        Account account = Account.builder().id(accountId).balance(BigDecimal.valueOf(100))
+        Account account = Account.builder().id(accountId).balance(Money.toMinorUnits(BigDecimal.valueOf(100)))
                 .accountTransactions(new ArrayList<>()).build();
         when(accountRepository.findOne(accountId)).thenReturn(Optional.of(account));
         AccountTransactionDTO accountTransactionDTO = AccountTransactionDTO.builder()
@@ -64,7 +147,7 @@ public class AccountServiceTest {
         // When
         AccountTransactionDTO accountTransaction = accountService.processTransaction(accountId, accountTransactionDTO);
         // Then
-        assertEquals(BigDecimal.valueOf(80), accountTransaction.getBalanceAfterTransaction());
+        assertEquals(new BigDecimal("80.00"), accountTransaction.getBalanceAfterTransaction());
     }
 
     @Test
@@ -72,28 +155,294 @@ public class AccountServiceTest {
         // Given
         UUID accountId = UUID.randomUUID();
         List<AccountTransaction> accountTransactionList = new ArrayList<>();
-        accountTransactionList.add(new AccountTransaction(LocalDateTime.now(), BigDecimal.valueOf(50), BigDecimal.valueOf(50), AccountTransactionType.DEPOSIT));
-        accountTransactionList.add(new AccountTransaction(LocalDateTime.now(), BigDecimal.valueOf(30), BigDecimal.valueOf(20), AccountTransactionType.WITHDRAWAL));
-        Account account = Account.builder().id(accountId).balance(BigDecimal.valueOf(100))
+        accountTransactionList.add(new AccountTransaction(LocalDateTime.now(), Money.toMinorUnits(BigDecimal.valueOf(50)), Money.toMinorUnits(BigDecimal.valueOf(50)), AccountTransactionType.DEPOSIT));
+        accountTransactionList.add(new AccountTransaction(LocalDateTime.now(), Money.toMinorUnits(BigDecimal.valueOf(30)), Money.toMinorUnits(BigDecimal.valueOf(20)), AccountTransactionType.WITHDRAWAL));
+        Account account = Account.builder().id(accountId).balance(Money.toMinorUnits(BigDecimal.valueOf(100)))
                 .accountTransactions(accountTransactionList).build();
         when(accountRepository.findOne(accountId)).thenReturn(Optional.of(account));
         // When
         List<AccountTransactionDTO> accountTransactionDtoList = accountService.getTransactionsByAccountId(accountId);
         // Then
         assertEquals(2, accountTransactionDtoList.size());
-        assertEquals(BigDecimal.valueOf(50), accountTransactionDtoList.get(0).getAmount());
-        assertEquals(BigDecimal.valueOf(30), accountTransactionDtoList.get(1).getAmount());
+        assertEquals(new BigDecimal("50.00"), accountTransactionDtoList.get(0).getAmount());
+        assertEquals(new BigDecimal("30.00"), accountTransactionDtoList.get(1).getAmount());
         assertEquals("DEPOSIT", accountTransactionDtoList.get(0).getType());
         assertEquals("WITHDRAWAL", accountTransactionDtoList.get(1).getType());
-        assertEquals(BigDecimal.valueOf(50), accountTransactionDtoList.get(0).getBalanceAfterTransaction());
-        assertEquals(BigDecimal.valueOf(20), accountTransactionDtoList.get(1).getBalanceAfterTransaction());
+        assertEquals(new BigDecimal("50.00"), accountTransactionDtoList.get(0).getBalanceAfterTransaction());
+        assertEquals(new BigDecimal("20.00"), accountTransactionDtoList.get(1).getBalanceAfterTransaction());
+    }
+
+    @Test
+    public void should_return_next_page_and_cursor_when_history_is_longer_than_limit() {
+        // Given
+        UUID accountId = UUID.randomUUID();
+        Account account = Account.builder().id(accountId).balance(0)
+                .accountTransactions(depositsFrom(LocalDateTime.of(2024, 1, 1, 0, 0), 5)).build();
+        when(accountRepository.findOne(accountId)).thenReturn(Optional.of(account));
+        // When
+        AccountTransactionPage firstPage = accountService.getTransactionPage(accountId, 0, 2, null, null);
+        AccountTransactionPage lastPage = accountService.getTransactionPage(accountId, 4, 2, null, null);
+        // Then
+        assertEquals(2, firstPage.getTransactions().size());
+        assertEquals(2L, firstPage.getNextCursor());
+        assertEquals(new BigDecimal("2.00"), firstPage.getTransactions().get(1).getBalanceAfterTransaction());
+        assertEquals(1, lastPage.getTransactions().size());
+        assertEquals(new BigDecimal("5.00"), lastPage.getTransactions().get(0).getBalanceAfterTransaction());
+        assertNull(lastPage.getNextCursor());
+    }
+
+    @Test
+    public void should_stream_only_transactions_in_date_range() {
+        // Given
+        UUID accountId = UUID.randomUUID();
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        Account account = Account.builder().id(accountId).balance(0)
+                .accountTransactions(depositsFrom(start, 10)).build();
+        when(accountRepository.findOne(accountId)).thenReturn(Optional.of(account));
+        // When
+        List<AccountTransactionDTO> transactions = accountService
+                .streamTransactions(accountId, start.plusDays(3), start.plusDays(6)).toList();
+        // Then
+        assertEquals(3, transactions.size());
+        assertEquals(start.plusDays(3), transactions.get(0).getTransactionDate());
+        assertEquals(start.plusDays(5), transactions.get(2).getTransactionDate());
+    }
+
+    @Test
+    public void should_return_statement_with_opening_and_closing_balance_for_date_range() {
+        // Given
+        UUID accountId = UUID.randomUUID();
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        Account account = Account.builder().id(accountId).balance(Money.toMinorUnits(BigDecimal.TEN))
+                .accountTransactions(depositsFrom(start, 10)).build();
+        when(accountRepository.findOne(accountId)).thenReturn(Optional.of(account));
+        // When
+        StatementDTO statement = accountService.getStatement(accountId, start.plusDays(3), start.plusDays(6));
+        // Then
+        assertEquals(3, statement.getTransactions().size());
+        assertEquals(new BigDecimal("3.00"), statement.getOpeningBalance());
+        assertEquals(new BigDecimal("6.00"), statement.getClosingBalance());
+        assertEquals(new BigDecimal("4.00"), accountService.getAccountAsOf(accountId, start.plusDays(3)).getBalance());
+    }
+
+    @Test
+    public void should_book_backdated_transaction_at_time_of_previous_transaction() {
+        // Given
+        UUID accountId = UUID.randomUUID();
+        LocalDateTime lastBooking = LocalDateTime.of(2024, 6, 1, 12, 0);
+        Account account = Account.builder().id(accountId).balance(Money.toMinorUnits(BigDecimal.ONE))
+                .accountTransactions(depositsFrom(lastBooking, 1)).build();
+        when(accountRepository.findOne(accountId)).thenReturn(Optional.of(account));
+        AccountTransactionDTO accountTransactionDTO = AccountTransactionDTO.builder()
+                .transactionDate(lastBooking.minusDays(1))
+                .amount(BigDecimal.valueOf(10))
+                .type("DEPOSIT").build();
+        // When
+        AccountTransactionDTO accountTransaction = accountService.processTransaction(accountId, accountTransactionDTO);
+        // Then
+        assertEquals(lastBooking.minusDays(1), accountTransaction.getTransactionDate());
+        assertEquals(lastBooking, accountTransaction.getBookingDate());
+        AccountTransactionDTO journaled = accountService.getTransactionsByAccountId(accountId).get(1);
+        assertEquals(lastBooking.minusDays(1), journaled.getTransactionDate());
+        assertEquals(lastBooking, journaled.getBookingDate());
+    }
+
+    @Test
+    public void should_book_future_dated_transaction_now_and_keep_its_date() {
+        // Given
+        UUID accountId = UUID.randomUUID();
+        Account account = Account.builder().id(accountId).build();
+        when(accountRepository.findOne(accountId)).thenReturn(Optional.of(account));
+        LocalDateTime future = LocalDateTime.of(2099, 1, 1, 0, 0);
+        AccountTransactionDTO accountTransactionDTO = AccountTransactionDTO.builder()
+                .transactionDate(future)
+                .amount(BigDecimal.TEN)
+                .type("DEPOSIT").build();
+        LocalDateTime before = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        // When
+        AccountTransactionDTO accountTransaction = accountService.processTransaction(accountId, accountTransactionDTO);
+        // Then
+        assertEquals(future, accountTransaction.getTransactionDate());
+        assertFalse(accountTransaction.getBookingDate().isBefore(before));
+        assertFalse(accountTransaction.getBookingDate().isAfter(LocalDateTime.now()));
+        assertEquals(0, BigDecimal.TEN.compareTo(accountService.getAccountAsOf(accountId, LocalDateTime.now().plusSeconds(1)).getBalance()));
+    }
+
+    @Test
+    public void should_commit_batch_in_order_and_reject_only_invalid_items() {
+        // Given
+        UUID accountId = UUID.randomUUID();
+        Account account = Account.builder().id(accountId).balance(0)
+                .accountTransactions(new ArrayList<>()).build();
+        when(accountRepository.findOne(accountId)).thenReturn(Optional.of(account));
+        List<AccountTransactionDTO> batch = List.of(
+                AccountTransactionDTO.builder().amount(BigDecimal.valueOf(50)).type("DEPOSIT").build(),
+                AccountTransactionDTO.builder().amount(BigDecimal.valueOf(80)).type("WITHDRAWAL").build(),
+                AccountTransactionDTO.builder().amount(BigDecimal.valueOf(10)).type("REFUND").build(),
+                AccountTransactionDTO.builder().amount(BigDecimal.valueOf(20)).type("WITHDRAWAL").build());
+        // When
+        List<TransactionResultDTO> results = accountService.processTransactions(accountId, batch);
+        // Then
+        assertEquals(TransactionResultDTO.COMMITTED, results.get(0).getStatus());
+        assertEquals(INSUFFICIENT_FUNDS, results.get(1).getMessage());
+        assertEquals(String.format(TRANSACTION_TYPE_NOT_SUPPORTED, "REFUND"), results.get(2).getMessage());
+        assertEquals(new BigDecimal("30.00"), results.get(3).getTransaction().getBalanceAfterTransaction());
+        assertEquals(Money.toMinorUnits(BigDecimal.valueOf(30)), account.getBalance());
+        verify(transactionLog, times(1)).sync();
+    }
+
+    @Test
+    public void should_reject_items_of_unknown_accounts_in_cross_account_batch() {
+        // Given
+        UUID accountId = UUID.randomUUID();
+        UUID unknownAccountId = UUID.randomUUID();
+        Account account = Account.builder().id(accountId).balance(0)
+                .accountTransactions(new ArrayList<>()).build();
+        when(accountRepository.findOne(accountId)).thenReturn(Optional.of(account));
+        when(accountRepository.findOne(unknownAccountId)).thenReturn(Optional.empty());
+        List<BatchTransactionDTO> batch = List.of(
+                BatchTransactionDTO.builder().accountId(accountId).amount(BigDecimal.TEN).type("DEPOSIT").build(),
+                BatchTransactionDTO.builder().accountId(unknownAccountId).amount(BigDecimal.TEN).type("DEPOSIT").build(),
+                BatchTransactionDTO.builder().accountId(accountId).amount(BigDecimal.ONE).type("WITHDRAWAL").build());
+        // When
+        List<TransactionResultDTO> results = accountService.processTransactions(batch);
+        // Then
+        assertEquals(TransactionResultDTO.COMMITTED, results.get(0).getStatus());
+        assertEquals(String.format(ACCOUNT_NOT_FOUND, unknownAccountId), results.get(1).getMessage());
+        assertEquals(new BigDecimal("9.00"), results.get(2).getTransaction().getBalanceAfterTransaction());
+    }
+
+    @Test
+    public void should_reject_transaction_when_account_has_too_many_requests_in_flight() {
+        // Given
+        UUID accountId = UUID.randomUUID();
+        Account account = Account.builder().id(accountId).balance(0)
+                .accountTransactions(new ArrayList<>()).build();
+        when(accountRepository.findOne(accountId)).thenReturn(Optional.of(account));
+        AccountService limitedAccountService = new AccountService(accountRepository, transactionEngine, transactionLog,
+                ledgerMetrics, new AccountAdmission(1), new TransactionNotifier(), new SecureRandomAccountIdGenerator());
+        AccountTransactionDTO accountTransactionDTO = AccountTransactionDTO.builder()
+                .amount(BigDecimal.TEN)
+                .type("DEPOSIT").build();
+        account.tryEnter(1);
+        // When
+        Exception exception = Assertions.assertThrows(AccountBusyException.class, () ->
+                limitedAccountService.processTransaction(accountId, accountTransactionDTO));
+        // Then
+        assertEquals(String.format(ACCOUNT_BUSY, accountId), exception.getMessage());
+        account.exit();
+        assertEquals(new BigDecimal("10.00"), limitedAccountService.processTransaction(accountId, accountTransactionDTO).getBalanceAfterTransaction());
+        assertEquals(0, account.getInFlight());
+    }
+
+    @Test
+    public void should_summarize_transactions_per_day_in_date_range() {
+        // Given
+        UUID accountId = UUID.randomUUID();
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 12, 0);
+        Account account = Account.builder().id(accountId).balance(0)
+                .accountTransactions(depositsFrom(start, 10)).build();
+        when(accountRepository.findOne(accountId)).thenReturn(Optional.of(account));
+        // When
+        AccountSummaryDTO summary = accountService.getSummary(accountId, LocalDate.of(2024, 1, 3), LocalDate.of(2024, 1, 6));
+        // Then
+        assertEquals(3, summary.getDays().size());
+        assertEquals(LocalDate.of(2024, 1, 3), summary.getDays().get(0).getDate());
+        assertEquals(new BigDecimal("3.00"), summary.getCreditTotal());
+        assertEquals(3, summary.getCreditCount());
+        assertEquals(0, summary.getDebitCount());
+        assertEquals(new BigDecimal("3.00"), summary.getMinBalance());
+        assertEquals(new BigDecimal("5.00"), summary.getMaxBalance());
+    }
+
+    @Test
+    public void should_move_money_and_link_both_legs_when_transfer_is_valid() {
+        // Given
+        UUID sourceId = UUID.randomUUID();
+        UUID targetId = UUID.randomUUID();
+        Account source = Account.builder().id(sourceId).balance(Money.toMinorUnits(BigDecimal.valueOf(100)))
+                .accountTransactions(new ArrayList<>()).build();
+        Account target = Account.builder().id(targetId).balance(0)
+                .accountTransactions(new ArrayList<>()).build();
+        when(accountRepository.findOne(sourceId)).thenReturn(Optional.of(source));
+        when(accountRepository.findOne(targetId)).thenReturn(Optional.of(target));
+        TransferDTO transferDTO = TransferDTO.builder()
+                .sourceAccountId(sourceId)
+                .targetAccountId(targetId)
+                .amount(BigDecimal.valueOf(30)).build();
+        // When
+        TransferResultDTO transferResultDTO = accountService.transfer(transferDTO);
+        // Then
+        assertEquals(new BigDecimal("70.00"), transferResultDTO.getDebit().getBalanceAfterTransaction());
+        assertEquals(new BigDecimal("30.00"), transferResultDTO.getCredit().getBalanceAfterTransaction());
+        assertEquals(Money.toMinorUnits(BigDecimal.valueOf(70)), source.getBalance());
+        assertEquals(Money.toMinorUnits(BigDecimal.valueOf(30)), target.getBalance());
+        AccountTransactionDTO debit = accountService.getTransactionsByAccountId(sourceId).get(0);
+        AccountTransactionDTO credit = accountService.getTransactionsByAccountId(targetId).get(0);
+        assertEquals("TRANSFER_OUT", debit.getType());
+        assertEquals(targetId, debit.getCounterpartyAccountId());
+        assertEquals("TRANSFER_IN", credit.getType());
+        assertEquals(sourceId, credit.getCounterpartyAccountId());
+        assertEquals(new TransferLink(targetId, 1), source.getJournal().transferLink(1));
+        verify(transactionLog, times(1)).sync();
+    }
+
+    @Test
+    public void should_leave_both_accounts_untouched_when_transfer_exceeds_source_balance() {
+        // Given
+        UUID sourceId = UUID.randomUUID();
+        UUID targetId = UUID.randomUUID();
+        Account source = Account.builder().id(sourceId).balance(Money.toMinorUnits(BigDecimal.TEN))
+                .accountTransactions(new ArrayList<>()).build();
+        Account target = Account.builder().id(targetId).balance(0)
+                .accountTransactions(new ArrayList<>()).build();
+        when(accountRepository.findOne(sourceId)).thenReturn(Optional.of(source));
+        when(accountRepository.findOne(targetId)).thenReturn(Optional.of(target));
+        TransferDTO transferDTO = TransferDTO.builder()
+                .sourceAccountId(sourceId)
+                .targetAccountId(targetId)
+                .amount(BigDecimal.valueOf(20)).build();
+        // When
+        Exception exception = Assertions.assertThrows(InsufficientFundsException.class, () ->
+                accountService.transfer(transferDTO));
+        // Then
+        assertEquals(INSUFFICIENT_FUNDS, exception.getMessage());
+        assertEquals(Money.toMinorUnits(BigDecimal.TEN), source.getBalance());
+        assertEquals(0, target.getBalance());
+        assertEquals(0, target.getJournal().size());
+    }
+
+    @Test
+    public void should_reject_transfer_leg_posted_as_a_single_transaction() {
+        // Given
+        UUID accountId = UUID.randomUUID();
+        Account account = Account.builder().id(accountId).balance(0)
+                .accountTransactions(new ArrayList<>()).build();
+        when(accountRepository.findOne(accountId)).thenReturn(Optional.of(account));
+        AccountTransactionDTO accountTransactionDTO = AccountTransactionDTO.builder()
+                .amount(BigDecimal.TEN)
+                .type("TRANSFER_IN").build();
+        // When
+        Exception exception = Assertions.assertThrows(InvalidTransactionException.class, () ->
+                accountService.processTransaction(accountId, accountTransactionDTO));
+        // Then
+        assertEquals(String.format(TRANSACTION_TYPE_NOT_SUPPORTED, "TRANSFER_IN"), exception.getMessage());
+        assertEquals(0, account.getBalance());
+    }
+
+    private static List<AccountTransaction> depositsFrom(LocalDateTime start, int days) {
+        List<AccountTransaction> accountTransactionList = new ArrayList<>();
+        for (int day = 0; day < days; day++)
+            accountTransactionList.add(new AccountTransaction(start.plusDays(day), Money.toMinorUnits(BigDecimal.ONE),
+                    Money.toMinorUnits(BigDecimal.valueOf(day + 1)), AccountTransactionType.DEPOSIT));
+        return accountTransactionList;
     }
 
     @Test
     public void should_throw_error_when_withdrawal_is_greater_than_balance() {
         // Given
         UUID accountId = UUID.randomUUID();
-        Account account = Account.builder().id(accountId).balance(BigDecimal.valueOf(10))
+        Account account = Account.builder().id(accountId).balance(Money.toMinorUnits(BigDecimal.valueOf(10)))
                 .accountTransactions(new ArrayList<>()).build();
         when(accountRepository.findOne(accountId)).thenReturn(Optional.of(account));
         AccountTransactionDTO accountTransactionDTO = AccountTransactionDTO.builder()
@@ -105,6 +454,26 @@ public class AccountServiceTest {
         assertEquals(INSUFFICIENT_FUNDS, exception.getMessage());
     }
 
+    @Test
+    public void should_return_shared_rejected_outcome_without_syncing_when_withdrawal_is_greater_than_balance() {
+        // Given
+        UUID accountId = UUID.randomUUID();
+        Account account = Account.builder().id(accountId).balance(Money.toMinorUnits(BigDecimal.valueOf(10)))
+                .accountTransactions(new ArrayList<>()).build();
+        when(accountRepository.findOne(accountId)).thenReturn(Optional.of(account));
+        AccountTransactionDTO accountTransactionDTO = AccountTransactionDTO.builder()
+                .amount(BigDecimal.valueOf(20))
+                .type("WITHDRAWAL").build();
+        // When
+        TransactionOutcome transactionOutcome = accountService.tryProcessTransaction(accountId, accountTransactionDTO);
+        // Then
+        Assertions.assertFalse(transactionOutcome.isCommitted());
+        Assertions.assertSame(TransactionOutcome.rejected(Rejection.INSUFFICIENT_FUNDS), transactionOutcome);
+        assertEquals(Money.toMinorUnits(BigDecimal.valueOf(10)), account.getBalance());
+        assertEquals(0, account.getJournal().size());
+        verify(transactionLog, times(0)).sync();
+    }
+
     @Test
     public void should_throw_error_when_account_not_found() {
         // Given
@@ -123,7 +492,7 @@ public class AccountServiceTest {
     public void should_throw_error_when_deposit_amount_is_less_or_equal_than_zero() {
         // Given
         UUID accountId = UUID.randomUUID();
-        Account account = Account.builder().id(accountId).balance(BigDecimal.ZERO)
+        Account account = Account.builder().id(accountId).balance(Money.toMinorUnits(BigDecimal.ZERO))
                 .accountTransactions(new ArrayList<>()).build();
         when(accountRepository.findOne(accountId)).thenReturn(Optional.of(account));
         AccountTransactionDTO accountTransactionDTO = AccountTransactionDTO.builder()
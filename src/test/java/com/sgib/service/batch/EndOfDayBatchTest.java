@@ -0,0 +1,174 @@
+package com.sgib.service.batch;
+
+import com.sgib.domain.dto.EndOfDayRunDTO;
+import com.sgib.domain.model.Account;
+import com.sgib.domain.model.AccountTransaction;
+import com.sgib.domain.model.AccountTransactionType;
+import com.sgib.domain.model.JournalCursor;
+import com.sgib.exception.EndOfDayOperationNotFoundException;
+import com.sgib.exception.InvalidBusinessDateException;
+import com.sgib.repository.InMemoryAccountRepository;
+import com.sgib.repository.wal.NoOpTransactionLog;
+import com.sgib.service.concurrency.AccountLocks;
+import com.sgib.service.concurrency.LockingTransactionEngine;
+import com.sgib.service.concurrency.TransactionEngine;
+import com.sgib.service.metrics.LedgerMetrics;
+import com.sgib.service.notification.TransactionNotifier;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class EndOfDayBatchTest {
+
+    private static final int ACCOUNTS = 10_000;
+    private static final LocalDate BUSINESS_DATE = LocalDate.of(2024, 3, 31);
+
+    @TempDir
+    Path checkpointDirectory;
+
+    private InMemoryAccountRepository accountRepository;
+    private TransactionEngine transactionEngine;
+    private EndOfDayBatch endOfDayBatch;
+
+    @BeforeEach
+    public void setUp() {
+        accountRepository = new InMemoryAccountRepository();
+        transactionEngine = new LockingTransactionEngine(new AccountLocks(64), new NoOpTransactionLog(),
+                new LedgerMetrics(new SimpleMeterRegistry(), 4096, 10));
+        endOfDayBatch = new EndOfDayBatch(accountRepository, transactionEngine, new NoOpTransactionLog(), new TransactionNotifier(),
+                List.of(new InterestAccrual(365), new MaintenanceFee(new BigDecimal("2.50"))), checkpointDirectory.toString(), 4);
+        for (int i = 0; i < ACCOUNTS; i++)
+            accountRepository.save(Account.builder().id(UUID.randomUUID()).balance(100_000).build());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        endOfDayBatch.stop();
+    }
+
+    @Test
+    public void should_post_interest_on_every_account_once_when_run_twice_for_the_same_date() {
+        // When
+        EndOfDayRunDTO firstRun = endOfDayBatch.run("interest", BUSINESS_DATE);
+        EndOfDayRunDTO secondRun = endOfDayBatch.run("interest", BUSINESS_DATE);
+        // Then
+        assertEquals(EndOfDayRunDTO.COMPLETED, firstRun.getStatus());
+        assertEquals(ACCOUNTS, firstRun.getAccounts());
+        assertEquals(ACCOUNTS, firstRun.getPosted());
+        assertEquals(EndOfDayRun.BUCKETS, firstRun.getBucketsCompleted());
+        assertEquals(ACCOUNTS, secondRun.getResumed());
+        assertEquals(0, secondRun.getPosted());
+        accountRepository.forEach(account -> {
+            assertEquals(100_010, account.getBalance());
+            JournalCursor cursor = account.getJournal().cursor();
+            cursor.next();
+            assertEquals(AccountTransactionType.INTEREST, cursor.type());
+            assertEquals(BUSINESS_DATE.atTime(23, 59, 59, 999_000_000), cursor.date());
+        });
+    }
+
+    @Test
+    public void should_skip_accounts_already_posted_when_a_run_resumes_before_its_checkpoint_was_saved() throws Exception {
+        // Given
+        endOfDayBatch.run("interest", BUSINESS_DATE);
+        Path checkpointFile = checkpointDirectory.resolve("interest-" + BUSINESS_DATE + ".checkpoint");
+        Files.delete(checkpointFile);
+        EndOfDayCheckpoint.open(checkpointFile, EndOfDayRun.BUCKETS);
+        // When
+        EndOfDayRunDTO resumedRun = endOfDayBatch.run("interest", BUSINESS_DATE);
+        // Then
+        assertEquals(EndOfDayRunDTO.COMPLETED, resumedRun.getStatus());
+        assertEquals(0, resumedRun.getResumed());
+        assertEquals(ACCOUNTS, resumedRun.getProcessed());
+        assertEquals(0, resumedRun.getPosted());
+        accountRepository.forEach(account -> assertEquals(100_010, account.getBalance()));
+    }
+
+    @Test
+    public void should_post_accounts_already_posted_for_a_later_date_when_a_run_resumes() throws Exception {
+        // Given
+        Account busyAccount = accountRepository.save(Account.builder().id(UUID.randomUUID()).balance(100_000).build());
+        LocalDateTime laterMorning = BUSINESS_DATE.plusDays(2).atTime(8, 0);
+        transactionEngine.execute(busyAccount, new AccountTransaction(laterMorning, 1_000, 0, AccountTransactionType.DEPOSIT));
+        endOfDayBatch.run("interest", BUSINESS_DATE.plusDays(1));
+        EndOfDayCheckpoint.open(checkpointDirectory.resolve("interest-" + BUSINESS_DATE + ".checkpoint"), EndOfDayRun.BUCKETS);
+        // When
+        EndOfDayRunDTO resumedRun = endOfDayBatch.run("interest", BUSINESS_DATE);
+        // Then
+        assertEquals(ACCOUNTS + 1, resumedRun.getPosted());
+        accountRepository.forEach(account -> assertEquals(account == busyAccount ? 101_020 : 100_020, account.getBalance()));
+        JournalCursor cursor = busyAccount.getJournal().cursor(2, 3);
+        cursor.next();
+        assertEquals(AccountTransactionType.INTEREST, cursor.type());
+        assertEquals(BUSINESS_DATE.atTime(23, 59, 59, 999_000_000), cursor.transactionDate());
+        assertEquals(laterMorning, cursor.date());
+    }
+
+    @Test
+    public void should_reject_fee_when_account_cannot_cover_it() {
+        // Given
+        Account poorAccount = accountRepository.save(Account.builder().id(UUID.randomUUID()).balance(100).build());
+        // When
+        EndOfDayRunDTO run = endOfDayBatch.run("fee", BUSINESS_DATE);
+        // Then
+        assertEquals(ACCOUNTS, run.getPosted());
+        assertEquals(1, run.getRejected());
+        assertEquals(100, poorAccount.getBalance());
+        assertEquals(0, poorAccount.getJournal().size());
+    }
+
+    @Test
+    public void should_post_on_closing_balance_after_later_transactions_of_the_account() {
+        // Given
+        Account account = accountRepository.save(Account.builder().id(UUID.randomUUID()).balance(0).build());
+        LocalDateTime nextMorning = BUSINESS_DATE.plusDays(1).atTime(8, 0);
+        transactionEngine.execute(account, new AccountTransaction(BUSINESS_DATE.atTime(12, 0), 100_000, 0, AccountTransactionType.DEPOSIT));
+        transactionEngine.execute(account, new AccountTransaction(nextMorning, 900_000, 0, AccountTransactionType.DEPOSIT));
+        // When
+        endOfDayBatch.run("interest", BUSINESS_DATE);
+        // Then
+        JournalCursor cursor = account.getJournal().cursor(2, 3);
+        cursor.next();
+        assertEquals(AccountTransactionType.INTEREST, cursor.type());
+        assertEquals(10, cursor.amount());
+        assertEquals(nextMorning, cursor.date());
+    }
+
+    @Test
+    public void should_throw_exception_when_business_date_is_not_over() {
+        assertThrows(InvalidBusinessDateException.class, () -> endOfDayBatch.start("interest", LocalDate.now()));
+        assertThrows(InvalidBusinessDateException.class, () -> endOfDayBatch.start("interest", LocalDate.now().plusDays(1)));
+    }
+
+    @Test
+    public void should_throw_exception_when_operation_is_unknown() {
+        assertThrows(EndOfDayOperationNotFoundException.class, () -> endOfDayBatch.start("dividend", BUSINESS_DATE));
+    }
+
+    @Test
+    public void should_accrue_daily_interest_rounded_down_without_overflowing() {
+        // Given
+        InterestAccrual interestAccrual = new InterestAccrual(250);
+        // When
+        long interest = interestAccrual.amount(Long.MAX_VALUE, BUSINESS_DATE);
+        // Then
+        BigInteger expected = BigInteger.valueOf(Long.MAX_VALUE).multiply(BigInteger.valueOf(250)).divide(BigInteger.valueOf(3_650_000));
+        assertEquals(expected.longValueExact(), interest);
+        assertEquals(68, interestAccrual.amount(10_000_00, BUSINESS_DATE));
+        assertEquals(0, interestAccrual.amount(-10_000_00, BUSINESS_DATE));
+    }
+}
@@ -0,0 +1,74 @@
+package com.sgib.service.concurrency;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CommandRingTest {
+
+    @Test
+    public void should_refuse_elements_when_full_and_accept_them_again_once_polled() {
+        // Given
+        CommandRing<Integer> ring = new CommandRing<>(3);
+        // When
+        for (int i = 0; i < ring.capacity(); i++)
+            assertTrue(ring.offer(i));
+        // Then
+        assertEquals(4, ring.capacity());
+        assertFalse(ring.offer(4));
+        assertEquals(0, ring.poll());
+        assertTrue(ring.offer(4));
+        for (int i = 1; i <= 4; i++)
+            assertEquals(i, ring.poll());
+        assertNull(ring.poll());
+        assertTrue(ring.isEmpty());
+    }
+
+    @Test
+    public void should_deliver_every_element_once_and_in_order_per_producer_when_producers_race() throws Exception {
+        // Given
+        int producers = 8;
+        int perProducer = 50_000;
+        CommandRing<long[]> ring = new CommandRing<>(64);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        // When
+        for (int p = 0; p < producers; p++) {
+            long producer = p;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (long i = 0; i < perProducer; i++) {
+                    long[] element = {producer, i};
+                    while (!ring.offer(element))
+                        Thread.onSpinWait();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        long[] next = new long[producers];
+        for (long received = 0; received < (long) producers * perProducer; ) {
+            long[] element = ring.poll();
+            if (element == null)
+                continue;
+            // Then
+            assertEquals(next[(int) element[0]]++, element[1]);
+            received++;
+        }
+        for (Future<?> future : futures)
+            future.get();
+        executor.shutdown();
+        assertTrue(ring.isEmpty());
+    }
+}
@@ -0,0 +1,46 @@
+package com.sgib.service.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AccountIdGeneratorTest {
+
+    @Test
+    public void should_generate_distinct_version_4_ids_from_the_thread_local_generator() {
+        // Given
+        AccountIdGenerator accountIdGenerator = new ThreadLocalRandomAccountIdGenerator();
+        Set<UUID> ids = new HashSet<>();
+        // When
+        for (int i = 0; i < 100_000; i++)
+            ids.add(accountIdGenerator.nextId());
+        // Then
+        assertEquals(100_000, ids.size());
+        for (UUID id : ids) {
+            assertEquals(4, id.version());
+            assertEquals(2, id.variant());
+        }
+    }
+
+    @Test
+    public void should_generate_version_7_ids_ordered_by_creation_millisecond() throws Exception {
+        // Given
+        AccountIdGenerator accountIdGenerator = new TimeOrderedAccountIdGenerator();
+        long before = System.currentTimeMillis();
+        // When
+        UUID first = accountIdGenerator.nextId();
+        Thread.sleep(2);
+        UUID second = accountIdGenerator.nextId();
+        // Then
+        assertEquals(7, first.version());
+        assertEquals(2, first.variant());
+        long firstMillis = first.getMostSignificantBits() >>> 16;
+        assertTrue(firstMillis >= before && firstMillis <= System.currentTimeMillis());
+        assertTrue(first.compareTo(second) < 0);
+    }
+}
@@ -0,0 +1,118 @@
+package com.sgib.service.idempotency;
+
+import com.sgib.domain.dto.AccountTransactionDTO;
+import com.sgib.exception.IdempotencyKeyReusedException;
+import com.sgib.exception.InsufficientFundsException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class IdempotencyCacheTest {
+
+    private static final AccountTransactionDTO REQUEST = AccountTransactionDTO.builder()
+            .amount(BigDecimal.ONE)
+            .type("DEPOSIT")
+            .build();
+
+    private final AtomicLong nanoClock = new AtomicLong();
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @Test
+    public void should_return_the_original_transaction_when_the_key_is_replayed() {
+        // Given
+        IdempotencyCache idempotencyCache = cache(100);
+        UUID accountId = UUID.randomUUID();
+        AccountTransactionDTO original = idempotencyCache.execute(accountId, "key-1", REQUEST, this::deposit);
+        // When
+        AccountTransactionDTO replayed = idempotencyCache.execute(accountId, "key-1", REQUEST, this::deposit);
+        AccountTransactionDTO otherAccount = idempotencyCache.execute(UUID.randomUUID(), "key-1", REQUEST, this::deposit);
+        // Then
+        assertSame(original, replayed);
+        assertEquals(BigDecimal.valueOf(2), otherAccount.getBalanceAfterTransaction());
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    public void should_refuse_a_key_replayed_with_a_different_transaction() {
+        // Given
+        IdempotencyCache idempotencyCache = cache(100);
+        UUID accountId = UUID.randomUUID();
+        idempotencyCache.execute(accountId, "key-1", REQUEST, this::deposit);
+        AccountTransactionDTO sameAmount = AccountTransactionDTO.builder().amount(new BigDecimal("1.00")).type("DEPOSIT").build();
+        AccountTransactionDTO otherAmount = AccountTransactionDTO.builder().amount(BigDecimal.TEN).type("DEPOSIT").build();
+        AccountTransactionDTO otherType = AccountTransactionDTO.builder().amount(BigDecimal.ONE).type("WITHDRAWAL").build();
+        // When
+        AccountTransactionDTO replayed = idempotencyCache.execute(accountId, "key-1", sameAmount, this::deposit);
+        // Then
+        assertEquals(BigDecimal.ONE, replayed.getBalanceAfterTransaction());
+        Assertions.assertThrows(IdempotencyKeyReusedException.class,
+                () -> idempotencyCache.execute(accountId, "key-1", otherAmount, this::deposit));
+        Assertions.assertThrows(IdempotencyKeyReusedException.class,
+                () -> idempotencyCache.execute(accountId, "key-1", otherType, this::deposit));
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    public void should_run_the_transaction_again_once_the_key_has_expired() {
+        // Given
+        IdempotencyCache idempotencyCache = cache(100);
+        UUID accountId = UUID.randomUUID();
+        idempotencyCache.execute(accountId, "key-1", REQUEST, this::deposit);
+        // When
+        nanoClock.addAndGet(TimeUnit.SECONDS.toNanos(61));
+        AccountTransactionDTO afterExpiry = idempotencyCache.execute(accountId, "key-1", REQUEST, this::deposit);
+        // Then
+        assertEquals(BigDecimal.valueOf(2), afterExpiry.getBalanceAfterTransaction());
+        assertEquals(1, idempotencyCache.size());
+    }
+
+    @Test
+    public void should_keep_at_most_max_keys_when_keys_keep_coming() {
+        // Given
+        IdempotencyCache idempotencyCache = cache(64);
+        UUID accountId = UUID.randomUUID();
+        // When
+        for (int i = 0; i < 10_000; i++)
+            idempotencyCache.execute(accountId, "key-" + i, REQUEST, this::deposit);
+        // Then
+        assertEquals(16, idempotencyCache.size());
+        idempotencyCache.execute(accountId, "key-0", REQUEST, this::deposit);
+        assertEquals(10_001, executions.get());
+    }
+
+    @Test
+    public void should_not_remember_a_rejected_transaction() {
+        // Given
+        IdempotencyCache idempotencyCache = cache(100);
+        UUID accountId = UUID.randomUUID();
+        // When
+        Assertions.assertThrows(InsufficientFundsException.class, () -> idempotencyCache.execute(accountId, "key-1", REQUEST, () -> {
+            throw new InsufficientFundsException("Insufficient funds");
+        }));
+        AccountTransactionDTO retried = idempotencyCache.execute(accountId, "key-1", REQUEST, this::deposit);
+        // Then
+        assertEquals(BigDecimal.ONE, retried.getBalanceAfterTransaction());
+    }
+
+    private IdempotencyCache cache(int maxKeys) {
+        IdempotencyCache idempotencyCache = new IdempotencyCache(maxKeys, 60, 4);
+        idempotencyCache.nanoClock = nanoClock::get;
+        return idempotencyCache;
+    }
+
+    private AccountTransactionDTO deposit() {
+        return AccountTransactionDTO.builder()
+                .amount(BigDecimal.ONE)
+                .balanceAfterTransaction(BigDecimal.valueOf(executions.incrementAndGet()))
+                .type("DEPOSIT")
+                .build();
+    }
+}
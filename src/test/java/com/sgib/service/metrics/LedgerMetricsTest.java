@@ -0,0 +1,59 @@
+package com.sgib.service.metrics;
+
+import com.sgib.domain.model.AccountTransactionType;
+import com.sgib.exception.InsufficientFundsException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static com.sgib.exception.Messages.INSUFFICIENT_FUNDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class LedgerMetricsTest {
+
+    @Test
+    public void should_publish_most_contended_accounts_and_reset_window() {
+        // Given
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        LedgerMetrics ledgerMetrics = new LedgerMetrics(meterRegistry, 4096, 2);
+        UUID hottest = UUID.randomUUID();
+        UUID hot = UUID.randomUUID();
+        UUID cold = UUID.randomUUID();
+        for (int i = 0; i < 30; i++)
+            ledgerMetrics.lockWaited(hottest, 1_000);
+        for (int i = 0; i < 20; i++)
+            ledgerMetrics.compareAndSetRetried(hot);
+        ledgerMetrics.compareAndSetRetried(cold);
+        // When
+        ledgerMetrics.publishHotAccounts();
+        // Then
+        assertEquals(30, contention(meterRegistry, hottest).value());
+        assertEquals(20, contention(meterRegistry, hot).value());
+        assertNull(contention(meterRegistry, cold));
+        assertEquals(51, meterRegistry.get("bank.transaction.contended").counter().count());
+        ledgerMetrics.publishHotAccounts();
+        assertNull(contention(meterRegistry, hottest));
+    }
+
+    @Test
+    public void should_count_rejections_by_reason_and_time_commits_by_type() {
+        // Given
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        LedgerMetrics ledgerMetrics = new LedgerMetrics(meterRegistry, 4096, 10);
+        // When
+        ledgerMetrics.transactionRejected(new InsufficientFundsException(INSUFFICIENT_FUNDS));
+        ledgerMetrics.transactionCommitted(AccountTransactionType.DEPOSIT, 5_000);
+        ledgerMetrics.transactionCommitted(AccountTransactionType.DEPOSIT, 7_000);
+        // Then
+        assertEquals(1, meterRegistry.get("bank.transaction.rejected").tag("reason", "insufficient_funds").counter().count());
+        assertEquals(0, meterRegistry.get("bank.transaction.rejected").tag("reason", "invalid_amount").counter().count());
+        assertEquals(2, meterRegistry.get("bank.transaction.latency").tag("type", "DEPOSIT").timer().count());
+    }
+
+    private static Gauge contention(SimpleMeterRegistry meterRegistry, UUID accountId) {
+        return meterRegistry.find("bank.account.contention").tag("account", accountId.toString()).gauge();
+    }
+}
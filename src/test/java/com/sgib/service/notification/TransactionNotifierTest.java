@@ -0,0 +1,37 @@
+package com.sgib.service.notification;
+
+import com.sgib.domain.dto.AccountTransactionDTO;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TransactionNotifierTest {
+
+    @Test
+    public void should_push_transactions_to_listeners_of_their_account_only_while_they_listen() {
+        // Given
+        TransactionNotifier transactionNotifier = new TransactionNotifier();
+        UUID accountId = UUID.randomUUID();
+        List<AccountTransactionDTO> received = new CopyOnWriteArrayList<>();
+        transactionNotifier.transactionCommitted(accountId, transaction(1));
+        // When
+        Disposable listener = transactionNotifier.transactions(accountId).subscribe(received::add);
+        transactionNotifier.transactionCommitted(accountId, transaction(2));
+        transactionNotifier.transactionCommitted(UUID.randomUUID(), transaction(3));
+        listener.dispose();
+        transactionNotifier.transactionCommitted(accountId, transaction(4));
+        // Then
+        assertEquals(1, received.size());
+        assertEquals(2L, received.get(0).getSequence());
+        assertEquals(0, transactionNotifier.channelCount());
+    }
+
+    private static AccountTransactionDTO transaction(long sequence) {
+        return AccountTransactionDTO.builder().type("DEPOSIT").sequence(sequence).build();
+    }
+}
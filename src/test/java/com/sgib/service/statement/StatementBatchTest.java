@@ -0,0 +1,90 @@
+package com.sgib.service.statement;
+
+import com.sgib.domain.dto.StatementRunDTO;
+import com.sgib.domain.model.Account;
+import com.sgib.domain.model.AccountTransaction;
+import com.sgib.domain.model.AccountTransactionType;
+import com.sgib.repository.InMemoryAccountRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class StatementBatchTest {
+
+    private static final int ACCOUNTS = 2_000;
+    private static final LocalDate FROM = LocalDate.of(2024, 3, 1);
+    private static final LocalDate TO = LocalDate.of(2024, 4, 1);
+
+    @TempDir
+    Path directory;
+
+    private InMemoryAccountRepository accountRepository;
+    private StatementBatch statementBatch;
+
+    @BeforeEach
+    public void setUp() {
+        accountRepository = new InMemoryAccountRepository();
+        statementBatch = new StatementBatch(accountRepository, directory.toString(), 4);
+        for (int i = 0; i < ACCOUNTS; i++)
+            accountRepository.save(Account.builder()
+                    .id(UUID.randomUUID())
+                    .balance(30_00)
+                    .accountTransactions(List.of(
+                            new AccountTransaction(FROM.minusDays(1).atTime(12, 0), 10_00, 10_00, AccountTransactionType.DEPOSIT),
+                            new AccountTransaction(FROM.atTime(12, 0), 20_00, 30_00, AccountTransactionType.DEPOSIT)))
+                    .build());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        statementBatch.stop();
+    }
+
+    @Test
+    public void should_print_a_statement_file_per_account() throws IOException {
+        // When
+        StatementRunDTO run = statementBatch.run(FROM, TO, StatementFormat.CSV);
+
+        // Then
+        assertEquals(StatementRunDTO.COMPLETED, run.getStatus());
+        assertEquals(ACCOUNTS, run.getAccounts());
+        assertEquals(ACCOUNTS, run.getPrinted());
+        assertEquals(0, run.getFailed());
+        Path runDirectory = directory.resolve(FROM + "_" + TO);
+        try (Stream<Path> files = Files.list(runDirectory)) {
+            assertEquals(ACCOUNTS, files.count());
+        }
+        accountRepository.forEach(account -> {
+            try {
+                assertEquals(List.of("date,type,amount,balance", "2024-03-01T12:00:00.000,DEPOSIT,20.00,30.00"),
+                        Files.readAllLines(runDirectory.resolve(account.getId() + ".csv")));
+            } catch (IOException e) {
+                throw new AssertionError(e);
+            }
+        });
+    }
+
+    @Test
+    public void should_fail_when_the_statement_directory_cannot_be_created() throws IOException {
+        // Given
+        Files.writeString(directory.resolve(FROM + "_" + TO), "not a directory");
+
+        // When
+        StatementRunDTO run = statementBatch.run(FROM, TO, StatementFormat.TEXT);
+
+        // Then
+        assertEquals(StatementRunDTO.FAILED, run.getStatus());
+        assertEquals(0, run.getPrinted());
+    }
+}
@@ -0,0 +1,104 @@
+package com.sgib.service.statement;
+
+import com.sgib.domain.model.Account;
+import com.sgib.domain.model.AccountTransaction;
+import com.sgib.domain.model.AccountTransactionType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class StatementWriterTest {
+
+    private static final LocalDateTime FROM = LocalDateTime.of(2024, 3, 1, 0, 0);
+    private static final LocalDateTime TO = LocalDateTime.of(2024, 4, 1, 0, 0);
+
+    private Account account;
+
+    @BeforeEach
+    void setUp() {
+        account = Account.builder()
+                .id(UUID.randomUUID())
+                .balance(4_50)
+                .accountTransactions(List.of(
+                        new AccountTransaction(LocalDateTime.of(2024, 3, 1, 9, 0), 100_00, 100_00, AccountTransactionType.DEPOSIT),
+                        new AccountTransaction(LocalDateTime.of(2024, 3, 2, 10, 30, 15, 250_000_000), 25_50, 74_50, AccountTransactionType.WITHDRAWAL),
+                        new AccountTransaction(LocalDateTime.of(2024, 3, 31, 23, 59, 59, 999_000_000), 80_00, -5_50, AccountTransactionType.FEE),
+                        new AccountTransaction(TO, 10_00, 4_50, AccountTransactionType.DEPOSIT)))
+                .build();
+    }
+
+    @Test
+    void should_print_the_transactions_of_the_period_between_opening_and_closing_balances() throws IOException {
+        // When
+        String text = print(new StatementWriter(), Statement.of(account, FROM, TO), StatementFormat.TEXT);
+
+        // Then
+        String line = "%-25s%-12s%16s%16s\n";
+        assertEquals("Statement of account " + account.getId() + "\n"
+                + "Period: 2024-03-01T00:00 to 2024-04-01T00:00\n"
+                + "Opening balance: 0.00\n"
+                + "\n"
+                + String.format(line, "Date", "Type", "Amount", "Balance")
+                + String.format(line, "2024-03-01 09:00:00.000", "DEPOSIT", "100.00", "100.00")
+                + String.format(line, "2024-03-02 10:30:15.250", "WITHDRAWAL", "-25.50", "74.50")
+                + String.format(line, "2024-03-31 23:59:59.999", "FEE", "-80.00", "-5.50")
+                + "\n"
+                + "Closing balance: -5.50\n", text);
+    }
+
+    @Test
+    void should_print_one_csv_row_per_transaction() throws IOException {
+        // When
+        String csv = print(new StatementWriter(), Statement.of(account, null, null), StatementFormat.CSV);
+
+        // Then
+        assertEquals("date,type,amount,balance\n"
+                + "2024-03-01T09:00:00.000,DEPOSIT,100.00,100.00\n"
+                + "2024-03-02T10:30:15.250,WITHDRAWAL,-25.50,74.50\n"
+                + "2024-03-31T23:59:59.999,FEE,-80.00,-5.50\n"
+                + "2024-04-01T00:00:00.000,DEPOSIT,10.00,4.50\n", csv);
+    }
+
+    @Test
+    void should_print_the_same_statement_whatever_the_buffer_size() throws IOException {
+        // Given
+        List<AccountTransaction> accountTransactions = new ArrayList<>();
+        for (int i = 1; i <= 1000; i++)
+            accountTransactions.add(new AccountTransaction(FROM.plusMinutes(i), i, i * (i + 1L) / 2, AccountTransactionType.DEPOSIT));
+        Account busyAccount = Account.builder().id(UUID.randomUUID()).balance(500_500).accountTransactions(accountTransactions).build();
+        StatementWriter smallWriter = new StatementWriter(1);
+
+        // When
+        String printedOnce = print(smallWriter, Statement.of(busyAccount, null, null), StatementFormat.TEXT);
+        String printedAgain = print(smallWriter, Statement.of(busyAccount, null, null), StatementFormat.TEXT);
+
+        // Then
+        String expected = print(new StatementWriter(1 << 20), Statement.of(busyAccount, null, null), StatementFormat.TEXT);
+        assertEquals(expected, printedOnce);
+        assertEquals(expected, printedAgain);
+        assertEquals(1000 + 7, expected.lines().count());
+    }
+
+    @Test
+    void should_choose_the_format_from_the_accept_header() {
+        assertEquals(StatementFormat.CSV, StatementFormat.forAccept("text/csv"));
+        assertEquals(StatementFormat.CSV, StatementFormat.forAccept("text/plain;q=0.5, text/csv"));
+        assertEquals(StatementFormat.TEXT, StatementFormat.forAccept("*/*"));
+        assertEquals(StatementFormat.TEXT, StatementFormat.forAccept(null));
+    }
+
+    private static String print(StatementWriter writer, Statement statement, StatementFormat format) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        writer.write(statement, format, output);
+        return output.toString(StandardCharsets.US_ASCII);
+    }
+}